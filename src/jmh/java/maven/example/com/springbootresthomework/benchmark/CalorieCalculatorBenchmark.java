@@ -0,0 +1,48 @@
+package maven.example.com.springbootresthomework.benchmark;
+
+import maven.example.com.springbootresthomework.util.CalorieCalculator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Расчёт сожжённых калорий для известного и неизвестного (значение по умолчанию) типа тренировки,
+ * в том числе для названия в другом регистре и с лишними пробелами.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class CalorieCalculatorBenchmark {
+
+    @Param({"Running", "  jump   ROPE ", "Underwater Chess"})
+    private String workoutName;
+
+    private int duration;
+    private double weight;
+    private CalorieCalculator calorieCalculator;
+
+    @Setup
+    public void setUp() {
+        calorieCalculator = new CalorieCalculator();
+        duration = 45;
+        weight = 72.5;
+    }
+
+    @Benchmark
+    public int calculateCaloriesBurned() {
+        return calorieCalculator.calculateCaloriesBurned(workoutName, duration, weight);
+    }
+}
@@ -0,0 +1,93 @@
+package maven.example.com.springbootresthomework.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import maven.example.com.springbootresthomework.dto.MealDTO;
+import maven.example.com.springbootresthomework.dto.PageDTO;
+import maven.example.com.springbootresthomework.dto.UserDTO;
+import maven.example.com.springbootresthomework.dto.WorkoutDTO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сериализация DTO в JSON (тела ответов) и десериализация тел запросов.
+ * ObjectMapper собирается тем же Jackson2ObjectMapperBuilder, что и в приложении.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class JsonSerializationBenchmark {
+
+    private static final int PAGE_SIZE = 20;
+
+    private ObjectMapper objectMapper;
+    private ObjectWriter pageWriter;
+
+    private UserDTO userDTO;
+    private MealDTO mealDTO;
+    private WorkoutDTO workoutDTO;
+    private PageDTO<MealDTO> mealPage;
+    private byte[] mealJson;
+
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        pageWriter = objectMapper.writerFor(new TypeReference<PageDTO<MealDTO>>() {
+        });
+
+        userDTO = new UserDTO("Alice", 25, 65, 170);
+        mealDTO = new MealDTO("Pasta", 500, 1L);
+        workoutDTO = new WorkoutDTO("Running", 30);
+
+        List<MealDTO> meals = new ArrayList<>(PAGE_SIZE);
+        for (int i = 0; i < PAGE_SIZE; i++) {
+            meals.add(new MealDTO("Meal " + i, 100 + i, 1L));
+        }
+        mealPage = new PageDTO<>(meals, 20L);
+        mealJson = objectMapper.writeValueAsBytes(mealDTO);
+    }
+
+    @Benchmark
+    public byte[] writeUser() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(userDTO);
+    }
+
+    @Benchmark
+    public byte[] writeMeal() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(mealDTO);
+    }
+
+    @Benchmark
+    public byte[] writeWorkout() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(workoutDTO);
+    }
+
+    @Benchmark
+    public byte[] writeMealPage() throws JsonProcessingException {
+        return pageWriter.writeValueAsBytes(mealPage);
+    }
+
+    @Benchmark
+    public MealDTO readMeal() throws IOException {
+        return objectMapper.readValue(mealJson, MealDTO.class);
+    }
+}
@@ -0,0 +1,91 @@
+package maven.example.com.springbootresthomework.benchmark;
+
+import maven.example.com.springbootresthomework.dto.MealDTO;
+import maven.example.com.springbootresthomework.dto.UserDTO;
+import maven.example.com.springbootresthomework.dto.WorkoutDTO;
+import maven.example.com.springbootresthomework.entity.Meal;
+import maven.example.com.springbootresthomework.entity.User;
+import maven.example.com.springbootresthomework.entity.Workout;
+import maven.example.com.springbootresthomework.mapper.MealMapper;
+import maven.example.com.springbootresthomework.mapper.UserMapper;
+import maven.example.com.springbootresthomework.mapper.WorkoutMapper;
+import maven.example.com.springbootresthomework.util.CalorieCalculator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Стоимость преобразований сущность ↔ DTO, выполняемых на каждый запрос.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class MapperBenchmark {
+
+    private UserMapper userMapper;
+    private MealMapper mealMapper;
+    private WorkoutMapper workoutMapper;
+
+    private User user;
+    private UserDTO userDTO;
+    private Meal meal;
+    private MealDTO mealDTO;
+    private Workout workout;
+    private WorkoutDTO workoutDTO;
+
+    @Setup
+    public void setUp() {
+        mealMapper = new MealMapper();
+        workoutMapper = new WorkoutMapper(new CalorieCalculator());
+        userMapper = new UserMapper(mealMapper, workoutMapper);
+
+        user = new User(1L, "Alice", 25, 65, 170, null, null, null);
+        userDTO = new UserDTO("Alice", 25, 65, 170);
+        meal = new Meal(10L, "Pasta", 500, user);
+        mealDTO = new MealDTO("Pasta", 500, 1L);
+        workout = new Workout(20L, "Running", 30, 300, user);
+        workoutDTO = new WorkoutDTO("Running", 30);
+    }
+
+    @Benchmark
+    public UserDTO userToDTO() {
+        return userMapper.toDTO(user);
+    }
+
+    @Benchmark
+    public User userToEntity() {
+        return userMapper.toEntity(userDTO);
+    }
+
+    @Benchmark
+    public MealDTO mealToDTO() {
+        return mealMapper.toDTO(meal);
+    }
+
+    @Benchmark
+    public Meal mealToEntity() {
+        return mealMapper.toEntity(mealDTO, user);
+    }
+
+    @Benchmark
+    public WorkoutDTO workoutToDTO() {
+        return workoutMapper.toDTO(workout);
+    }
+
+    @Benchmark
+    public Workout workoutToEntity() {
+        return workoutMapper.toEntity(workoutDTO, user, user.getWeight());
+    }
+}
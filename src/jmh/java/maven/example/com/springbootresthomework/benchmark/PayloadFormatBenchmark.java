@@ -0,0 +1,100 @@
+package maven.example.com.springbootresthomework.benchmark;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import maven.example.com.springbootresthomework.dto.MealDTO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Размер и стоимость форматов ответа для списка приёмов пищи (GET /meals/user/{userId}):
+ * JSON, JSON со сжатием gzip (как server.compression в Tomcat), CBOR и Smile.
+ * Размер тела в байтах печатается при подготовке каждой комбинации параметров.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class PayloadFormatBenchmark {
+
+    private static final TypeReference<List<MealDTO>> MEAL_LIST = new TypeReference<>() {
+    };
+
+    @Param({"json", "json-gzip", "cbor", "smile"})
+    public String format;
+
+    @Param({"20", "500"})
+    public int size;
+
+    private ObjectWriter writer;
+    private ObjectReader reader;
+    private boolean gzip;
+
+    private List<MealDTO> meals;
+    private byte[] payload;
+
+    @Setup
+    public void setUp() throws IOException {
+        ObjectMapper objectMapper = switch (format) {
+            case "json", "json-gzip" -> Jackson2ObjectMapperBuilder.json().build();
+            case "cbor" -> Jackson2ObjectMapperBuilder.json().factory(new CBORFactory()).build();
+            case "smile" -> Jackson2ObjectMapperBuilder.json().factory(new SmileFactory()).build();
+            default -> throw new IllegalArgumentException(format);
+        };
+        writer = objectMapper.writerFor(MEAL_LIST);
+        reader = objectMapper.readerFor(MEAL_LIST);
+        gzip = format.equals("json-gzip");
+
+        meals = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            meals.add(new MealDTO("Meal " + (i % 50), 100 + i, 1L));
+        }
+        payload = write();
+        System.out.printf("%n%s, %d элементов: %d байт%n", format, size, payload.length);
+    }
+
+    @Benchmark
+    public byte[] write() throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        try (OutputStream out = gzip ? new GZIPOutputStream(buffer) : buffer) {
+            writer.writeValue(out, meals);
+        }
+        return buffer.toByteArray();
+    }
+
+    @Benchmark
+    public List<MealDTO> read() throws IOException {
+        try (InputStream in = gzip
+                ? new GZIPInputStream(new ByteArrayInputStream(payload))
+                : new ByteArrayInputStream(payload)) {
+            return reader.readValue(in);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package maven.example.com.springbootresthomework.loadtest;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Заливает в пустую БД пользователей, приёмы пищи, тренировки и их балансы.
+ * Строки генерируются на стороне PostgreSQL (generate_series): несколько операторов вместо
+ * сотен тысяч HTTP- или JDBC-вызовов.
+ */
+final class DataSeeder {
+
+    private static final String MEAL_NAMES = "ARRAY['Pasta', 'Salad', 'Soup', 'Steak', 'Oatmeal', 'Rice', 'Sandwich']";
+    private static final String WORKOUT_NAMES = "ARRAY['Running', 'Cycling', 'Swimming', 'Yoga', 'Rowing', 'Boxing', 'Hiking']";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    DataSeeder(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Заливает данные и возвращает ID созданных записей.
+     *
+     * @param settings объём данных (seed.*)
+     * @return ID пользователей, приёмов пищи и тренировок
+     */
+    Dataset seed(LoadTestSettings settings) {
+        jdbcTemplate.update("INSERT INTO users (name, age, weight, height) " +
+                "SELECT 'User ' || g, 18 + g % 50, 50 + g % 60, 150 + g % 50 " +
+                "FROM generate_series(1, ?) g", settings.users());
+
+        jdbcTemplate.update("INSERT INTO meals (name, calories, user_id) " +
+                "SELECT (" + MEAL_NAMES + ")[1 + (u.id + g) % 7], 100 + (u.id + g * 37) % 700, u.id " +
+                "FROM users u CROSS JOIN generate_series(1, ?) g", settings.mealsPerUser());
+
+        jdbcTemplate.update("INSERT INTO workouts (name, duration, calories_burned, user_id) " +
+                "SELECT (" + WORKOUT_NAMES + ")[1 + (u.id + g) % 7], 10 + (u.id + g) % 80, " +
+                "round(7 * u.weight * (10 + (u.id + g) % 80) / 60.0), u.id " +
+                "FROM users u CROSS JOIN generate_series(1, ?) g", settings.workoutsPerUser());
+
+        jdbcTemplate.update("INSERT INTO user_balances (user_id, calories_consumed, calories_burned) " +
+                "SELECT u.id, " +
+                "COALESCE((SELECT SUM(m.calories) FROM meals m WHERE m.user_id = u.id), 0), " +
+                "COALESCE((SELECT SUM(w.calories_burned) FROM workouts w WHERE w.user_id = u.id), 0) " +
+                "FROM users u");
+
+        // Статистика планировщика для только что залитых таблиц, иначе первые минуты прогона идут по плохим планам
+        jdbcTemplate.execute("ANALYZE users, meals, workouts, user_balances");
+
+        return new Dataset(ids("users"), ids("meals"), ids("workouts"));
+    }
+
+    private long[] ids(String table) {
+        return jdbcTemplate.queryForList("SELECT id FROM " + table + " ORDER BY id", Long.class)
+                .stream()
+                .mapToLong(Long::longValue)
+                .toArray();
+    }
+}
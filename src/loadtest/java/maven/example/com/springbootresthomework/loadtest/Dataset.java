@@ -0,0 +1,31 @@
+package maven.example.com.springbootresthomework.loadtest;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * ID записей, залитых перед прогоном; запросы выбирают их равномерно случайно.
+ */
+record Dataset(long[] userIds, long[] mealIds, long[] workoutIds) {
+
+    Dataset {
+        if (userIds.length == 0 || mealIds.length == 0 || workoutIds.length == 0) {
+            throw new IllegalArgumentException("Load test needs at least one user, meal and workout");
+        }
+    }
+
+    long randomUserId() {
+        return pick(userIds);
+    }
+
+    long randomMealId() {
+        return pick(mealIds);
+    }
+
+    long randomWorkoutId() {
+        return pick(workoutIds);
+    }
+
+    private static long pick(long[] ids) {
+        return ids[ThreadLocalRandom.current().nextInt(ids.length)];
+    }
+}
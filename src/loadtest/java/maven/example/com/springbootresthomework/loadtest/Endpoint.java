@@ -0,0 +1,139 @@
+package maven.example.com.springbootresthomework.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Эндпоинты, которые вызывает нагрузочный прогон. Ключ совпадает с суффиксом ключей mix.* и budget.*.
+ */
+enum Endpoint {
+
+    USERS_PAGE("users-page") {
+        @Override
+        HttpRequest.Builder request(URI base, Dataset data) {
+            return get(base, "/users?limit=20&after=" + data.randomUserId());
+        }
+    },
+    USER_BY_ID("user-by-id") {
+        @Override
+        HttpRequest.Builder request(URI base, Dataset data) {
+            return get(base, "/users/" + data.randomUserId());
+        }
+    },
+    USER_UPDATE("user-update") {
+        @Override
+        HttpRequest.Builder request(URI base, Dataset data) {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            return put(base, "/users/" + data.randomUserId(), "{\"name\":\"User\",\"age\":" + random.nextInt(18, 70) +
+                    ",\"weight\":" + random.nextInt(50, 110) + ",\"height\":" + random.nextInt(150, 200) + "}");
+        }
+    },
+    MEALS_PAGE("meals-page") {
+        @Override
+        HttpRequest.Builder request(URI base, Dataset data) {
+            return get(base, "/meals?limit=20&after=" + data.randomMealId());
+        }
+    },
+    MEAL_BY_ID("meal-by-id") {
+        @Override
+        HttpRequest.Builder request(URI base, Dataset data) {
+            return get(base, "/meals/" + data.randomMealId());
+        }
+    },
+    MEALS_BY_USER("meals-by-user") {
+        @Override
+        HttpRequest.Builder request(URI base, Dataset data) {
+            return get(base, "/meals/user/" + data.randomUserId());
+        }
+    },
+    MEAL_CREATE("meal-create") {
+        @Override
+        HttpRequest.Builder request(URI base, Dataset data) {
+            return post(base, "/meals/user/" + data.randomUserId(), mealBody());
+        }
+    },
+    MEAL_UPDATE("meal-update") {
+        @Override
+        HttpRequest.Builder request(URI base, Dataset data) {
+            return put(base, "/meals/" + data.randomMealId(), mealBody());
+        }
+    },
+    WORKOUTS_PAGE("workouts-page") {
+        @Override
+        HttpRequest.Builder request(URI base, Dataset data) {
+            return get(base, "/workouts?limit=20&after=" + data.randomWorkoutId());
+        }
+    },
+    WORKOUT_BY_ID("workout-by-id") {
+        @Override
+        HttpRequest.Builder request(URI base, Dataset data) {
+            return get(base, "/workouts/" + data.randomWorkoutId());
+        }
+    },
+    WORKOUTS_BY_USER("workouts-by-user") {
+        @Override
+        HttpRequest.Builder request(URI base, Dataset data) {
+            return get(base, "/workouts/user/" + data.randomUserId());
+        }
+    },
+    WORKOUT_CREATE("workout-create") {
+        @Override
+        HttpRequest.Builder request(URI base, Dataset data) {
+            return post(base, "/workouts/user/" + data.randomUserId(), workoutBody());
+        }
+    },
+    WORKOUT_UPDATE("workout-update") {
+        @Override
+        HttpRequest.Builder request(URI base, Dataset data) {
+            return put(base, "/workouts/" + data.randomWorkoutId(), workoutBody());
+        }
+    };
+
+    private static final String[] MEALS = {"Pasta", "Salad", "Soup", "Steak", "Oatmeal"};
+    private static final String[] WORKOUTS = {"Running", "Cycling", "Swimming", "Yoga", "Rowing"};
+
+    private final String key;
+
+    Endpoint(String key) {
+        this.key = key;
+    }
+
+    String key() {
+        return key;
+    }
+
+    /**
+     * Собирает запрос к случайной записи из залитых данных.
+     *
+     * @param base адрес запущенного приложения
+     * @param data ID залитых записей
+     */
+    abstract HttpRequest.Builder request(URI base, Dataset data);
+
+    private static HttpRequest.Builder get(URI base, String path) {
+        return HttpRequest.newBuilder(base.resolve(path)).GET();
+    }
+
+    private static HttpRequest.Builder post(URI base, String path, String json) {
+        return HttpRequest.newBuilder(base.resolve(path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json));
+    }
+
+    private static HttpRequest.Builder put(URI base, String path, String json) {
+        return HttpRequest.newBuilder(base.resolve(path))
+                .header("Content-Type", "application/json")
+                .PUT(HttpRequest.BodyPublishers.ofString(json));
+    }
+
+    private static String mealBody() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return "{\"name\":\"" + MEALS[random.nextInt(MEALS.length)] + "\",\"calories\":" + random.nextInt(100, 900) + "}";
+    }
+
+    private static String workoutBody() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return "{\"name\":\"" + WORKOUTS[random.nextInt(WORKOUTS.length)] + "\",\"duration\":" + random.nextInt(10, 90) + "}";
+    }
+}
@@ -0,0 +1,84 @@
+package maven.example.com.springbootresthomework.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Задержки и исходы запросов одного эндпоинта. Запись потокобезопасна и не блокирует отправителей.
+ * Задержки хранятся в микросекундах в HdrHistogram (3 значащие цифры до 60 с).
+ */
+final class EndpointStats {
+
+    private static final long MAX_LATENCY_MICROS = TimeUnit.SECONDS.toMicros(60);
+
+    private final Histogram latencies = new ConcurrentHistogram(MAX_LATENCY_MICROS, 3);
+    private final LongAdder succeeded = new LongAdder();
+    private final LongAdder conflicts = new LongAdder();
+    private final LongAdder notFound = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+
+    /**
+     * Записывает завершённый запрос.
+     *
+     * @param latencyNanos время от запланированной отправки до ответа
+     * @param status       HTTP-статус или -1, если ответа нет
+     */
+    void record(long latencyNanos, int status) {
+        latencies.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(latencyNanos), MAX_LATENCY_MICROS));
+        if (status >= 200 && status < 300) {
+            succeeded.increment();
+        } else if (status == 409) {
+            // Конфликт параллельных обновлений после исчерпания повторов — ожидаемый исход под нагрузкой
+            conflicts.increment();
+        } else if (status == 404) {
+            // Запись удалена параллельным запросом; в штатной смеси не встречается
+            notFound.increment();
+        } else if (status == 503) {
+            // Отказ ConcurrencyLimitFilter при перегрузке: ошибка, но считается отдельно, чтобы видеть долю отказов
+            rejected.increment();
+        } else {
+            errors.increment();
+        }
+    }
+
+    long count() {
+        return latencies.getTotalCount();
+    }
+
+    long succeeded() {
+        return succeeded.sum();
+    }
+
+    long conflicts() {
+        return conflicts.sum();
+    }
+
+    long notFound() {
+        return notFound.sum();
+    }
+
+    long rejected() {
+        return rejected.sum();
+    }
+
+    long errors() {
+        return errors.sum();
+    }
+
+    /**
+     * Перцентиль задержки в миллисекундах.
+     *
+     * @param percentile от 0 до 100
+     */
+    double percentileMillis(double percentile) {
+        return latencies.getValueAtPercentile(percentile) / 1000.0;
+    }
+
+    double maxMillis() {
+        return latencies.getMaxValue() / 1000.0;
+    }
+}
@@ -0,0 +1,105 @@
+package maven.example.com.springbootresthomework.loadtest;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * TCP-прокси между приложением и PostgreSQL, который задерживает каждое сообщение клиента
+ * (в духе toxiproxy, но без отдельного процесса). JDBC-драйвер отправляет оператор одной записью
+ * (Parse/Bind/Execute/Sync), поэтому задержка добавляется к каждому обращению к БД, а соединение
+ * всё это время занято — как при медленной сети или тяжёлом запросе.
+ * <p>
+ * Нужен, чтобы узким местом был поток, ждущий БД, а не CPU: без задержки встроенный PostgreSQL
+ * отвечает за доли миллисекунды, и режимы потоков почти не различаются.
+ */
+final class LatencyProxy implements Closeable {
+
+    private static final int BUFFER_SIZE = 16 * 1024;
+
+    private final ServerSocket serverSocket;
+    private final int targetPort;
+    private final long delayMillis;
+    private final Set<Socket> sockets = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Запускает прокси на свободном локальном порту.
+     *
+     * @param targetPort порт PostgreSQL на localhost
+     * @param delay      задержка каждого сообщения клиента
+     */
+    LatencyProxy(int targetPort, Duration delay) throws IOException {
+        this.serverSocket = new ServerSocket(0, 1000, InetAddress.getLoopbackAddress());
+        this.targetPort = targetPort;
+        this.delayMillis = delay.toMillis();
+        Thread.ofVirtual().name("latency-proxy-accept").start(this::acceptLoop);
+    }
+
+    int port() {
+        return serverSocket.getLocalPort();
+    }
+
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+        for (Socket socket : sockets) {
+            socket.close();
+        }
+    }
+
+    private void acceptLoop() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket client = serverSocket.accept();
+                Socket server = new Socket(InetAddress.getLoopbackAddress(), targetPort);
+                client.setTcpNoDelay(true);
+                server.setTcpNoDelay(true);
+                sockets.add(client);
+                sockets.add(server);
+                Thread.ofVirtual().start(() -> pump(client, server, delayMillis));
+                Thread.ofVirtual().start(() -> pump(server, client, 0));
+            } catch (IOException e) {
+                if (!serverSocket.isClosed()) {
+                    System.err.println("Latency proxy: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void pump(Socket from, Socket to, long delay) {
+        byte[] buffer = new byte[BUFFER_SIZE];
+        try (InputStream in = from.getInputStream(); OutputStream out = to.getOutputStream()) {
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                if (delay > 0) {
+                    Thread.sleep(delay);
+                }
+                out.write(buffer, 0, read);
+                out.flush();
+            }
+        } catch (IOException e) {
+            // Одна из сторон закрыла соединение — закрываем и вторую
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            closeQuietly(from);
+            closeQuietly(to);
+        }
+    }
+
+    private void closeQuietly(Socket socket) {
+        sockets.remove(socket);
+        try {
+            socket.close();
+        } catch (IOException e) {
+            // Уже закрыт
+        }
+    }
+}
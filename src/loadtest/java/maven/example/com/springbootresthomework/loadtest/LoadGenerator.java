@@ -0,0 +1,113 @@
+package maven.example.com.springbootresthomework.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Генератор нагрузки с открытой моделью: запросы уходят по расписанию с постоянной частотой,
+ * а задержка считается от запланированного момента отправки. Если сервер не успевает, ожидание
+ * в очереди попадает в задержку, а не теряется, как в замкнутой модели «отправил — дождался — отправил».
+ * <p>
+ * Число одновременных запросов ограничено load.max-in-flight, чтобы зависший сервер не исчерпал
+ * память генератора; время ожидания свободного слота тоже входит в задержку.
+ */
+final class LoadGenerator {
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    private final URI base;
+    private final Dataset data;
+    private final int rate;
+    private final int maxInFlight;
+    private final Endpoint[] endpoints;
+    private final int[] cumulativeWeights;
+    private final HttpClient client;
+
+    LoadGenerator(URI base, Dataset data, LoadTestSettings settings) {
+        this.base = base;
+        this.data = data;
+        this.rate = settings.rate();
+        this.maxInFlight = settings.maxInFlight();
+        this.endpoints = Endpoint.values();
+        this.cumulativeWeights = new int[endpoints.length];
+        int total = 0;
+        for (int i = 0; i < endpoints.length; i++) {
+            total += settings.weight(endpoints[i]);
+            cumulativeWeights[i] = total;
+        }
+        if (total == 0) {
+            throw new IllegalArgumentException("At least one mix.* weight must be positive");
+        }
+        if (rate <= 0) {
+            throw new IllegalArgumentException("load.rate must be positive");
+        }
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+    }
+
+    /**
+     * Подаёт нагрузку заданное время и ждёт завершения всех отправленных запросов.
+     *
+     * @param duration длительность фазы
+     * @return статистика по эндпоинтам и фактическая длительность фазы с учётом ожидания ответов
+     */
+    LoadReport run(Duration duration) throws InterruptedException {
+        Map<Endpoint, EndpointStats> stats = new EnumMap<>(Endpoint.class);
+        for (Endpoint endpoint : endpoints) {
+            stats.put(endpoint, new EndpointStats());
+        }
+
+        Semaphore inFlight = new Semaphore(maxInFlight);
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / rate;
+        long start = System.nanoTime();
+        long end = start + duration.toNanos();
+
+        for (long i = 0; ; i++) {
+            long scheduled = start + i * intervalNanos;
+            if (scheduled >= end) {
+                break;
+            }
+            long wait = scheduled - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            inFlight.acquire();
+
+            Endpoint endpoint = nextEndpoint();
+            EndpointStats endpointStats = stats.get(endpoint);
+            client.sendAsync(endpoint.request(base, data).timeout(REQUEST_TIMEOUT).build(),
+                            HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, error) -> {
+                        endpointStats.record(System.nanoTime() - scheduled, error == null ? response.statusCode() : -1);
+                        inFlight.release();
+                    });
+        }
+
+        // Дождаться ответов на все отправленные запросы
+        if (!inFlight.tryAcquire(maxInFlight, REQUEST_TIMEOUT.toSeconds() + 1, TimeUnit.SECONDS)) {
+            throw new IllegalStateException("Requests did not complete within " + REQUEST_TIMEOUT);
+        }
+        return new LoadReport(stats, Duration.ofNanos(System.nanoTime() - start));
+    }
+
+    private Endpoint nextEndpoint() {
+        int point = ThreadLocalRandom.current().nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (point < cumulativeWeights[i]) {
+                return endpoints[i];
+            }
+        }
+        throw new IllegalStateException("Unreachable");
+    }
+}
@@ -0,0 +1,147 @@
+package maven.example.com.springbootresthomework.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Итог измеряемой фазы: пропускная способность и перцентили задержек по эндпоинтам,
+ * сверка с бюджетами и запись отчёта в JSON для сравнения между коммитами.
+ */
+final class LoadReport {
+
+    private static final Map<String, Double> PERCENTILES = new LinkedHashMap<>();
+
+    static {
+        PERCENTILES.put("p50", 50.0);
+        PERCENTILES.put("p99", 99.0);
+        PERCENTILES.put("p999", 99.9);
+    }
+
+    private final Map<Endpoint, EndpointStats> stats;
+    private final Duration elapsed;
+
+    LoadReport(Map<Endpoint, EndpointStats> stats, Duration elapsed) {
+        this.stats = stats;
+        this.elapsed = elapsed;
+    }
+
+    /**
+     * Печатает таблицу по эндпоинтам, которые вызывались в фазе.
+     */
+    void print(PrintStream out) {
+        out.printf(Locale.ROOT, "%-18s %8s %9s %9s %9s %9s %9s %7s %7s %7s%n",
+                "endpoint", "requests", "req/s", "p50 ms", "p99 ms", "p999 ms", "max ms", "409", "503", "errors");
+        stats.forEach((endpoint, s) -> {
+            if (s.count() > 0) {
+                out.printf(Locale.ROOT, "%-18s %8d %9.1f %9.2f %9.2f %9.2f %9.2f %7d %7d %7d%n",
+                        endpoint.key(), s.count(), throughput(s.count()),
+                        s.percentileMillis(50), s.percentileMillis(99), s.percentileMillis(99.9), s.maxMillis(),
+                        s.conflicts(), s.rejected(), s.errors() + s.notFound());
+            }
+        });
+        out.printf(Locale.ROOT, "total: %d requests in %.1f s, %.1f req/s, error rate %.4f, 503 rate %.4f%n",
+                totalCount(), seconds(), throughput(totalCount()), errorRate(), rejectedRate());
+    }
+
+    /**
+     * Сверяет результат с бюджетами.
+     *
+     * @return список нарушений; пустой, если все бюджеты соблюдены
+     */
+    List<String> violations(LoadTestSettings settings) {
+        List<String> violations = new ArrayList<>();
+        stats.forEach((endpoint, s) -> {
+            if (s.count() == 0) {
+                return;
+            }
+            PERCENTILES.forEach((name, percentile) -> {
+                Double budget = settings.budgetMillis(endpoint, name);
+                double actual = s.percentileMillis(percentile);
+                if (budget != null && actual > budget) {
+                    violations.add(String.format(Locale.ROOT, "%s %s %.2f ms > budget %.2f ms",
+                            endpoint.key(), name, actual, budget));
+                }
+            });
+        });
+        if (errorRate() > settings.maxErrorRate()) {
+            violations.add(String.format(Locale.ROOT, "error rate %.4f > budget %.4f", errorRate(), settings.maxErrorRate()));
+        }
+        if (throughput(totalCount()) < settings.minThroughput()) {
+            violations.add(String.format(Locale.ROOT, "throughput %.1f req/s < budget %.1f req/s",
+                    throughput(totalCount()), settings.minThroughput()));
+        }
+        return violations;
+    }
+
+    /**
+     * Пишет отчёт в JSON: на каждый эндпоинт — число запросов, req/s, перцентили и исходы.
+     */
+    void write(Path file, List<String> violations) throws IOException {
+        Map<String, Object> endpoints = new LinkedHashMap<>();
+        stats.forEach((endpoint, s) -> {
+            if (s.count() > 0) {
+                Map<String, Object> row = new LinkedHashMap<>();
+                row.put("requests", s.count());
+                row.put("throughput", throughput(s.count()));
+                row.put("p50Millis", s.percentileMillis(50));
+                row.put("p99Millis", s.percentileMillis(99));
+                row.put("p999Millis", s.percentileMillis(99.9));
+                row.put("maxMillis", s.maxMillis());
+                row.put("succeeded", s.succeeded());
+                row.put("conflicts", s.conflicts());
+                row.put("notFound", s.notFound());
+                row.put("rejected", s.rejected());
+                row.put("errors", s.errors());
+                endpoints.put(endpoint.key(), row);
+            }
+        });
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("durationSeconds", seconds());
+        report.put("requests", totalCount());
+        report.put("throughput", throughput(totalCount()));
+        report.put("errorRate", errorRate());
+        report.put("rejectedRate", rejectedRate());
+        report.put("endpoints", endpoints);
+        report.put("violations", violations);
+
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(file.toFile(), report);
+    }
+
+    private long totalCount() {
+        return stats.values().stream().mapToLong(EndpointStats::count).sum();
+    }
+
+    private double errorRate() {
+        long total = totalCount();
+        long failed = stats.values().stream().mapToLong(s -> s.errors() + s.notFound() + s.rejected()).sum();
+        return total == 0 ? 0 : (double) failed / total;
+    }
+
+    private double rejectedRate() {
+        long total = totalCount();
+        return total == 0 ? 0 : (double) stats.values().stream().mapToLong(EndpointStats::rejected).sum() / total;
+    }
+
+    private double throughput(long count) {
+        return count / seconds();
+    }
+
+    private double seconds() {
+        return elapsed.toNanos() / 1e9;
+    }
+}
@@ -0,0 +1,93 @@
+package maven.example.com.springbootresthomework.loadtest;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import maven.example.com.springbootresthomework.SpringBootRestHomeworkApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Нагрузочный прогон: встроенный PostgreSQL → приложение на случайном порту → заливка данных →
+ * прогрев → измеряемая фаза смешанной нагрузки на UserController, MealController и WorkoutController.
+ * <p>
+ * Печатает req/s и p50/p99/p999 по эндпоинтам, пишет JSON-отчёт и завершается с кодом 1,
+ * если нарушен хотя бы один бюджет (budget.* в loadtest.properties), — так регрессия роняет сборку.
+ * С db.latency-ms приложение ходит в БД через {@link LatencyProxy}, app.profiles включает профили приложения
+ * (например, virtual-threads для сравнения режимов потоков), app.property.* переопределяет его свойства.
+ * Запуск: {@code ./mvnw -Pload-test test-compile exec:exec@load-test}.
+ */
+public final class LoadTestRunner {
+
+    private LoadTestRunner() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestSettings settings = LoadTestSettings.load(args);
+
+        List<String> violations;
+        try (EmbeddedPostgres postgres = EmbeddedPostgres.builder().start();
+             LatencyProxy proxy = settings.dbLatency().isZero() ? null : new LatencyProxy(postgres.getPort(), settings.dbLatency());
+             ConfigurableApplicationContext context = startApplication(postgres, proxy, settings)) {
+
+            System.out.printf("Seeding %d users, %d meals and %d workouts per user...%n",
+                    settings.users(), settings.mealsPerUser(), settings.workoutsPerUser());
+            // Заливка идёт напрямую, мимо прокси с задержкой
+            Dataset data = new DataSeeder(new JdbcTemplate(postgres.getPostgresDatabase())).seed(settings);
+
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            LoadGenerator generator = new LoadGenerator(URI.create("http://localhost:" + port), data, settings);
+
+            System.out.printf("Profiles: [%s], DB latency: %d ms%n", settings.profiles(), settings.dbLatency().toMillis());
+            System.out.printf("Warming up for %d s at %d req/s...%n", settings.warmup().toSeconds(), settings.rate());
+            generator.run(settings.warmup());
+
+            System.out.printf("Measuring for %d s at %d req/s...%n", settings.duration().toSeconds(), settings.rate());
+            LoadReport report = generator.run(settings.duration());
+
+            report.print(System.out);
+            violations = report.violations(settings);
+            if (settings.reportFile() != null) {
+                report.write(Path.of(settings.reportFile()), violations);
+            }
+        }
+
+        if (!violations.isEmpty()) {
+            System.err.println("Latency budget exceeded:");
+            violations.forEach(violation -> System.err.println("  " + violation));
+            System.exit(1);
+        }
+        System.out.println("All budgets met");
+    }
+
+    /**
+     * Поднимает приложение со всеми настройками application.properties, кроме источника данных.
+     * Логи приглушены, чтобы не тормозить запросы выводом в консоль.
+     *
+     * @param proxy    прокси с задержкой или null, если приложение подключается к БД напрямую
+     * @param settings профили (app.profiles) и свойства приложения (app.property.*)
+     */
+    private static ConfigurableApplicationContext startApplication(EmbeddedPostgres postgres, LatencyProxy proxy,
+                                                                   LoadTestSettings settings) {
+        int port = proxy != null ? proxy.port() : postgres.getPort();
+        String profiles = settings.profiles();
+        List<String> arguments = new ArrayList<>(List.of("--server.port=0",
+                "--spring.datasource.url=jdbc:postgresql://localhost:" + port + "/postgres",
+                "--spring.datasource.username=postgres",
+                "--spring.datasource.password=postgres",
+                "--logging.level.root=WARN"));
+        // Свойства прогона идут последними и переопределяют значения выше
+        arguments.addAll(settings.applicationArguments());
+        // Аргументом приложения перезапуск devtools не отключить: он перезапускает main() раньше, чем читает
+        // свойства, и параметры прогона терялись бы
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        return new SpringApplicationBuilder(SpringBootRestHomeworkApplication.class)
+                .profiles(profiles.isEmpty() ? new String[0] : profiles.split("\\s*,\\s*"))
+                .run(arguments.toArray(String[]::new));
+    }
+}
@@ -0,0 +1,148 @@
+package maven.example.com.springbootresthomework.loadtest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * Параметры прогона: loadtest.properties из classpath, поверх которого применяются аргументы вида key=value.
+ */
+final class LoadTestSettings {
+
+    private static final String DEFAULTS = "loadtest.properties";
+    private static final String APPLICATION_PROPERTY_PREFIX = "app.property.";
+
+    private final Properties properties;
+
+    private LoadTestSettings(Properties properties) {
+        this.properties = properties;
+    }
+
+    /**
+     * Загружает параметры по умолчанию и переопределения из командной строки.
+     *
+     * @param args аргументы вида key=value
+     * @throws IllegalArgumentException если аргумент не в формате key=value
+     */
+    static LoadTestSettings load(String[] args) {
+        Properties properties = new Properties();
+        try (InputStream in = LoadTestSettings.class.getClassLoader().getResourceAsStream(DEFAULTS)) {
+            if (in == null) {
+                throw new IllegalStateException(DEFAULTS + " not found on classpath");
+            }
+            properties.load(in);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (eq <= 0) {
+                throw new IllegalArgumentException("Expected key=value, got: " + arg);
+            }
+            properties.setProperty(arg.substring(0, eq).trim(), arg.substring(eq + 1).trim());
+        }
+        return new LoadTestSettings(properties);
+    }
+
+    int users() {
+        return intValue("seed.users");
+    }
+
+    int mealsPerUser() {
+        return intValue("seed.meals-per-user");
+    }
+
+    int workoutsPerUser() {
+        return intValue("seed.workouts-per-user");
+    }
+
+    int rate() {
+        return intValue("load.rate");
+    }
+
+    int maxInFlight() {
+        return intValue("load.max-in-flight");
+    }
+
+    Duration warmup() {
+        return Duration.ofSeconds(intValue("load.warmup-seconds"));
+    }
+
+    Duration duration() {
+        return Duration.ofSeconds(intValue("load.duration-seconds"));
+    }
+
+    /**
+     * Задержка каждого обращения приложения к БД ({@link LatencyProxy}); ноль — без прокси.
+     */
+    Duration dbLatency() {
+        return Duration.ofMillis(Long.parseLong(properties.getProperty("db.latency-ms", "0").trim()));
+    }
+
+    /**
+     * Профили Spring приложения через запятую, например virtual-threads; пустая строка — профиль по умолчанию.
+     */
+    String profiles() {
+        return properties.getProperty("app.profiles", "").trim();
+    }
+
+    /**
+     * Свойства приложения из ключей app.property.*: app.property.spring.datasource.hikari.maximum-pool-size=50
+     * передаётся приложению как --spring.datasource.hikari.maximum-pool-size=50.
+     */
+    List<String> applicationArguments() {
+        List<String> arguments = new ArrayList<>();
+        for (String key : properties.stringPropertyNames()) {
+            if (key.startsWith(APPLICATION_PROPERTY_PREFIX)) {
+                String name = key.substring(APPLICATION_PROPERTY_PREFIX.length());
+                arguments.add("--" + name + "=" + properties.getProperty(key).trim());
+            }
+        }
+        return arguments;
+    }
+
+    /**
+     * Вес эндпоинта в смеси запросов; эндпоинт без ключа mix.* не вызывается.
+     */
+    int weight(Endpoint endpoint) {
+        String value = properties.getProperty("mix." + endpoint.key());
+        return value == null ? 0 : Integer.parseInt(value.trim());
+    }
+
+    /**
+     * Бюджет задержки эндпоинта для перцентиля (в миллисекундах).
+     *
+     * @param percentile p50, p99 или p999
+     * @return бюджет эндпоинта, иначе budget.default.*, иначе null — перцентиль не проверяется
+     */
+    Double budgetMillis(Endpoint endpoint, String percentile) {
+        String value = properties.getProperty("budget." + endpoint.key() + "." + percentile,
+                properties.getProperty("budget.default." + percentile));
+        return value == null ? null : Double.valueOf(value.trim());
+    }
+
+    double maxErrorRate() {
+        return Double.parseDouble(properties.getProperty("budget.max-error-rate", "0").trim());
+    }
+
+    double minThroughput() {
+        return Double.parseDouble(properties.getProperty("budget.min-throughput", "0").trim());
+    }
+
+    String reportFile() {
+        return properties.getProperty("report.file");
+    }
+
+    private int intValue(String key) {
+        String value = properties.getProperty(key);
+        if (value == null) {
+            throw new IllegalStateException("Missing load test setting: " + key);
+        }
+        return Integer.parseInt(value.trim());
+    }
+}
@@ -2,8 +2,10 @@ package maven.example.com.springbootresthomework;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class SpringBootRestHomeworkApplication {
 
     public static void main(String[] args) {
@@ -0,0 +1,14 @@
+package maven.example.com.springbootresthomework.config;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Включает кэширование через аннотации.
+ * Провайдер (Caffeine), размер, TTL и сбор статистики задаются свойствами spring.cache.*;
+ * статистика публикуется actuator'ом как метрики cache.gets, cache.puts и cache.evictions.
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+}
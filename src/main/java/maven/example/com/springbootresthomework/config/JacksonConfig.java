@@ -0,0 +1,47 @@
+package maven.example.com.springbootresthomework.config;
+
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+/**
+ * Настройка Jackson для DTO ответов.
+ * Spring Boot добавляет все бины Module в общий ObjectMapper (им же пользуется JsonStreamWriter).
+ */
+@Configuration
+public class JacksonConfig {
+
+    /**
+     * Blackbird заменяет рефлексивные вызовы геттеров и сеттеров сгенерированными через LambdaMetafactory:
+     * сериализация DTO быстрее и не упирается в Method.invoke. Преемник Afterburner для Java 11+.
+     */
+    @Bean
+    public Module blackbirdModule() {
+        return new BlackbirdModule();
+    }
+
+    /**
+     * Конвертер CBOR для Accept: application/cbor.
+     * Spring MVC добавил бы его и сам, но со своим ObjectMapper; бин с тем же классом заменяет конвертер
+     * по умолчанию на том же месте — после JSON, так что для *&#47;* ответ остаётся JSON.
+     * Builder от Spring Boot переносит в бинарный формат настройки spring.jackson.* и модули (Blackbird).
+     */
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+
+    /**
+     * Конвертер Smile (бинарный JSON Jackson) для Accept: application/x-jackson-smile.
+     */
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(builder.factory(new SmileFactory()).build());
+    }
+}
@@ -0,0 +1,14 @@
+package maven.example.com.springbootresthomework.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.retry.annotation.EnableRetry;
+
+/**
+ * Включает повтор вызовов через аннотации (@Retryable).
+ * Совет повтора имеет более высокий приоритет, чем транзакционный, поэтому каждая попытка —
+ * отдельная транзакция.
+ */
+@Configuration
+@EnableRetry
+public class RetryConfig {
+}
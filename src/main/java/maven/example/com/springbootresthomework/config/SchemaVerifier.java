@@ -0,0 +1,75 @@
+package maven.example.com.springbootresthomework.config;
+
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.MigrationInfo;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Проверка состояния схемы БД при старте.
+ * Выполняется после создания всех бинов, но до запуска веб-сервера: если миграции не применены
+ * или нет обязательных индексов, приложение не стартует и не принимает запросы.
+ */
+@Component
+public class SchemaVerifier implements SmartInitializingSingleton {
+
+    /**
+     * Индексы, без которых запросы по user_id и ON DELETE CASCADE выполняются полным сканированием.
+     */
+    static final List<String> REQUIRED_INDEXES = List.of("idx_meals_user_id_id", "idx_workouts_user_id_id");
+
+    private static final String FIND_INDEXES_SQL =
+            "SELECT indexname FROM pg_indexes WHERE schemaname = current_schema() AND tablename IN ('meals', 'workouts')";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectProvider<Flyway> flyway;
+
+    public SchemaVerifier(JdbcTemplate jdbcTemplate, ObjectProvider<Flyway> flyway) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.flyway = flyway;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        verifyNoPendingMigrations();
+        verifyRequiredIndexes();
+    }
+
+    /**
+     * Проверяет, что все миграции применены (если Flyway включён в этом окружении).
+     *
+     * @throws IllegalStateException если есть неприменённые миграции
+     */
+    void verifyNoPendingMigrations() {
+        flyway.ifAvailable(migrations -> {
+            MigrationInfo[] pending = migrations.info().pending();
+            if (pending.length > 0) {
+                String versions = Arrays.stream(pending)
+                        .map(MigrationInfo::getScript)
+                        .collect(Collectors.joining(", "));
+                throw new IllegalStateException("Database schema has pending migrations: " + versions);
+            }
+        });
+    }
+
+    /**
+     * Проверяет наличие обязательных индексов (в том числе когда миграции выполняются вне приложения).
+     *
+     * @throws IllegalStateException если какого-то индекса нет
+     */
+    void verifyRequiredIndexes() {
+        List<String> existing = jdbcTemplate.queryForList(FIND_INDEXES_SQL, String.class);
+        List<String> missing = REQUIRED_INDEXES.stream()
+                .filter(index -> !existing.contains(index))
+                .collect(Collectors.toList());
+        if (!missing.isEmpty()) {
+            throw new IllegalStateException("Database schema is missing required indexes: " + missing);
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package maven.example.com.springbootresthomework.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import java.time.Duration;
+
+/**
+ * Защитные настройки режима виртуальных потоков (профиль virtual-threads, spring.threads.virtual.enabled=true).
+ * Сам перевод Tomcat и асинхронных исполнителей на виртуальные потоки выполняет Spring Boot.
+ */
+@Configuration
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadsConfig {
+
+    /**
+     * Фильтр ограничения параллелизма; регистрируется первым, до любой работы с БД.
+     */
+    @Bean
+    public FilterRegistrationBean<ConcurrencyLimitFilter> concurrencyLimitFilter(
+            @Value("${app.virtual-threads.max-concurrent-requests}") int maxConcurrentRequests,
+            @Value("${app.virtual-threads.acquire-timeout}") Duration acquireTimeout) {
+        FilterRegistrationBean<ConcurrencyLimitFilter> registration =
+                new FilterRegistrationBean<>(new ConcurrencyLimitFilter(maxConcurrentRequests, acquireTimeout));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+}
@@ -0,0 +1,16 @@
+package maven.example.com.springbootresthomework.constants;
+
+/**
+ * Имена кэшей приложения (настройки Caffeine — в application.properties).
+ */
+public class CacheNames {
+
+    // UserDTO по ID пользователя
+    public static final String USERS = "users";
+
+    // Факт существования пользователя по ID (кэшируются только положительные ответы)
+    public static final String USER_EXISTS = "userExists";
+
+    private CacheNames() {
+    }
+}
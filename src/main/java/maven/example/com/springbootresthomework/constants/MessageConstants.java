@@ -14,10 +14,12 @@ public class MessageConstants {
     public static final String WORKOUT_CREATED = "Workout created successfully";
     public static final String WORKOUT_UPDATED = "Workout updated successfully";
     public static final String WORKOUT_DELETED = "Workout deleted successfully";
+    public static final String WORKOUTS_CREATED = "Workouts created successfully";
 
     public static final String MEAL_CREATED = "Meal created successfully";
     public static final String MEAL_UPDATED = "Meal updated successfully";
     public static final String MEAL_DELETED = "Meal deleted successfully";
+    public static final String MEALS_CREATED = "Meals created successfully";
 
     // Ошибки
     public static final String USER_NOT_FOUND = "User not found";
@@ -28,10 +30,19 @@ public class MessageConstants {
     public static final String INVALID_WORKOUT_ID = "Invalid workout ID format";
     public static final String INVALID_MEAL_ID = "Invalid meal ID format";
 
+    public static final String INVALID_PAGE_LIMIT = "Limit must be between 1 and 100";
+    public static final String INVALID_SUGGESTION_LIMIT = "Limit must be between 1 and 50";
+    public static final String EMPTY_SEARCH_PREFIX = "Prefix cannot be empty";
+    public static final String INVALID_IF_MATCH = "If-Match must be a single ETag returned by this service";
+
+    public static final String CONCURRENT_UPDATE = "Resource was modified concurrently, reload it and retry";
+    public static final String VERSION_MISMATCH = "Resource version does not match If-Match, reload it and retry";
+
     // Общие ошибки
     public static final String INTERNAL_SERVER_ERROR = "Internal server error";
     public static final String CONSTRAINT_VIOLATION = "Validation constraint violation";
     public static final String INVALID_JSON = "Invalid JSON format in request";
+    public static final String SERVER_BUSY = "Server is busy, please retry later";
 
     private MessageConstants() {
     }
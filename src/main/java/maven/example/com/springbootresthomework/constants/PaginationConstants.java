@@ -0,0 +1,16 @@
+package maven.example.com.springbootresthomework.constants;
+
+/**
+ * Константы для постраничной (keyset) выборки списков.
+ */
+public class PaginationConstants {
+
+    // Значение параметра limit по умолчанию (строка, так как используется в @RequestParam)
+    public static final String DEFAULT_LIMIT = "20";
+
+    // Максимально допустимый размер страницы
+    public static final int MAX_LIMIT = 100;
+
+    private PaginationConstants() {
+    }
+}
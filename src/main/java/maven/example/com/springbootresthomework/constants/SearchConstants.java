@@ -0,0 +1,16 @@
+package maven.example.com.springbootresthomework.constants;
+
+/**
+ * Константы поиска подсказок по префиксу названия.
+ */
+public class SearchConstants {
+
+    // Число подсказок по умолчанию (строка, так как используется в @RequestParam)
+    public static final String DEFAULT_SUGGESTION_LIMIT = "10";
+
+    // Максимальное число подсказок в одном ответе
+    public static final int MAX_SUGGESTION_LIMIT = 50;
+
+    private SearchConstants() {
+    }
+}
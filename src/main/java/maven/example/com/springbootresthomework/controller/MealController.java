@@ -1,12 +1,25 @@
 package maven.example.com.springbootresthomework.controller;
 
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
 import maven.example.com.springbootresthomework.constants.MessageConstants;
+import maven.example.com.springbootresthomework.constants.PaginationConstants;
+import maven.example.com.springbootresthomework.constants.SearchConstants;
 import maven.example.com.springbootresthomework.dto.MealDTO;
+import maven.example.com.springbootresthomework.dto.NameSuggestionDTO;
+import maven.example.com.springbootresthomework.dto.PageDTO;
 import maven.example.com.springbootresthomework.service.MealService;
+import maven.example.com.springbootresthomework.service.NameSuggestionService;
+import maven.example.com.springbootresthomework.util.ConditionalGet;
+import maven.example.com.springbootresthomework.util.ConditionalUpdate;
+import maven.example.com.springbootresthomework.util.JsonStreamWriter;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
@@ -19,41 +32,80 @@ import java.util.List;
 public class MealController {
 
     private final MealService mealService;
+    private final JsonStreamWriter jsonStreamWriter;
+    private final NameSuggestionService nameSuggestionService;
 
-    public MealController(MealService mealService) {
+    public MealController(MealService mealService, JsonStreamWriter jsonStreamWriter,
+                          NameSuggestionService nameSuggestionService) {
         this.mealService = mealService;
+        this.jsonStreamWriter = jsonStreamWriter;
+        this.nameSuggestionService = nameSuggestionService;
     }
 
     /**
-     * Получить список всех приёмов пищи.
+     * Получить страницу приёмов пищи.
      *
-     * @return Список всех приёмов пищи
+     * @param after курсор: ID последнего приёма пищи предыдущей страницы (необязательный)
+     * @param limit размер страницы
+     * @return Страница приёмов пищи и курсор следующей страницы
      */
     @GetMapping
-    public ResponseEntity<List<MealDTO>> getAllMeals() {
-        return ResponseEntity.ok(mealService.getAllMeals());
+    public ResponseEntity<PageDTO<MealDTO>> getAllMeals(@RequestParam(required = false) Long after,
+            @RequestParam(defaultValue = PaginationConstants.DEFAULT_LIMIT) int limit) {
+        return ResponseEntity.ok(mealService.getAllMeals(after, limit));
+    }
+
+    /**
+     * Выгрузить все приёмы пищи потоком в формате NDJSON (один JSON-объект на строку).
+     * Строки отправляются клиенту по мере чтения из БД.
+     *
+     * @return поток приёмов пищи
+     */
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportMeals() {
+        StreamingResponseBody body = jsonStreamWriter.ndjson(mealService::exportMeals);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    /**
+     * Подсказать названия приёмов пищи по началу названия (автодополнение).
+     *
+     * @param prefix начало названия
+     * @param limit  максимальное число подсказок
+     * @return Самые частые названия с этим префиксом
+     */
+    @GetMapping("/search")
+    public ResponseEntity<List<NameSuggestionDTO>> searchMealNames(@RequestParam String prefix,
+            @RequestParam(defaultValue = SearchConstants.DEFAULT_SUGGESTION_LIMIT) int limit) {
+        return ResponseEntity.ok(nameSuggestionService.suggestMealNames(prefix, limit));
     }
 
     /**
      * Получить приём пищи по ID.
      *
      * @param id ID приёма пищи
-     * @return Найденный приём пищи или 404, если не найден
+     * @param request Запрос (If-None-Match)
+     * @return Найденный приём пищи с ETag, 304, если не изменился, или 404, если не найден
      */
     @GetMapping("/{id}")
-    public ResponseEntity<MealDTO> getMealById(@PathVariable Long id) {
-        return ResponseEntity.ok(mealService.getMealById(id));
+    public ResponseEntity<MealDTO> getMealById(@PathVariable Long id, WebRequest request) {
+        return ConditionalGet.ifModified(request, mealService.getMealVersion(id), () -> mealService.getMealById(id));
     }
 
     /**
      * Получить приёмы пищи конкретного пользователя.
      *
      * @param userId ID пользователя
-     * @return Список приёмов пищи пользователя
+     * @param request Запрос (If-None-Match, Accept)
+     * @return Массив (JSON, CBOR или Smile по Accept) приёмов пищи пользователя с ETag (пишется потоком),
+     * 304, если список не изменился, или 404, если пользователь не найден
      */
     @GetMapping("/user/{userId}")
-    public ResponseEntity<List<MealDTO>> getMealsByUserId(@PathVariable Long userId) {
-        return ResponseEntity.ok(mealService.getMealsByUserId(userId));
+    public ResponseEntity<StreamingResponseBody> getMealsByUserId(@PathVariable Long userId, WebRequest request) {
+        return ConditionalGet.ifModifiedStream(request, mealService.getMealsVersionByUserId(userId),
+                format -> jsonStreamWriter.<MealDTO>array(format, action -> mealService.streamMealsByUserId(userId, action)));
     }
 
     /**
@@ -63,23 +115,41 @@ public class MealController {
      * @param mealDTO Данные нового приёма пищи
      * @return Сообщение о создании
      */
-    @PostMapping("/user/{userId}")
+    @PostMapping(value = "/user/{userId}", produces = {MediaType.TEXT_PLAIN_VALUE, MediaType.APPLICATION_JSON_VALUE})
     public ResponseEntity<String> createMeal(@PathVariable Long userId, @Valid @RequestBody MealDTO mealDTO) {
         mealService.createMeal(userId, mealDTO);
         return ResponseEntity.status(HttpStatus.CREATED)
                 .body(MessageConstants.MEAL_CREATED);
     }
 
+    /**
+     * Создать несколько приёмов пищи для пользователя одним запросом.
+     *
+     * @param userId   ID пользователя
+     * @param mealDTOs Данные новых приёмов пищи
+     * @return Сообщение о создании
+     */
+    @PostMapping(value = "/user/{userId}/batch", produces = {MediaType.TEXT_PLAIN_VALUE, MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<String> createMeals(@PathVariable Long userId,
+                                              @RequestBody @NotEmpty List<@Valid MealDTO> mealDTOs) {
+        mealService.createMeals(userId, mealDTOs);
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .body(MessageConstants.MEALS_CREATED);
+    }
+
     /**
      * Обновить приём пищи по ID.
      *
      * @param id      ID приёма пищи
      * @param mealDTO Новые данные
-     * @return Сообщение об обновлении или 404, если не найден
+     * @param ifMatch ETag приёма пищи, на основе которого сделаны изменения (необязательный)
+     * @return Сообщение об обновлении, 404, если не найден, 409 при конфликте параллельных обновлений
+     * или 412, если версия не совпала с If-Match
      */
-    @PutMapping("/{id}")
-    public ResponseEntity<String> updateMeal(@PathVariable Long id, @Valid @RequestBody MealDTO mealDTO) {
-        mealService.updateMeal(id, mealDTO);
+    @PutMapping(value = "/{id}", produces = {MediaType.TEXT_PLAIN_VALUE, MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<String> updateMeal(@PathVariable Long id, @Valid @RequestBody MealDTO mealDTO,
+                                             @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        mealService.updateMeal(id, mealDTO, ConditionalUpdate.expectedVersion(ifMatch));
         return ResponseEntity.ok(MessageConstants.MEAL_UPDATED);
     }
 
@@ -89,7 +159,7 @@ public class MealController {
      * @param id ID приёма пищи
      * @return Сообщение об удалении
      */
-    @DeleteMapping("/{id}")
+    @DeleteMapping(value = "/{id}", produces = {MediaType.TEXT_PLAIN_VALUE, MediaType.APPLICATION_JSON_VALUE})
     public ResponseEntity<String> deleteMeal(@PathVariable Long id) {
         mealService.deleteMeal(id);
         return ResponseEntity.ok(MessageConstants.MEAL_DELETED);
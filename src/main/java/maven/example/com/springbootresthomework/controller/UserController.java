@@ -2,14 +2,24 @@ package maven.example.com.springbootresthomework.controller;
 
 import jakarta.validation.Valid;
 import maven.example.com.springbootresthomework.constants.MessageConstants;
+import maven.example.com.springbootresthomework.constants.PaginationConstants;
+import maven.example.com.springbootresthomework.dto.BalanceDTO;
+import maven.example.com.springbootresthomework.dto.PageDTO;
+import maven.example.com.springbootresthomework.dto.UserCreateDTO;
 import maven.example.com.springbootresthomework.dto.UserDTO;
+import maven.example.com.springbootresthomework.dto.UserProfileDTO;
+import maven.example.com.springbootresthomework.dto.VersionedDTO;
 import maven.example.com.springbootresthomework.entity.User;
+import maven.example.com.springbootresthomework.service.BalanceService;
 import maven.example.com.springbootresthomework.service.UserService;
+import maven.example.com.springbootresthomework.util.ConditionalGet;
+import maven.example.com.springbootresthomework.util.ConditionalUpdate;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-
-import java.util.List;
+import org.springframework.web.context.request.WebRequest;
 
 /**
  * Контроллер для управления пользователями.
@@ -20,40 +30,70 @@ import java.util.List;
 public class UserController {
 
     private final UserService userService;
+    private final BalanceService balanceService;
 
-    public UserController(UserService userService) {
+    public UserController(UserService userService, BalanceService balanceService) {
         this.userService = userService;
+        this.balanceService = balanceService;
     }
 
     /**
-     * Получить список всех пользователей.
+     * Получить страницу пользователей.
      *
-     * @return Список пользователей
+     * @param after курсор: ID последнего пользователя предыдущей страницы (необязательный)
+     * @param limit размер страницы
+     * @return Страница пользователей и курсор следующей страницы
      */
     @GetMapping
-    public ResponseEntity<List<UserDTO>> getAllUsers() {
-        return ResponseEntity.ok(userService.getAllUsers());
+    public ResponseEntity<PageDTO<UserDTO>> getAllUsers(@RequestParam(required = false) Long after,
+            @RequestParam(defaultValue = PaginationConstants.DEFAULT_LIMIT) int limit) {
+        return ResponseEntity.ok(userService.getAllUsers(after, limit));
     }
 
     /**
      * Получить пользователя по ID.
      *
      * @param id Идентификатор пользователя
-     * @return Данные пользователя или 404, если не найден
+     * @param request Запрос (If-None-Match)
+     * @return Данные пользователя с ETag, 304, если не изменились, или 404, если не найден
      */
     @GetMapping("/{id}")
-    public ResponseEntity<UserDTO> getUserById(@PathVariable Long id) {
-        return ResponseEntity.ok(userService.getUserById(id));
+    public ResponseEntity<UserDTO> getUserById(@PathVariable Long id, WebRequest request) {
+        VersionedDTO<UserDTO> user = userService.getVersionedUser(id);
+        return ConditionalGet.ifModified(request, user.getVersion(), user::getBody);
+    }
+
+    /**
+     * Получить профиль пользователя вместе с приёмами пищи и тренировками одним запросом.
+     *
+     * @param id Идентификатор пользователя
+     * @return Профиль пользователя или 404, если не найден
+     */
+    @GetMapping("/{id}/profile")
+    public ResponseEntity<UserProfileDTO> getUserProfile(@PathVariable Long id) {
+        return ResponseEntity.ok(userService.getUserProfile(id));
+    }
+
+    /**
+     * Получить калорийный баланс пользователя.
+     *
+     * @param id Идентификатор пользователя
+     * @return Потреблённые и сожжённые калории и их разница или 404, если пользователь не найден
+     */
+    @GetMapping("/{id}/balance")
+    public ResponseEntity<BalanceDTO> getUserBalance(@PathVariable Long id) {
+        return ResponseEntity.ok(balanceService.getBalance(id));
     }
 
     /**
-     * Создать нового пользователя.
+     * Создать нового пользователя, при необходимости сразу с историей приёмов пищи и тренировок
+     * (поля meals и workouts).
      *
      * @param userDTO Данные пользователя
      * @return Сообщение о создании
      */
-    @PostMapping
-    public ResponseEntity<String> createUser(@Valid @RequestBody UserDTO userDTO) {
+    @PostMapping(produces = {MediaType.TEXT_PLAIN_VALUE, MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<String> createUser(@Valid @RequestBody UserCreateDTO userDTO) {
         userService.createUser(userDTO);
         return ResponseEntity.status(HttpStatus.CREATED)
                 .body(MessageConstants.USER_CREATED);
@@ -64,11 +104,14 @@ public class UserController {
      *
      * @param id      Идентификатор пользователя
      * @param userDTO Новые данные пользователя
-     * @return Сообщение об обновлении или 404, если не найден
+     * @param ifMatch ETag, полученный клиентом при чтении (необязательный)
+     * @return Сообщение об обновлении, 404, если не найден, 409 при конфликте параллельных обновлений
+     * или 412, если версия не совпала с If-Match
      */
-    @PutMapping("/{id}")
-    public ResponseEntity<String> updateUser(@PathVariable Long id, @Valid @RequestBody UserDTO userDTO) {
-        userService.updateUser(id, userDTO);
+    @PutMapping(value = "/{id}", produces = {MediaType.TEXT_PLAIN_VALUE, MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<String> updateUser(@PathVariable Long id, @Valid @RequestBody UserDTO userDTO,
+                                             @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        userService.updateUser(id, userDTO, ConditionalUpdate.expectedVersion(ifMatch));
         return ResponseEntity.ok(MessageConstants.USER_UPDATED);
     }
 
@@ -78,7 +121,7 @@ public class UserController {
      * @param id Идентификатор пользователя
      * @return Сообщение об удалении
      */
-    @DeleteMapping("/{id}")
+    @DeleteMapping(value = "/{id}", produces = {MediaType.TEXT_PLAIN_VALUE, MediaType.APPLICATION_JSON_VALUE})
     public ResponseEntity<String> deleteUser(@PathVariable Long id) {
         userService.deleteUser(id);
         return ResponseEntity.ok(MessageConstants.USER_DELETED);
@@ -1,11 +1,24 @@
 package maven.example.com.springbootresthomework.controller;
 
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
 import maven.example.com.springbootresthomework.constants.MessageConstants;
+import maven.example.com.springbootresthomework.constants.PaginationConstants;
+import maven.example.com.springbootresthomework.constants.SearchConstants;
+import maven.example.com.springbootresthomework.dto.NameSuggestionDTO;
+import maven.example.com.springbootresthomework.dto.PageDTO;
 import maven.example.com.springbootresthomework.dto.WorkoutDTO;
+import maven.example.com.springbootresthomework.service.NameSuggestionService;
 import maven.example.com.springbootresthomework.service.WorkoutService;
+import maven.example.com.springbootresthomework.util.ConditionalGet;
+import maven.example.com.springbootresthomework.util.ConditionalUpdate;
+import maven.example.com.springbootresthomework.util.JsonStreamWriter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
@@ -18,41 +31,81 @@ import java.util.List;
 public class WorkoutController {
 
     private final WorkoutService workoutService;
+    private final JsonStreamWriter jsonStreamWriter;
+    private final NameSuggestionService nameSuggestionService;
 
-    public WorkoutController(WorkoutService workoutService) {
+    public WorkoutController(WorkoutService workoutService, JsonStreamWriter jsonStreamWriter,
+                             NameSuggestionService nameSuggestionService) {
         this.workoutService = workoutService;
+        this.jsonStreamWriter = jsonStreamWriter;
+        this.nameSuggestionService = nameSuggestionService;
     }
 
     /**
-     * Получить список всех тренировок.
+     * Получить страницу тренировок.
      *
-     * @return список тренировок
+     * @param after курсор: идентификатор последней тренировки предыдущей страницы (необязательный)
+     * @param limit размер страницы
+     * @return страница тренировок и курсор следующей страницы
      */
     @GetMapping
-    public ResponseEntity<List<WorkoutDTO>> getAllWorkouts() {
-        return ResponseEntity.ok(workoutService.getAllWorkouts());
+    public ResponseEntity<PageDTO<WorkoutDTO>> getAllWorkouts(@RequestParam(required = false) Long after,
+            @RequestParam(defaultValue = PaginationConstants.DEFAULT_LIMIT) int limit) {
+        return ResponseEntity.ok(workoutService.getAllWorkouts(after, limit));
+    }
+
+    /**
+     * Выгрузить все тренировки потоком в формате NDJSON (один JSON-объект на строку).
+     * Строки отправляются клиенту по мере чтения из БД.
+     *
+     * @return поток тренировок
+     */
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportWorkouts() {
+        StreamingResponseBody body = jsonStreamWriter.ndjson(workoutService::exportWorkouts);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    /**
+     * Подсказать названия тренировок по началу названия (автодополнение).
+     *
+     * @param prefix начало названия
+     * @param limit  максимальное число подсказок
+     * @return самые частые названия тренировок с этим префиксом
+     */
+    @GetMapping("/search")
+    public ResponseEntity<List<NameSuggestionDTO>> searchWorkoutNames(@RequestParam String prefix,
+            @RequestParam(defaultValue = SearchConstants.DEFAULT_SUGGESTION_LIMIT) int limit) {
+        return ResponseEntity.ok(nameSuggestionService.suggestWorkoutNames(prefix, limit));
     }
 
     /**
      * Получить тренировку по ID.
      *
      * @param id идентификатор тренировки
-     * @return данные о тренировке или 404, если не найдена
+     * @param request запрос (If-None-Match)
+     * @return данные о тренировке с ETag, 304, если не изменилась, или 404, если не найдена
      */
     @GetMapping("/{id}")
-    public ResponseEntity<WorkoutDTO> getWorkoutById(@PathVariable Long id) {
-        return ResponseEntity.ok(workoutService.getWorkoutById(id));
+    public ResponseEntity<WorkoutDTO> getWorkoutById(@PathVariable Long id, WebRequest request) {
+        return ConditionalGet.ifModified(request, workoutService.getWorkoutVersion(id),
+                () -> workoutService.getWorkoutById(id));
     }
 
     /**
      * Получить список тренировок пользователя.
      *
      * @param userId идентификатор пользователя
-     * @return список тренировок пользователя
+     * @param request запрос (If-None-Match, Accept)
+     * @return массив (JSON, CBOR или Smile по Accept) тренировок пользователя с ETag (пишется потоком),
+     * 304, если список не изменился, или 404, если пользователь не найден
      */
     @GetMapping("/user/{userId}")
-    public ResponseEntity<List<WorkoutDTO>> getWorkoutByUserId(@PathVariable Long userId) {
-        return ResponseEntity.ok(workoutService.getWorkoutsByUserId(userId));
+    public ResponseEntity<StreamingResponseBody> getWorkoutByUserId(@PathVariable Long userId, WebRequest request) {
+        return ConditionalGet.ifModifiedStream(request, workoutService.getWorkoutsVersionByUserId(userId),
+                format -> jsonStreamWriter.<WorkoutDTO>array(format, action -> workoutService.streamWorkoutsByUserId(userId, action)));
     }
 
     /**
@@ -63,23 +116,42 @@ public class WorkoutController {
      * @param workoutDTO данные тренировки (название и продолжительность)
      * @return сообщение об успешном создании
      */
-    @PostMapping("/user/{userId}")
+    @PostMapping(value = "/user/{userId}", produces = {MediaType.TEXT_PLAIN_VALUE, MediaType.APPLICATION_JSON_VALUE})
     public ResponseEntity<String> createWorkout(@PathVariable Long userId, @Valid @RequestBody WorkoutDTO workoutDTO) {
         workoutService.createWorkout(userId, workoutDTO);
         return ResponseEntity.ok()
                 .body(MessageConstants.WORKOUT_CREATED);
     }
 
+    /**
+     * Создать несколько тренировок для пользователя одним запросом.
+     * Калории рассчитываются автоматически.
+     *
+     * @param userId      идентификатор пользователя
+     * @param workoutDTOs данные тренировок
+     * @return сообщение об успешном создании
+     */
+    @PostMapping(value = "/user/{userId}/batch", produces = {MediaType.TEXT_PLAIN_VALUE, MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<String> createWorkouts(@PathVariable Long userId,
+                                                 @RequestBody @NotEmpty List<@Valid WorkoutDTO> workoutDTOs) {
+        workoutService.createWorkouts(userId, workoutDTOs);
+        return ResponseEntity.ok()
+                .body(MessageConstants.WORKOUTS_CREATED);
+    }
+
     /**
      * Обновить данные тренировки.
      *
      * @param id         идентификатор тренировки
      * @param workoutDTO новые данные тренировки
-     * @return сообщение об обновлении
+     * @param ifMatch    ETag тренировки из предыдущего GET (необязательный)
+     * @return сообщение об обновлении; 409, если тренировку изменили параллельно,
+     * или 412, если она не совпала с If-Match
      */
-    @PutMapping("/{id}")
-    public ResponseEntity<String> updateWorkout(@PathVariable Long id, @Valid @RequestBody WorkoutDTO workoutDTO) {
-        workoutService.updateWorkout(id, workoutDTO);
+    @PutMapping(value = "/{id}", produces = {MediaType.TEXT_PLAIN_VALUE, MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<String> updateWorkout(@PathVariable Long id, @Valid @RequestBody WorkoutDTO workoutDTO,
+                                                @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        workoutService.updateWorkout(id, workoutDTO, ConditionalUpdate.expectedVersion(ifMatch));
         return ResponseEntity.ok()
                 .body(MessageConstants.WORKOUT_UPDATED);
     }
@@ -90,7 +162,7 @@ public class WorkoutController {
      * @param id идентификатор тренировки
      * @return сообщение об удалении
      */
-    @DeleteMapping("/{id}")
+    @DeleteMapping(value = "/{id}", produces = {MediaType.TEXT_PLAIN_VALUE, MediaType.APPLICATION_JSON_VALUE})
     public ResponseEntity<String> deleteWorkout(@PathVariable Long id) {
         workoutService.deleteWorkout(id);
         return ResponseEntity.ok()
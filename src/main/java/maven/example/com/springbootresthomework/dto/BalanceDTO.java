@@ -0,0 +1,42 @@
+package maven.example.com.springbootresthomework.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.Objects;
+
+/**
+ * Калорийный баланс пользователя.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class BalanceDTO {
+
+    // Сумма калорий всех приёмов пищи
+    private long caloriesConsumed;
+
+    // Сумма калорий, сожжённых на тренировках
+    private long caloriesBurned;
+
+    // Потреблено минус сожжено
+    private long netBalance;
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) return true;
+        if (obj == null || getClass() != obj.getClass()) return false;
+        BalanceDTO that = (BalanceDTO) obj;
+        return caloriesConsumed == that.caloriesConsumed &&
+                caloriesBurned == that.caloriesBurned &&
+                netBalance == that.netBalance;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(caloriesConsumed, caloriesBurned, netBalance);
+    }
+}
@@ -0,0 +1,38 @@
+package maven.example.com.springbootresthomework.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.Objects;
+
+/**
+ * Подсказка для автодополнения названия.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class NameSuggestionDTO {
+
+    // Название в том виде, в каком оно встретилось впервые
+    private String name;
+
+    // Сколько записей с этим названием (без учёта регистра)
+    private long count;
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) return true;
+        if (obj == null || getClass() != obj.getClass()) return false;
+        NameSuggestionDTO that = (NameSuggestionDTO) obj;
+        return count == that.count &&
+                Objects.equals(name, that.name);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(name, count);
+    }
+}
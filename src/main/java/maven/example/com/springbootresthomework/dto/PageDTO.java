@@ -0,0 +1,38 @@
+package maven.example.com.springbootresthomework.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * DTO страницы списка при keyset-пагинации.
+ * nextCursor передаётся в параметр after следующего запроса; null — страниц больше нет.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class PageDTO<T> {
+
+    private List<T> items;
+
+    private Long nextCursor;
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) return true;
+        if (obj == null || getClass() != obj.getClass()) return false;
+        PageDTO<?> pageDTO = (PageDTO<?>) obj;
+        return Objects.equals(items, pageDTO.items) &&
+                Objects.equals(nextCursor, pageDTO.nextCursor);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(items, nextCursor);
+    }
+}
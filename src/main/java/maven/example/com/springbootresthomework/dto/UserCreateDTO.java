@@ -0,0 +1,43 @@
+package maven.example.com.springbootresthomework.dto;
+
+import jakarta.validation.Valid;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * DTO для создания пользователя вместе с уже накопленной историей.
+ * Приёмы пищи и тренировки необязательны; userId во вложенных приёмах пищи игнорируется.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+public class UserCreateDTO extends UserDTO {
+
+    private List<@Valid MealDTO> meals;
+
+    private List<@Valid WorkoutDTO> workouts;
+
+    public UserCreateDTO(String name, int age, double weight, double height,
+                         List<MealDTO> meals, List<WorkoutDTO> workouts) {
+        super(name, age, weight, height);
+        this.meals = meals;
+        this.workouts = workouts;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (!super.equals(obj)) return false;
+        UserCreateDTO that = (UserCreateDTO) obj;
+        return Objects.equals(meals, that.meals) &&
+                Objects.equals(workouts, that.workouts);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(super.hashCode(), meals, workouts);
+    }
+}
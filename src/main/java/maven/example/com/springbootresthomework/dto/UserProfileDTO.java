@@ -0,0 +1,41 @@
+package maven.example.com.springbootresthomework.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Профиль пользователя: его данные, приёмы пищи и тренировки в одном ответе.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserProfileDTO {
+
+    private UserDTO user;
+
+    // Упорядочены по ID (в порядке создания)
+    private List<MealDTO> meals;
+
+    private List<WorkoutDTO> workouts;
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) return true;
+        if (obj == null || getClass() != obj.getClass()) return false;
+        UserProfileDTO that = (UserProfileDTO) obj;
+        return Objects.equals(user, that.user) &&
+                Objects.equals(meals, that.meals) &&
+                Objects.equals(workouts, that.workouts);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(user, meals, workouts);
+    }
+}
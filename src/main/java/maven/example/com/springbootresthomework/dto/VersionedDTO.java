@@ -0,0 +1,37 @@
+package maven.example.com.springbootresthomework.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.Objects;
+
+/**
+ * DTO вместе с версией строки, из которой он построен (для ETag).
+ * Версия и тело получены одним чтением, поэтому ETag всегда описывает именно это тело.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class VersionedDTO<T> {
+
+    private long version;
+
+    private T body;
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) return true;
+        if (obj == null || getClass() != obj.getClass()) return false;
+        VersionedDTO<?> versionedDTO = (VersionedDTO<?>) obj;
+        return version == versionedDTO.version &&
+                Objects.equals(body, versionedDTO.body);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(version, body);
+    }
+}
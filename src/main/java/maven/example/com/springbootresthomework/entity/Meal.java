@@ -4,6 +4,8 @@ import jakarta.persistence.*;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import lombok.*;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
 
 @Entity
 @Table(name = "meals")
@@ -15,7 +17,8 @@ import lombok.*;
 public class Meal {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "meals_id_seq")
+    @SequenceGenerator(name = "meals_id_seq", sequenceName = "meals_id_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank(message = "Name cannot be blank")
@@ -24,7 +27,8 @@ public class Meal {
     @Min(value = 10, message = "Calories must be greater than 10")
     private int calories;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
     private User user;
 }
@@ -6,6 +6,8 @@ import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.util.List;
 
@@ -13,6 +15,17 @@ import java.util.List;
 @Entity
 // Задаёт имя таблицы в БД
 @Table(name = "users")
+// Графы для загрузки пользователя с одной из коллекций. Обе коллекции сразу одним запросом дали бы
+// декартово произведение (и MultipleBagFetchException для List), поэтому профиль читается двумя запросами
+@NamedEntityGraphs({
+        @NamedEntityGraph(name = User.GRAPH_WITH_MEALS, attributeNodes = @NamedAttributeNode("meals")),
+        @NamedEntityGraph(name = User.GRAPH_WITH_WORKOUTS, attributeNodes = @NamedAttributeNode("workouts"))
+})
+// Кэш второго уровня (регион user в application.conf). Строки users меняет только Hibernate
+// (@Version ведёт он же), поэтому READ_WRITE обновляет кэш вместе с каждой записью.
+// Коллекции не кэшируются: приёмы пищи и тренировки меняются SQL-операторами в обход Hibernate
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = User.CACHE_REGION)
 @Getter
 @Setter
 @NoArgsConstructor
@@ -20,9 +33,14 @@ import java.util.List;
 @ToString
 public class User {
 
-    // Primary Key, автоинкрементный
+    public static final String GRAPH_WITH_MEALS = "User.withMeals";
+    public static final String GRAPH_WITH_WORKOUTS = "User.withWorkouts";
+    public static final String CACHE_REGION = "user";
+
+    // Primary Key из последовательности; Hibernate резервирует сразу блок ID, что позволяет пакетную вставку
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_id_seq")
+    @SequenceGenerator(name = "users_id_seq", sequenceName = "users_id_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank(message = "Name cannot be blank")
@@ -38,12 +56,21 @@ public class User {
     @Min(value = 80, message = "Height must be greater than or equal to 80")
     private double height;
 
-    @OneToMany(mappedBy = "user", cascade = CascadeType.ALL, orphanRemoval = true)
+    // Каскадируется только сохранение: новый пользователь записывается вместе с переданной историей.
+    // При удалении пользователя тренировки и приёмы пищи удаляет БД (ON DELETE CASCADE),
+    // поэтому коллекции не загружаются в память
+    @OneToMany(mappedBy = "user", cascade = CascadeType.PERSIST)
+    @OrderBy("id")
     @JsonManagedReference
     private List<Workout> workouts;
 
-    @OneToMany(mappedBy = "user", cascade = CascadeType.ALL, orphanRemoval = true)
+    @OneToMany(mappedBy = "user", cascade = CascadeType.PERSIST)
+    @OrderBy("id")
     @JsonManagedReference
     private List<Meal> meals;
 
+    // Оптимистическая блокировка: UPDATE ... WHERE version = ?, при конфликте — ObjectOptimisticLockingFailureException
+    @Version
+    private Long version;
+
 }
@@ -0,0 +1,30 @@
+package maven.example.com.springbootresthomework.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Агрегированный калорийный баланс пользователя.
+ * Суммы поддерживаются инкрементально в той же транзакции, что и изменения приёмов пищи и тренировок,
+ * поэтому чтение баланса — один запрос по первичному ключу.
+ */
+@Entity
+@Table(name = "user_balances")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+public class UserBalance {
+
+    // Primary Key совпадает с ID пользователя (внешний ключ на users с ON DELETE CASCADE)
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    // Сумма калорий всех приёмов пищи
+    private long caloriesConsumed;
+
+    // Сумма Workout.caloriesBurned всех тренировок
+    private long caloriesBurned;
+}
@@ -5,6 +5,8 @@ import jakarta.persistence.*;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import lombok.*;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
 
 @Entity
 @Table(name = "workouts")
@@ -16,7 +18,8 @@ import lombok.*;
 public class Workout {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "workouts_id_seq")
+    @SequenceGenerator(name = "workouts_id_seq", sequenceName = "workouts_id_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank(message = "Workout name cannot be empty")
@@ -27,8 +30,9 @@ public class Workout {
 
     private int caloriesBurned;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
     @JsonBackReference
     private User user;
 }
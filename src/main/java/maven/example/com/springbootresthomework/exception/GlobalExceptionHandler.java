@@ -3,20 +3,24 @@ package maven.example.com.springbootresthomework.exception;
 import jakarta.persistence.EntityNotFoundException;
 import jakarta.validation.ConstraintViolationException;
 import maven.example.com.springbootresthomework.constants.MessageConstants;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.validation.FieldError;
+import org.springframework.web.HttpMediaTypeNotAcceptableException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.method.annotation.HandlerMethodValidationException;
 
 import java.util.HashMap;
 import java.util.Map;
 
 /**
  * Глобальный обработчик ошибок.
- * Перехватывает исключения и возвращает JSON с ошибкой.
+ * Перехватывает исключения и возвращает JSON с ошибками валидации или текстовое сообщение.
  */
 @RestControllerAdvice
 public class GlobalExceptionHandler {
@@ -26,7 +30,23 @@ public class GlobalExceptionHandler {
      */
     @ExceptionHandler(EntityNotFoundException.class)
     public ResponseEntity<String> handleEntityNotFoundException(EntityNotFoundException ex) {
-        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ex.getMessage());
+        return message(HttpStatus.NOT_FOUND, ex.getMessage());
+    }
+
+    /**
+     * Обрабатывает несовпадение версии ресурса с If-Match: условие запроса не выполнено.
+     */
+    @ExceptionHandler(VersionMismatchException.class)
+    public ResponseEntity<String> handleVersionMismatch(VersionMismatchException ex) {
+        return message(HttpStatus.PRECONDITION_FAILED, MessageConstants.VERSION_MISMATCH);
+    }
+
+    /**
+     * Обрабатывает конфликты параллельных обновлений, оставшиеся после всех повторов.
+     */
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<String> handleOptimisticLockingFailure(OptimisticLockingFailureException ex) {
+        return message(HttpStatus.CONFLICT, MessageConstants.CONCURRENT_UPDATE);
     }
 
     /**
@@ -46,7 +66,15 @@ public class GlobalExceptionHandler {
      */
     @ExceptionHandler(ConstraintViolationException.class)
     public ResponseEntity<String> handleConstraintViolationException(ConstraintViolationException ex) {
-        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(MessageConstants.CONSTRAINT_VIOLATION);
+        return message(HttpStatus.BAD_REQUEST, MessageConstants.CONSTRAINT_VIOLATION);
+    }
+
+    /**
+     * Обрабатывает ошибки валидации параметров метода (например, @NotEmpty List<@Valid MealDTO>).
+     */
+    @ExceptionHandler(HandlerMethodValidationException.class)
+    public ResponseEntity<String> handleHandlerMethodValidationException(HandlerMethodValidationException ex) {
+        return message(HttpStatus.BAD_REQUEST, MessageConstants.CONSTRAINT_VIOLATION);
     }
 
     /**
@@ -54,7 +82,7 @@ public class GlobalExceptionHandler {
      */
     @ExceptionHandler(HttpMessageNotReadableException.class)
     public ResponseEntity<String> handleHttpMessageNotReadable(HttpMessageNotReadableException ex) {
-        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(MessageConstants.INVALID_JSON);
+        return message(HttpStatus.BAD_REQUEST, MessageConstants.INVALID_JSON);
     }
 
     /**
@@ -62,7 +90,16 @@ public class GlobalExceptionHandler {
      */
     @ExceptionHandler(IllegalArgumentException.class)
     public ResponseEntity<String> handleIllegalArgumentException(IllegalArgumentException ex) {
-        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(ex.getMessage());
+        return message(HttpStatus.BAD_REQUEST, ex.getMessage());
+    }
+
+    /**
+     * Обрабатывает запросы, в Accept которых нет ни одного типа, доступного эндпоинту
+     * (например, только application/cbor для текстового сообщения). Тело не отправляется: клиент его не примет.
+     */
+    @ExceptionHandler(HttpMediaTypeNotAcceptableException.class)
+    public ResponseEntity<Void> handleHttpMediaTypeNotAcceptable(HttpMediaTypeNotAcceptableException ex) {
+        return ResponseEntity.status(HttpStatus.NOT_ACCEPTABLE).build();
     }
 
     /**
@@ -70,6 +107,14 @@ public class GlobalExceptionHandler {
      */
     @ExceptionHandler(Exception.class)
     public ResponseEntity<String> handleGlobalException(Exception ex) {
-        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(MessageConstants.INTERNAL_SERVER_ERROR);
+        return message(HttpStatus.INTERNAL_SERVER_ERROR, MessageConstants.INTERNAL_SERVER_ERROR);
+    }
+
+    /**
+     * Текстовое сообщение об ошибке. Тип задан явно: иначе строка ушла бы с типом, выбранным по Accept
+     * запроса, — например, обычный текст под application/cbor.
+     */
+    private static ResponseEntity<String> message(HttpStatus status, String message) {
+        return ResponseEntity.status(status).contentType(MediaType.TEXT_PLAIN).body(message);
     }
-}
\ No newline at end of file
+}
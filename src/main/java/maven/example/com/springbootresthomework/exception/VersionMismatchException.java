@@ -0,0 +1,16 @@
+package maven.example.com.springbootresthomework.exception;
+
+import org.springframework.dao.OptimisticLockingFailureException;
+
+/**
+ * Версия ресурса не совпала с версией из If-Match: клиент изменяет устаревшие данные.
+ * В отличие от конфликта параллельных транзакций не повторяется автоматически — ответ 412 сразу.
+ */
+public class VersionMismatchException extends OptimisticLockingFailureException {
+
+    private static final long serialVersionUID = 1L;
+
+    public VersionMismatchException(String message) {
+        super(message);
+    }
+}
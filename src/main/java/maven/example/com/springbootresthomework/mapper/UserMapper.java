@@ -1,15 +1,32 @@
 package maven.example.com.springbootresthomework.mapper;
 
+import maven.example.com.springbootresthomework.dto.MealDTO;
+import maven.example.com.springbootresthomework.dto.UserCreateDTO;
 import maven.example.com.springbootresthomework.dto.UserDTO;
+import maven.example.com.springbootresthomework.dto.UserProfileDTO;
+import maven.example.com.springbootresthomework.dto.WorkoutDTO;
+import maven.example.com.springbootresthomework.entity.Meal;
 import maven.example.com.springbootresthomework.entity.User;
+import maven.example.com.springbootresthomework.entity.Workout;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * Маппер для преобразования между User и UserDTO.
  */
 @Component
 public class UserMapper {
 
+    private final MealMapper mealMapper;
+    private final WorkoutMapper workoutMapper;
+
+    public UserMapper(MealMapper mealMapper, WorkoutMapper workoutMapper) {
+        this.mealMapper = mealMapper;
+        this.workoutMapper = workoutMapper;
+    }
+
     /**
      * Преобразует сущность User в DTO.
      *
@@ -27,6 +44,23 @@ public class UserMapper {
                 user.getHeight());
     }
 
+    /**
+     * Преобразует пользователя с загруженными коллекциями в профиль.
+     * Коллекции meals и workouts должны быть инициализированы, иначе каждая вызовет отдельный запрос.
+     *
+     * @param user пользователь с приёмами пищи и тренировками
+     * @return профиль пользователя или null, если входное значение null
+     */
+    public UserProfileDTO toProfileDTO(User user) {
+        if (user == null) {
+            return null;
+        }
+        return new UserProfileDTO(
+                toDTO(user),
+                user.getMeals().stream().map(mealMapper::toDTO).toList(),
+                user.getWorkouts().stream().map(workoutMapper::toDTO).toList());
+    }
+
     /**
      * Преобразует DTO пользователя в сущность User.
      * Связанные сущности (Workouts, Meals) не заполняются и остаются null.
@@ -45,9 +79,41 @@ public class UserMapper {
                 userDTO.getWeight(),
                 userDTO.getHeight(),
                 null,
+                null,
                 null);
     }
 
+    /**
+     * Преобразует DTO нового пользователя в сущность User вместе с приёмами пищи и тренировками.
+     * Вложенные сущности ссылаются на создаваемого пользователя; калории тренировок считаются по весу из DTO.
+     * Отсутствующие списки становятся пустыми коллекциями.
+     *
+     * @param userDTO DTO пользователя с историей
+     * @return сущность User или null, если входное значение null
+     */
+    public User toEntity(UserCreateDTO userDTO) {
+        User user = toEntity((UserDTO) userDTO);
+        if (user == null) {
+            return null;
+        }
+
+        List<Meal> meals = new ArrayList<>();
+        if (userDTO.getMeals() != null) {
+            for (MealDTO mealDTO : userDTO.getMeals()) {
+                meals.add(mealMapper.toEntity(mealDTO, user));
+            }
+        }
+        List<Workout> workouts = new ArrayList<>();
+        if (userDTO.getWorkouts() != null) {
+            for (WorkoutDTO workoutDTO : userDTO.getWorkouts()) {
+                workouts.add(workoutMapper.toEntity(workoutDTO, user, userDTO.getWeight()));
+            }
+        }
+        user.setMeals(meals);
+        user.setWorkouts(workouts);
+        return user;
+    }
+
     /**
      * Обновляет существующего пользователя данными из DTO.
      *
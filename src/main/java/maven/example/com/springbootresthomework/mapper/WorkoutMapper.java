@@ -35,17 +35,20 @@ public class WorkoutMapper {
 
     /**
      * Преобразует WorkoutDTO в Workout (используя CalorieCalculator для расчёта калорий).
+     * Вес передаётся отдельно: user может быть неинициализированным прокси, обращение к его полям
+     * выполнило бы лишний SELECT.
      *
      * @param workoutDTO DTO тренировки
      * @param user       пользователь
+     * @param weight     вес пользователя (в кг)
      * @return сущность тренировки
      */
-    public Workout toEntity(WorkoutDTO workoutDTO, User user) {
+    public Workout toEntity(WorkoutDTO workoutDTO, User user, double weight) {
         if (workoutDTO == null) {
             return null;
         }
 
-        int caloriesBurned = calorieCalculator.calculateCaloriesBurned(workoutDTO.getName(), workoutDTO.getDuration());
+        int caloriesBurned = calculateCaloriesBurned(workoutDTO, weight);
 
         return new Workout(
                 null,
@@ -68,7 +71,28 @@ public class WorkoutMapper {
         workout.setName(workoutDTO.getName());
         workout.setDuration(workoutDTO.getDuration());
 
-        int caloriesBurned = calorieCalculator.calculateCaloriesBurned(workoutDTO.getName(), workoutDTO.getDuration());
+        int caloriesBurned = calculateCaloriesBurned(workoutDTO, workout.getUser().getWeight());
         workout.setCaloriesBurned(caloriesBurned);
     }
+
+    /**
+     * Рассчитывает сожжённые калории для данных тренировки.
+     *
+     * @param workoutDTO DTO тренировки
+     * @param weight     вес пользователя (в кг)
+     * @return сожжённые калории
+     */
+    public int calculateCaloriesBurned(WorkoutDTO workoutDTO, double weight) {
+        return calorieCalculator.calculateCaloriesBurned(workoutDTO.getName(), workoutDTO.getDuration(), weight);
+    }
+
+    /**
+     * Возвращает MET тренировки (для расчёта калорий в SQL, когда вес пользователя известен только БД).
+     *
+     * @param workoutDTO DTO тренировки
+     * @return MET
+     */
+    public double getMet(WorkoutDTO workoutDTO) {
+        return calorieCalculator.getMet(workoutDTO.getName());
+    }
 }
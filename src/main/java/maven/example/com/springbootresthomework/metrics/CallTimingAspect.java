@@ -0,0 +1,84 @@
+package maven.example.com.springbootresthomework.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.persistence.EntityNotFoundException;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.aop.framework.AopProxyUtils;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+
+/**
+ * Таймеры задержки вызовов сервисов и JPA-репозиториев.
+ * Каждый вызов записывается с тегами operation (Класс.метод) и outcome (ok / not-found / error);
+ * гистограммы и границы бакетов задаются в application.properties (management.metrics.distribution.*).
+ * <p>
+ * Аспект внешний по отношению к транзакциям и кэшу: время сервиса включает commit, а попадание в кэш
+ * видно как быстрый вызов без вызовов репозиториев.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class CallTimingAspect {
+
+    public static final String SERVICE_TIMER = "app.service.calls";
+    public static final String REPOSITORY_TIMER = "app.repository.calls";
+
+    static final String OUTCOME_OK = "ok";
+    static final String OUTCOME_NOT_FOUND = "not-found";
+    static final String OUTCOME_ERROR = "error";
+
+    private final MeterRegistry meterRegistry;
+
+    public CallTimingAspect(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Публичные методы сервисов. not-found — сервис сообщил об отсутствии сущности (EntityNotFoundException, 404).
+     */
+    @Around("execution(public * maven.example.com.springbootresthomework.service.*Service.*(..))")
+    public Object timeService(ProceedingJoinPoint joinPoint) throws Throwable {
+        String operation = joinPoint.getSignature().getDeclaringType().getSimpleName()
+                + "." + joinPoint.getSignature().getName();
+        return time(SERVICE_TIMER, operation, joinPoint);
+    }
+
+    /**
+     * Вызовы JPA-репозиториев, включая унаследованные методы (save, findById, ...).
+     * not-found — пустой Optional. Для методов, возвращающих Stream, измеряется только выполнение запроса,
+     * а не чтение результата.
+     */
+    @Around("execution(public * *(..)) && target(org.springframework.data.jpa.repository.JpaRepository)")
+    public Object timeRepository(ProceedingJoinPoint joinPoint) throws Throwable {
+        // Цель — прокси Spring Data; первый интерфейс прокси — интерфейс репозитория приложения
+        Class<?>[] interfaces = AopProxyUtils.proxiedUserInterfaces(joinPoint.getTarget());
+        String repository = interfaces.length > 0
+                ? interfaces[0].getSimpleName()
+                : joinPoint.getSignature().getDeclaringType().getSimpleName();
+        return time(REPOSITORY_TIMER, repository + "." + joinPoint.getSignature().getName(), joinPoint);
+    }
+
+    private Object time(String timerName, String operation, ProceedingJoinPoint joinPoint) throws Throwable {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = OUTCOME_ERROR;
+        try {
+            Object result = joinPoint.proceed();
+            outcome = result instanceof Optional<?> optional && optional.isEmpty() ? OUTCOME_NOT_FOUND : OUTCOME_OK;
+            return result;
+        } catch (EntityNotFoundException ex) {
+            outcome = OUTCOME_NOT_FOUND;
+            throw ex;
+        } finally {
+            sample.stop(Timer.builder(timerName)
+                    .tag("operation", operation)
+                    .tag("outcome", outcome)
+                    .register(meterRegistry));
+        }
+    }
+}
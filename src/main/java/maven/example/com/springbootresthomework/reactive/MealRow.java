@@ -0,0 +1,26 @@
+package maven.example.com.springbootresthomework.reactive;
+
+import maven.example.com.springbootresthomework.dto.MealDTO;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+/**
+ * Строка таблицы meals для реактивного (R2DBC) чтения.
+ *
+ * @param id       ID приёма пищи
+ * @param name     название
+ * @param calories калории
+ * @param userId   ID пользователя (колонка user_id)
+ */
+@Table("meals")
+public record MealRow(@Id Long id, String name, int calories, Long userId) {
+
+    /**
+     * Преобразует строку в DTO ответа.
+     *
+     * @return MealDTO
+     */
+    public MealDTO toDTO() {
+        return new MealDTO(name, calories, userId);
+    }
+}
@@ -0,0 +1,69 @@
+package maven.example.com.springbootresthomework.reactive;
+
+import maven.example.com.springbootresthomework.constants.MessageConstants;
+import maven.example.com.springbootresthomework.dto.MealDTO;
+import maven.example.com.springbootresthomework.util.KeysetPagination;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Mono;
+
+/**
+ * Обработчики реактивных GET-маршрутов приёмов пищи (аналог методов чтения MealController).
+ */
+@Component
+@Profile("reactive")
+public class ReactiveMealHandler {
+
+    private final ReactiveMealRepository mealRepository;
+    private final ReactiveUserRepository userRepository;
+
+    public ReactiveMealHandler(ReactiveMealRepository mealRepository, ReactiveUserRepository userRepository) {
+        this.mealRepository = mealRepository;
+        this.userRepository = userRepository;
+    }
+
+    /**
+     * GET /meals?after=&limit= — страница приёмов пищи (keyset-пагинация по ID).
+     */
+    public Mono<ServerResponse> getAllMeals(ServerRequest request) {
+        return Mono.defer(() -> {
+            Long after = ReactiveRequests.after(request);
+            int limit = ReactiveRequests.limit(request);
+
+            return mealRepository.findByIdGreaterThanOrderByIdAsc(
+                            KeysetPagination.startAfter(after), KeysetPagination.fetchLimit(limit))
+                    .collectList()
+                    .map(rows -> KeysetPagination.toPage(rows, limit, MealRow::id, MealRow::toDTO))
+                    .flatMap(page -> ServerResponse.ok().bodyValue(page));
+        });
+    }
+
+    /**
+     * GET /meals/{id} — приём пищи по ID или 404.
+     */
+    public Mono<ServerResponse> getMealById(ServerRequest request) {
+        return Mono.defer(() -> mealRepository.findById(ReactiveRequests.pathId(request, "id"))
+                .flatMap(meal -> ServerResponse.ok().bodyValue(meal.toDTO()))
+                .switchIfEmpty(ServerResponse.status(HttpStatus.NOT_FOUND).bodyValue(MessageConstants.MEAL_NOT_FOUND)));
+    }
+
+    /**
+     * GET /meals/user/{userId} — приёмы пищи пользователя потоком (JSON-массив или NDJSON по Accept) или 404.
+     * Строки передаются клиенту по мере чтения из БД с учётом backpressure.
+     */
+    public Mono<ServerResponse> getMealsByUserId(ServerRequest request) {
+        return Mono.defer(() -> {
+            Long userId = ReactiveRequests.pathId(request, "userId");
+
+            return userRepository.existsById(userId)
+                    .flatMap(exists -> exists
+                            ? ServerResponse.ok()
+                                    .contentType(ReactiveRequests.streamingMediaType(request))
+                                    .body(mealRepository.findByUserIdOrderByIdAsc(userId).map(MealRow::toDTO), MealDTO.class)
+                            : ServerResponse.status(HttpStatus.NOT_FOUND).bodyValue(MessageConstants.USER_NOT_FOUND));
+        });
+    }
+}
@@ -0,0 +1,28 @@
+package maven.example.com.springbootresthomework.reactive;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+
+/**
+ * Реактивный репозиторий приёмов пищи (R2DBC), зеркало методов чтения MealRepository.
+ */
+@Repository
+public interface ReactiveMealRepository extends R2dbcRepository<MealRow, Long> {
+
+    /**
+     * Получить все приёмы пищи пользователя.
+     * @param userId ID пользователя
+     * @return Поток приёмов пищи, упорядоченный по ID
+     */
+    Flux<MealRow> findByUserIdOrderByIdAsc(Long userId);
+
+    /**
+     * Получить страницу записей после указанного ID (keyset-пагинация по первичному ключу).
+     * @param id       ID последней записи предыдущей страницы
+     * @param pageable размер страницы (всегда первая страница, без OFFSET)
+     * @return Приёмы пищи, упорядоченные по ID
+     */
+    Flux<MealRow> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+}
@@ -0,0 +1,59 @@
+package maven.example.com.springbootresthomework.reactive;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.boot.web.server.WebServer;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.http.server.reactive.HttpHandler;
+import reactor.netty.resources.LoopResources;
+
+/**
+ * Отдельный Netty-сервер реактивного стека чтения.
+ * Запросы обслуживаются фиксированным числом потоков event loop; ожидание БД и медленных клиентов
+ * не занимает потоки, поэтому число одновременных соединений не ограничено размером пула.
+ */
+@Slf4j
+public class ReactiveReadServer implements SmartLifecycle {
+
+    private final HttpHandler httpHandler;
+    private final int port;
+    private final int eventLoopThreads;
+
+    private LoopResources loopResources;
+    private WebServer webServer;
+
+    public ReactiveReadServer(HttpHandler httpHandler, int port, int eventLoopThreads) {
+        this.httpHandler = httpHandler;
+        this.port = port;
+        this.eventLoopThreads = eventLoopThreads;
+    }
+
+    @Override
+    public void start() {
+        loopResources = LoopResources.create("reactive-read", eventLoopThreads, true);
+
+        NettyReactiveWebServerFactory factory = new NettyReactiveWebServerFactory(port);
+        factory.addServerCustomizers(server -> server.runOn(loopResources));
+
+        webServer = factory.getWebServer(httpHandler);
+        webServer.start();
+        log.info("Reactive read server started on port {} with {} event loop threads", webServer.getPort(), eventLoopThreads);
+    }
+
+    @Override
+    public void stop() {
+        if (webServer != null) {
+            webServer.stop();
+            webServer = null;
+        }
+        if (loopResources != null) {
+            loopResources.disposeLater().block();
+            loopResources = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return webServer != null;
+    }
+}
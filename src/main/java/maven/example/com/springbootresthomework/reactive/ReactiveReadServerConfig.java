@@ -0,0 +1,59 @@
+package maven.example.com.springbootresthomework.reactive;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.r2dbc.repository.config.EnableR2dbcRepositories;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.codec.json.Jackson2JsonDecoder;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.web.reactive.function.server.HandlerStrategies;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerResponse;
+
+/**
+ * Реактивный стек чтения (профиль reactive): функциональные маршруты WebFlux поверх R2DBC.
+ * Маршруты повторяют GET-эндпоинты MealController и WorkoutController и обслуживаются
+ * отдельным сервером Netty ({@link ReactiveReadServer}), основное servlet-приложение не меняется.
+ */
+@Configuration
+@Profile("reactive")
+@EnableR2dbcRepositories(basePackageClasses = ReactiveMealRepository.class)
+public class ReactiveReadServerConfig {
+
+    @Bean
+    public RouterFunction<ServerResponse> reactiveReadRoutes(ReactiveMealHandler mealHandler,
+                                                             ReactiveWorkoutHandler workoutHandler) {
+        return RouterFunctions.route()
+                .GET("/meals", mealHandler::getAllMeals)
+                .GET("/meals/user/{userId}", mealHandler::getMealsByUserId)
+                .GET("/meals/{id}", mealHandler::getMealById)
+                .GET("/workouts", workoutHandler::getAllWorkouts)
+                .GET("/workouts/user/{userId}", workoutHandler::getWorkoutsByUserId)
+                .GET("/workouts/{id}", workoutHandler::getWorkoutById)
+                // Как GlobalExceptionHandler: некорректные параметры запроса — 400 с текстом ошибки
+                .onError(IllegalArgumentException.class, (ex, request) ->
+                        ServerResponse.status(HttpStatus.BAD_REQUEST).bodyValue(ex.getMessage()))
+                .build();
+    }
+
+    /**
+     * Netty-сервер реактивных маршрутов. JSON сериализуется тем же ObjectMapper, что и в servlet-стеке.
+     */
+    @Bean
+    public ReactiveReadServer reactiveReadServer(RouterFunction<ServerResponse> reactiveReadRoutes,
+                                                 ObjectMapper objectMapper,
+                                                 @Value("${app.reactive.port}") int port,
+                                                 @Value("${app.reactive.event-loop-threads}") int eventLoopThreads) {
+        HandlerStrategies strategies = HandlerStrategies.builder()
+                .codecs(codecs -> {
+                    codecs.defaultCodecs().jackson2JsonEncoder(new Jackson2JsonEncoder(objectMapper));
+                    codecs.defaultCodecs().jackson2JsonDecoder(new Jackson2JsonDecoder(objectMapper));
+                })
+                .build();
+        return new ReactiveReadServer(RouterFunctions.toHttpHandler(reactiveReadRoutes, strategies), port, eventLoopThreads);
+    }
+}
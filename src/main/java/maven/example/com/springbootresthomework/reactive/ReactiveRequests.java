@@ -0,0 +1,36 @@
+package maven.example.com.springbootresthomework.reactive;
+
+import maven.example.com.springbootresthomework.constants.PaginationConstants;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.server.ServerRequest;
+
+/**
+ * Разбор параметров реактивных запросов.
+ * Ошибки формата — IllegalArgumentException (в том числе NumberFormatException), маршруты отвечают на них 400.
+ */
+final class ReactiveRequests {
+
+    private ReactiveRequests() {
+    }
+
+    static Long after(ServerRequest request) {
+        return request.queryParam("after").map(Long::valueOf).orElse(null);
+    }
+
+    static int limit(ServerRequest request) {
+        return Integer.parseInt(request.queryParam("limit").orElse(PaginationConstants.DEFAULT_LIMIT));
+    }
+
+    static Long pathId(ServerRequest request, String name) {
+        return Long.valueOf(request.pathVariable(name));
+    }
+
+    /**
+     * NDJSON, если клиент его принимает (по строке на запись), иначе JSON-массив.
+     */
+    static MediaType streamingMediaType(ServerRequest request) {
+        return request.headers().accept().contains(MediaType.APPLICATION_NDJSON)
+                ? MediaType.APPLICATION_NDJSON
+                : MediaType.APPLICATION_JSON;
+    }
+}
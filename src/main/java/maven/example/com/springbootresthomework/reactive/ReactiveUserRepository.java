@@ -0,0 +1,11 @@
+package maven.example.com.springbootresthomework.reactive;
+
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Реактивный репозиторий пользователей (используется existsById).
+ */
+@Repository
+public interface ReactiveUserRepository extends R2dbcRepository<UserRow, Long> {
+}
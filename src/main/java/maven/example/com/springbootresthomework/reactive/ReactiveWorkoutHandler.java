@@ -0,0 +1,68 @@
+package maven.example.com.springbootresthomework.reactive;
+
+import maven.example.com.springbootresthomework.constants.MessageConstants;
+import maven.example.com.springbootresthomework.dto.WorkoutDTO;
+import maven.example.com.springbootresthomework.util.KeysetPagination;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Mono;
+
+/**
+ * Обработчики реактивных GET-маршрутов тренировок (аналог методов чтения WorkoutController).
+ */
+@Component
+@Profile("reactive")
+public class ReactiveWorkoutHandler {
+
+    private final ReactiveWorkoutRepository workoutRepository;
+    private final ReactiveUserRepository userRepository;
+
+    public ReactiveWorkoutHandler(ReactiveWorkoutRepository workoutRepository, ReactiveUserRepository userRepository) {
+        this.workoutRepository = workoutRepository;
+        this.userRepository = userRepository;
+    }
+
+    /**
+     * GET /workouts?after=&limit= — страница тренировок (keyset-пагинация по ID).
+     */
+    public Mono<ServerResponse> getAllWorkouts(ServerRequest request) {
+        return Mono.defer(() -> {
+            Long after = ReactiveRequests.after(request);
+            int limit = ReactiveRequests.limit(request);
+
+            return workoutRepository.findByIdGreaterThanOrderByIdAsc(
+                            KeysetPagination.startAfter(after), KeysetPagination.fetchLimit(limit))
+                    .collectList()
+                    .map(rows -> KeysetPagination.toPage(rows, limit, WorkoutRow::id, WorkoutRow::toDTO))
+                    .flatMap(page -> ServerResponse.ok().bodyValue(page));
+        });
+    }
+
+    /**
+     * GET /workouts/{id} — тренировка по ID или 404.
+     */
+    public Mono<ServerResponse> getWorkoutById(ServerRequest request) {
+        return Mono.defer(() -> workoutRepository.findById(ReactiveRequests.pathId(request, "id"))
+                .flatMap(workout -> ServerResponse.ok().bodyValue(workout.toDTO()))
+                .switchIfEmpty(ServerResponse.status(HttpStatus.NOT_FOUND).bodyValue(MessageConstants.WORKOUT_NOT_FOUND)));
+    }
+
+    /**
+     * GET /workouts/user/{userId} — тренировки пользователя потоком (JSON-массив или NDJSON по Accept) или 404.
+     */
+    public Mono<ServerResponse> getWorkoutsByUserId(ServerRequest request) {
+        return Mono.defer(() -> {
+            Long userId = ReactiveRequests.pathId(request, "userId");
+
+            return userRepository.existsById(userId)
+                    .flatMap(exists -> exists
+                            ? ServerResponse.ok()
+                                    .contentType(ReactiveRequests.streamingMediaType(request))
+                                    .body(workoutRepository.findByUserIdOrderByIdAsc(userId).map(WorkoutRow::toDTO), WorkoutDTO.class)
+                            : ServerResponse.status(HttpStatus.NOT_FOUND).bodyValue(MessageConstants.USER_NOT_FOUND));
+        });
+    }
+}
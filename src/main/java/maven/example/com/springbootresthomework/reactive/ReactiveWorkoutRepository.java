@@ -0,0 +1,28 @@
+package maven.example.com.springbootresthomework.reactive;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+
+/**
+ * Реактивный репозиторий тренировок (R2DBC), зеркало методов чтения WorkoutRepository.
+ */
+@Repository
+public interface ReactiveWorkoutRepository extends R2dbcRepository<WorkoutRow, Long> {
+
+    /**
+     * Получить все тренировки пользователя.
+     * @param userId ID пользователя
+     * @return Поток тренировок, упорядоченный по ID
+     */
+    Flux<WorkoutRow> findByUserIdOrderByIdAsc(Long userId);
+
+    /**
+     * Получить страницу записей после указанного ID (keyset-пагинация по первичному ключу).
+     * @param id       ID последней записи предыдущей страницы
+     * @param pageable размер страницы (всегда первая страница, без OFFSET)
+     * @return Тренировки, упорядоченные по ID
+     */
+    Flux<WorkoutRow> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+}
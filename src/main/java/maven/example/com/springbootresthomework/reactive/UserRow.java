@@ -0,0 +1,13 @@
+package maven.example.com.springbootresthomework.reactive;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+/**
+ * Строка таблицы users для реактивного чтения (нужна только для проверки существования пользователя).
+ *
+ * @param id ID пользователя
+ */
+@Table("users")
+public record UserRow(@Id Long id) {
+}
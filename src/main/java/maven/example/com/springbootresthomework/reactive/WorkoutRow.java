@@ -0,0 +1,26 @@
+package maven.example.com.springbootresthomework.reactive;
+
+import maven.example.com.springbootresthomework.dto.WorkoutDTO;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+/**
+ * Строка таблицы workouts для реактивного (R2DBC) чтения.
+ *
+ * @param id       ID тренировки
+ * @param name     название
+ * @param duration продолжительность (в минутах)
+ * @param userId   ID пользователя (колонка user_id)
+ */
+@Table("workouts")
+public record WorkoutRow(@Id Long id, String name, int duration, Long userId) {
+
+    /**
+     * Преобразует строку в DTO ответа.
+     *
+     * @return WorkoutDTO
+     */
+    public WorkoutDTO toDTO() {
+        return new WorkoutDTO(name, duration);
+    }
+}
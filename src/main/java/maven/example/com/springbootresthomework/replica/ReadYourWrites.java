@@ -0,0 +1,51 @@
+package maven.example.com.springbootresthomework.replica;
+
+/**
+ * Признак «читать с основной БД» для текущего потока.
+ * Выставляется {@link ReadYourWritesFilter} на время запроса, который сам что-то меняет или пришёл
+ * в течение окна после изменения: такие запросы должны видеть свои записи, а реплика может отставать.
+ */
+public final class ReadYourWrites {
+
+    /**
+     * Cookie окна чтения с основной БД; живёт ровно столько, сколько длится окно.
+     */
+    public static final String COOKIE_NAME = "db-primary";
+
+    private static final ThreadLocal<Boolean> PINNED = new ThreadLocal<>();
+
+    private ReadYourWrites() {
+    }
+
+    public static boolean isPinned() {
+        return Boolean.TRUE.equals(PINNED.get());
+    }
+
+    static void set(boolean pinned) {
+        if (pinned) {
+            PINNED.set(Boolean.TRUE);
+        } else {
+            PINNED.remove();
+        }
+    }
+
+    static void clear() {
+        PINNED.remove();
+    }
+
+    /**
+     * Переносит признак в задачу другого потока: потоковые ответы (StreamingResponseBody) читают БД
+     * в асинхронном исполнителе, а не в потоке запроса.
+     */
+    public static Runnable propagate(Runnable task) {
+        boolean pinned = isPinned();
+        return () -> {
+            set(pinned);
+            try {
+                task.run();
+            } finally {
+                clear();
+            }
+        };
+    }
+}
@@ -0,0 +1,70 @@
+package maven.example.com.springbootresthomework.replica;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Set;
+
+/**
+ * Окно read-your-writes: изменяющий запрос и запросы того же клиента в течение окна после него
+ * читают основную БД. Окно передаётся клиенту cookie с Max-Age, равным длине окна, поэтому
+ * сервер не хранит состояния и любой экземпляр приложения принимает решение одинаково.
+ * Здесь же на время запроса открывается привязка к одной реплике ({@link ReplicaAffinity}).
+ */
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    private static final Set<String> SAFE_METHODS =
+            Set.of(HttpMethod.GET.name(), HttpMethod.HEAD.name(), HttpMethod.OPTIONS.name());
+
+    private final int windowSeconds;
+
+    /**
+     * @param window сколько после изменения клиент читает основную БД (не меньше ожидаемого отставания реплик)
+     */
+    public ReadYourWritesFilter(Duration window) {
+        this.windowSeconds = (int) Math.max(1, window.toSeconds());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        boolean mutation = !SAFE_METHODS.contains(request.getMethod());
+        if (mutation) {
+            // Cookie ставится до обработки: после записи тела заголовки уже не изменить
+            Cookie cookie = new Cookie(ReadYourWrites.COOKIE_NAME, "1");
+            cookie.setMaxAge(windowSeconds);
+            cookie.setPath("/");
+            cookie.setHttpOnly(true);
+            response.addCookie(cookie);
+        }
+
+        ReadYourWrites.set(mutation || hasWindowCookie(request));
+        ReplicaAffinity.open();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            ReplicaAffinity.close();
+            ReadYourWrites.clear();
+        }
+    }
+
+    private static boolean hasWindowCookie(HttpServletRequest request) {
+        Cookie[] cookies = request.getCookies();
+        if (cookies == null) {
+            return false;
+        }
+        for (Cookie cookie : cookies) {
+            if (ReadYourWrites.COOKIE_NAME.equals(cookie.getName())) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,68 @@
+package maven.example.com.springbootresthomework.replica;
+
+import javax.sql.DataSource;
+
+/**
+ * Источник чтения, за которым закреплён текущий запрос.
+ * Условный GET читает версию для ETag и тело разными транзакциями: на разных репликах версия могла бы
+ * оказаться новее тела, и клиент закэшировал бы старое тело под новым ETag. Поэтому первая read-only
+ * транзакция запроса выбирает реплику, а остальные читают с неё же — изменения на одной реплике
+ * применяются по порядку, и тело не старше версии.
+ * <p>
+ * Привязка открывается {@link ReadYourWritesFilter} на время запроса; вне запроса её нет,
+ * и каждая транзакция выбирает реплику заново.
+ */
+public final class ReplicaAffinity {
+
+    private static final ThreadLocal<Slot> CURRENT = new ThreadLocal<>();
+
+    private ReplicaAffinity() {
+    }
+
+    static void open() {
+        CURRENT.set(new Slot());
+    }
+
+    static void close() {
+        CURRENT.remove();
+    }
+
+    /**
+     * @return привязка текущего запроса или null, если поток обрабатывает не HTTP-запрос
+     */
+    static Slot current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Переносит привязку в задачу другого потока. Слот общий: если тело потокового ответа читается первым
+     * в асинхронном исполнителе, выбранная там реплика видна и потоку запроса.
+     */
+    public static Runnable propagate(Runnable task) {
+        Slot slot = current();
+        return () -> {
+            if (slot != null) {
+                CURRENT.set(slot);
+            }
+            try {
+                task.run();
+            } finally {
+                close();
+            }
+        };
+    }
+
+    static final class Slot {
+
+        // Выбранный пул (реплика или основная БД); null, пока запрос ничего не читал
+        private volatile DataSource target;
+
+        DataSource target() {
+            return target;
+        }
+
+        void pin(DataSource target) {
+            this.target = target;
+        }
+    }
+}
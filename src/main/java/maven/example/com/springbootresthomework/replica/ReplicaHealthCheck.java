@@ -0,0 +1,27 @@
+package maven.example.com.springbootresthomework.replica;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Периодическая проверка реплик: исключает недоступные и отстающие, возвращает восстановившиеся.
+ */
+@Component
+@Profile("read-replicas")
+public class ReplicaHealthCheck {
+
+    private final ReplicaRoutingDataSource replicaRoutingDataSource;
+
+    public ReplicaHealthCheck(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        this.replicaRoutingDataSource = replicaRoutingDataSource;
+    }
+
+    /**
+     * Проверить реплики (интервал — app.replicas.health-check-interval).
+     */
+    @Scheduled(fixedDelayString = "${app.replicas.health-check-interval}")
+    public void check() {
+        replicaRoutingDataSource.checkHealth();
+    }
+}
@@ -0,0 +1,105 @@
+package maven.example.com.springbootresthomework.replica;
+
+import com.zaxxer.hikari.HikariDataSource;
+import maven.example.com.springbootresthomework.service.MealService;
+import maven.example.com.springbootresthomework.service.UserService;
+import maven.example.com.springbootresthomework.service.WorkoutService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.Ordered;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Чтение с реплик PostgreSQL (профиль read-replicas).
+ * Основной DataSource приложения — LazyConnectionDataSourceProxy: соединение берётся только при первом
+ * SQL-запросе, когда уже известно, что транзакция read-only, и тогда оно запрашивается у
+ * {@link ReplicaRoutingDataSource}. Изменения, Flyway и всё вне транзакций идут в основную БД.
+ */
+@Configuration
+@Profile("read-replicas")
+public class ReplicaRoutingConfig {
+
+    // Результат попадает в кэши users/userExists или (findById) в кэш второго уровня: значение, прочитанное
+    // с отстающей реплики сразу после инвалидации, осталось бы в кэше до истечения срока жизни записи
+    private static final Set<String> PRIMARY_ONLY_METHODS = Set.of(
+            UserService.class.getName() + ".getUserById",
+            UserService.class.getName() + ".getVersionedUser",
+            UserService.class.getName() + ".existsById");
+
+    /**
+     * Пул основной БД: настраивается свойствами spring.datasource.*, как пул по умолчанию Spring Boot.
+     */
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(
+            HikariDataSource primaryDataSource,
+            @Value("${app.replicas.urls}") List<String> urls,
+            @Value("${app.replicas.username:${spring.datasource.username:}}") String username,
+            @Value("${app.replicas.password:${spring.datasource.password:}}") String password,
+            @Value("${app.replicas.maximum-pool-size}") int maximumPoolSize,
+            @Value("${app.replicas.connection-timeout}") Duration connectionTimeout,
+            @Value("${app.replicas.max-lag}") Duration maxLag) {
+        List<HikariDataSource> replicas = new ArrayList<>(urls.size());
+        for (int i = 0; i < urls.size(); i++) {
+            HikariDataSource replica = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .url(urls.get(i).trim())
+                    .username(username)
+                    .password(password)
+                    .build();
+            replica.setPoolName("replica-" + (i + 1));
+            replica.setMaximumPoolSize(maximumPoolSize);
+            // Недоступная реплика не должна задерживать чтение дольше этого: дальше оно уйдёт в основную БД
+            replica.setConnectionTimeout(connectionTimeout.toMillis());
+            replica.setReadOnly(true);
+            replicas.add(replica);
+        }
+        return new ReplicaRoutingDataSource(primaryDataSource, replicas,
+                List.of(UserService.class, MealService.class, WorkoutService.class), PRIMARY_ONLY_METHODS, maxLag);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primaryDataSource, ReplicaRoutingDataSource replicaRoutingDataSource) {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primaryDataSource);
+        dataSource.setReadOnlyDataSource(replicaRoutingDataSource);
+        return dataSource;
+    }
+
+    @Bean
+    public FilterRegistrationBean<ReadYourWritesFilter> readYourWritesFilter(
+            @Value("${app.replicas.read-your-writes-window}") Duration window) {
+        FilterRegistrationBean<ReadYourWritesFilter> registration =
+                new FilterRegistrationBean<>(new ReadYourWritesFilter(window));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 1);
+        return registration;
+    }
+
+    /**
+     * Spring Boot применяет этот декоратор к applicationTaskExecutor, в котором пишутся потоковые ответы:
+     * тело читается с той же реплики, что и версия для ETag.
+     */
+    @Bean
+    public TaskDecorator readYourWritesTaskDecorator() {
+        return task -> ReadYourWrites.propagate(ReplicaAffinity.propagate(task));
+    }
+}
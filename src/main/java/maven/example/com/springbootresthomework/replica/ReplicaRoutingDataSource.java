@@ -0,0 +1,220 @@
+package maven.example.com.springbootresthomework.replica;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Источник соединений для read-only транзакций: реплики по кругу, при их недоступности — основная БД.
+ * Используется как readOnlyDataSource в LazyConnectionDataSourceProxy, поэтому запрашивается только
+ * для транзакций с readOnly = true и только в момент первого SQL-запроса, когда транзакция уже открыта.
+ * <p>
+ * На реплику уходят только транзакции методов перечисленных сервисов (имя транзакции — "Класс.метод")
+ * и только вне окна read-your-writes ({@link ReadYourWrites}); остальное читается с основной БД.
+ * Все чтения одного HTTP-запроса идут в один источник ({@link ReplicaAffinity}).
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractDataSource implements Closeable {
+
+    // Отставание реплики в секундах; 0, если все полученные изменения WAL уже применены.
+    // NULL, если приёмник WAL не в состоянии streaming (соединение с основной БД потеряно или не установлено):
+    // тогда равенство полученной и применённой позиций ничего не говорит — реплика просто ничего не получает.
+    // Статус приёмника виден только ролям с pg_read_all_stats (например, pg_monitor)
+    private static final String LAG_QUERY = """
+            SELECT CASE
+                       WHEN NOT pg_is_in_recovery() THEN 0
+                       WHEN NOT EXISTS (SELECT 1 FROM pg_stat_wal_receiver WHERE status = 'streaming') THEN NULL
+                       WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0
+                       ELSE EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp())
+                   END""";
+
+    private final HikariDataSource primary;
+    private final List<Replica> replicas;
+    private final Set<String> readerPrefixes;
+    private final Set<String> primaryOnlyMethods;
+    private final double maxLagSeconds;
+    private final AtomicInteger next = new AtomicInteger();
+
+    /**
+     * @param primary            основная БД (запасной вариант, если ни одна реплика не доступна)
+     * @param replicas           пулы соединений реплик
+     * @param readerClasses      сервисы, read-only транзакции которых можно обслуживать с реплик
+     * @param primaryOnlyMethods методы этих сервисов ("Класс.метод"), которые всегда читают основную БД
+     * @param maxLag             допустимое отставание реплики; при большем она исключается до следующей проверки
+     */
+    public ReplicaRoutingDataSource(HikariDataSource primary, List<HikariDataSource> replicas,
+                                   List<Class<?>> readerClasses, Set<String> primaryOnlyMethods, Duration maxLag) {
+        this.primary = primary;
+        this.replicas = replicas.stream().map(Replica::new).toList();
+        this.readerPrefixes = readerClasses.stream()
+                .map(type -> type.getName() + ".")
+                .collect(Collectors.toSet());
+        this.primaryOnlyMethods = primaryOnlyMethods;
+        this.maxLagSeconds = maxLag.toMillis() / 1000.0;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return connect(DataSource::getConnection);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return connect(target -> target.getConnection(username, password));
+    }
+
+    /**
+     * Проверить все реплики: доступность и отставание. Вызывается по расписанию ({@link ReplicaHealthCheck});
+     * упавшая реплика возвращается в работу только здесь.
+     */
+    public void checkHealth() {
+        for (Replica replica : replicas) {
+            try (Connection connection = replica.dataSource.getConnection();
+                 Statement statement = connection.createStatement();
+                 ResultSet resultSet = statement.executeQuery(LAG_QUERY)) {
+                resultSet.next();
+                double lagSeconds = resultSet.getDouble(1);
+                if (resultSet.wasNull()) {
+                    replica.markDown("WAL receiver is not streaming");
+                } else if (lagSeconds > maxLagSeconds) {
+                    replica.markDown("replication lag " + lagSeconds + "s");
+                } else {
+                    replica.markUp();
+                }
+            } catch (SQLException ex) {
+                replica.markDown(ex.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Число реплик, на которые сейчас направляются чтения.
+     */
+    public int healthyReplicaCount() {
+        return (int) replicas.stream().filter(replica -> replica.healthy).count();
+    }
+
+    @Override
+    public void close() {
+        replicas.forEach(replica -> replica.dataSource.close());
+    }
+
+    /**
+     * Открыть соединение с источником, выбранным для текущей транзакции.
+     * Если запрос уже читал с реплики, он продолжает читать с неё; если она стала недоступна —
+     * с основной БД, которая не отстаёт ни от одной реплики (другая реплика могла бы оказаться позади).
+     */
+    private Connection connect(ConnectionOpener opener) throws SQLException {
+        if (!routesToReplica()) {
+            return opener.open(primary);
+        }
+        ReplicaAffinity.Slot slot = ReplicaAffinity.current();
+        DataSource pinned = slot != null ? slot.target() : null;
+        if (pinned != null) {
+            Replica replica = findReplica(pinned);
+            if (replica != null && replica.healthy) {
+                try {
+                    return opener.open(replica.dataSource);
+                } catch (SQLFeatureNotSupportedException ex) {
+                    throw ex;
+                } catch (SQLException ex) {
+                    replica.markDown(ex.getMessage());
+                }
+            }
+            slot.pin(primary);
+            return opener.open(primary);
+        }
+
+        for (int attempt = 0; attempt < replicas.size(); attempt++) {
+            Replica replica = replicas.get(Math.floorMod(next.getAndIncrement(), replicas.size()));
+            if (!replica.healthy) {
+                continue;
+            }
+            try {
+                Connection connection = opener.open(replica.dataSource);
+                if (slot != null) {
+                    slot.pin(replica.dataSource);
+                }
+                return connection;
+            } catch (SQLFeatureNotSupportedException ex) {
+                // Например, вход с другими учётными данными: пул Hikari его не поддерживает, реплика исправна
+                throw ex;
+            } catch (SQLException ex) {
+                replica.markDown(ex.getMessage());
+            }
+        }
+        if (slot != null) {
+            slot.pin(primary);
+        }
+        return opener.open(primary);
+    }
+
+    private Replica findReplica(DataSource dataSource) {
+        for (Replica replica : replicas) {
+            if (replica.dataSource == dataSource) {
+                return replica;
+            }
+        }
+        return null;
+    }
+
+    private boolean routesToReplica() {
+        if (replicas.isEmpty() || ReadYourWrites.isPinned()) {
+            return false;
+        }
+        String transactionName = TransactionSynchronizationManager.getCurrentTransactionName();
+        if (transactionName == null || primaryOnlyMethods.contains(transactionName)) {
+            return false;
+        }
+        for (String prefix : readerPrefixes) {
+            if (transactionName.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @FunctionalInterface
+    private interface ConnectionOpener {
+        Connection open(DataSource dataSource) throws SQLException;
+    }
+
+    private static final class Replica {
+
+        private final HikariDataSource dataSource;
+        // Реплика считается доступной до первой ошибки: проверка по расписанию не задерживает старт
+        private volatile boolean healthy = true;
+
+        private Replica(HikariDataSource dataSource) {
+            this.dataSource = dataSource;
+        }
+
+        private void markDown(String reason) {
+            if (healthy) {
+                log.warn("Replica {} excluded from reads: {}", dataSource.getPoolName(), reason);
+            }
+            healthy = false;
+        }
+
+        private void markUp() {
+            if (!healthy) {
+                log.info("Replica {} is back in rotation", dataSource.getPoolName());
+            }
+            healthy = true;
+        }
+    }
+}
@@ -1,18 +1,147 @@
 package maven.example.com.springbootresthomework.repository;
 
+import jakarta.persistence.QueryHint;
 import maven.example.com.springbootresthomework.entity.Meal;
+import maven.example.com.springbootresthomework.repository.projection.MealView;
+import maven.example.com.springbootresthomework.repository.projection.NameCount;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
+/**
+ * Репозиторий приёмов пищи.
+ * Методы чтения возвращают проекции {@link MealView}: один SQL-запрос без загрузки Meal и User.
+ */
 @Repository
 public interface MealRepository extends JpaRepository<Meal, Long> {
 
     /**
-     * Получить все приёмы пищи пользователя.
+     * Получить приём пищи по ID.
+     * @param id ID приёма пищи
+     * @return Проекция приёма пищи
+     */
+    @Query("select new maven.example.com.springbootresthomework.repository.projection.MealView(m.id, m.name, m.calories, m.user.id) " +
+            "from Meal m where m.id = :id")
+    Optional<MealView> findViewById(Long id);
+
+    /**
+     * Получить версию строки приёма пищи (для ETag).
+     * @param id ID приёма пищи
+     * @return Версия или пустой Optional, если приём пищи не найден
+     */
+    @Query(value = "SELECT version FROM meals WHERE id = :id", nativeQuery = true)
+    Optional<Long> findVersionById(Long id);
+
+    /**
+     * Потоково прочитать приёмы пищи пользователя (по индексу (user_id, id), без сортировки).
+     * Существование пользователя не проверяется: для несуществующего пользователя поток пуст.
+     * Поток нужно закрыть и использовать внутри транзакции.
+     * @param userId ID пользователя
+     * @return Поток приёмов пищи, упорядоченный по ID
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select new maven.example.com.springbootresthomework.repository.projection.MealView(m.id, m.name, m.calories, m.user.id) " +
+            "from Meal m where m.user.id = :userId order by m.id")
+    Stream<MealView> streamViewsByUserId(Long userId);
+
+    /**
+     * Получить страницу записей после указанного ID (keyset-пагинация по первичному ключу).
+     * @param id       ID последней записи предыдущей страницы
+     * @param pageable размер страницы (всегда первая страница, без OFFSET)
+     * @return Приёмы пищи, упорядоченные по ID
+     */
+    @Query("select new maven.example.com.springbootresthomework.repository.projection.MealView(m.id, m.name, m.calories, m.user.id) " +
+            "from Meal m where m.id > :id order by m.id")
+    List<MealView> findViewsAfter(Long id, Pageable pageable);
+
+    /**
+     * Потоково прочитать все записи (для выгрузки).
+     * Строки забираются с сервера порциями по fetch size; проекции не попадают в контекст персистентности.
+     * Поток нужно закрыть и использовать внутри транзакции.
+     * @return Поток записей, упорядоченный по ID
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select new maven.example.com.springbootresthomework.repository.projection.MealView(m.id, m.name, m.calories, m.user.id) " +
+            "from Meal m order by m.id")
+    Stream<MealView> streamAll();
+
+    /**
+     * Обновить приём пищи без загрузки сущности.
+     * Тем же SQL-оператором к балансу пользователя прибавляется разница калорий.
+     * Строка не блокируется: UPDATE применяется, только если версия не изменилась с момента чтения
+     * старых калорий (и совпадает с ожидаемой, если она передана). Иначе разница была бы посчитана
+     * от устаревшего значения, поэтому оператор ничего не меняет.
+     * <p>
+     * Изменения выполняются в CTE, а сам оператор — SELECT прежнего названия (нужно индексу подсказок),
+     * поэтому метод не помечен @Modifying и вызывается только внутри транзакции сервиса.
+     * Затронутые таблицы перечислены в HINT_NATIVE_SPACES, чтобы Hibernate не считал изменёнными все сущности.
+     * @param id              ID приёма пищи
+     * @param name            новое название
+     * @param calories        новые калории
+     * @param expectedVersion ожидаемая версия или null, если версию не проверять
+     * @return Прежнее название или пустой Optional, если приём пищи не найден или его версия изменилась
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "meals"),
+            @QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "user_balances")
+    })
+    @Query(value = "WITH old AS (SELECT id, name, calories, version FROM meals WHERE id = :id), " +
+            "updated AS (UPDATE meals m SET name = :name, calories = :calories FROM old " +
+            "WHERE m.id = old.id AND m.version = old.version " +
+            "AND (CAST(:expectedVersion AS BIGINT) IS NULL OR m.version = CAST(:expectedVersion AS BIGINT)) " +
+            "RETURNING m.user_id, m.calories - old.calories AS delta, old.name AS old_name), " +
+            "balance AS (INSERT INTO user_balances (user_id, calories_consumed, calories_burned) " +
+            "SELECT user_id, delta, 0 FROM updated " +
+            "ON CONFLICT (user_id) DO UPDATE SET calories_consumed = user_balances.calories_consumed + EXCLUDED.calories_consumed) " +
+            "SELECT old_name FROM updated",
+            nativeQuery = true)
+    Optional<String> updateByIdAdjustingBalance(Long id, String name, int calories, Long expectedVersion);
+
+    /**
+     * Удалить приём пищи без загрузки сущности, тем же SQL-оператором вычитая его калории из баланса пользователя.
+     * Как и обновление, оператор возвращает название удалённой строки, поэтому не помечен @Modifying.
+     * @param id ID приёма пищи
+     * @return Название удалённого приёма пищи или пустой Optional, если приём пищи не найден
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "meals"),
+            @QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "user_balances")
+    })
+    @Query(value = "WITH deleted AS (DELETE FROM meals WHERE id = :id RETURNING user_id, name, calories), " +
+            "balance AS (INSERT INTO user_balances (user_id, calories_consumed, calories_burned) " +
+            "SELECT user_id, -calories, 0 FROM deleted " +
+            "ON CONFLICT (user_id) DO UPDATE SET calories_consumed = user_balances.calories_consumed + EXCLUDED.calories_consumed) " +
+            "SELECT name FROM deleted",
+            nativeQuery = true)
+    Optional<String> deleteByIdAdjustingBalance(Long id);
+
+    /**
+     * Посчитать приёмы пищи по названиям (для построения индекса подсказок).
+     * @return Различные названия и число приёмов пищи с каждым из них
+     */
+    @Query("select new maven.example.com.springbootresthomework.repository.projection.NameCount(m.name, count(m)) " +
+            "from Meal m group by m.name")
+    List<NameCount> countByName();
+
+    /**
+     * Посчитать приёмы пищи пользователя по названиям (их удалит каскад вместе с пользователем).
      * @param userId ID пользователя
-     * @return Список приёмов пищи
+     * @return Различные названия и число приёмов пищи пользователя с каждым из них
      */
-    List<Meal> findByUserId(Long userId);
+    @Query("select new maven.example.com.springbootresthomework.repository.projection.NameCount(m.name, count(m)) " +
+            "from Meal m where m.user.id = :userId group by m.name")
+    List<NameCount> countByNameForUser(Long userId);
 }
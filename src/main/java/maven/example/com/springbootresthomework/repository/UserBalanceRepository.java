@@ -0,0 +1,128 @@
+package maven.example.com.springbootresthomework.repository;
+
+import jakarta.persistence.QueryHint;
+import maven.example.com.springbootresthomework.entity.UserBalance;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Репозиторий калорийных балансов пользователей.
+ * Изменения выполняются относительными UPDATE'ами в БД, а не чтением и записью сущности:
+ * параллельные транзакции не теряют обновления друг друга.
+ * <p>
+ * Нативные изменяющие запросы объявляют затронутую таблицу (HINT_NATIVE_SPACES): без этого Hibernate
+ * считает, что изменено всё, и очищает каждый регион кэша второго уровня, включая кэш пользователей.
+ */
+@Repository
+public interface UserBalanceRepository extends JpaRepository<UserBalance, Long> {
+
+    /**
+     * Создать баланс пользователя с начальными суммами, если его ещё нет.
+     * Перед вставкой сбрасывает контекст персистентности, чтобы INSERT пользователя уже был в БД (внешний ключ).
+     * @param userId           ID пользователя
+     * @param caloriesConsumed начальная сумма потреблённых калорий
+     * @param caloriesBurned   начальная сумма сожжённых калорий
+     */
+    @Modifying(flushAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "user_balances"))
+    @Query(value = "INSERT INTO user_balances (user_id, calories_consumed, calories_burned) " +
+            "VALUES (:userId, :caloriesConsumed, :caloriesBurned) " +
+            "ON CONFLICT (user_id) DO NOTHING",
+            nativeQuery = true)
+    void createIfAbsent(Long userId, long caloriesConsumed, long caloriesBurned);
+
+    /**
+     * Прибавить к сумме потреблённых калорий (delta может быть отрицательной).
+     * Если строки баланса ещё нет (пользователь создан до появления таблицы), она создаётся.
+     * @param userId ID пользователя
+     * @param delta  изменение суммы
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "user_balances"))
+    @Query(value = "INSERT INTO user_balances (user_id, calories_consumed, calories_burned) VALUES (:userId, :delta, 0) " +
+            "ON CONFLICT (user_id) DO UPDATE SET calories_consumed = user_balances.calories_consumed + EXCLUDED.calories_consumed",
+            nativeQuery = true)
+    void addCaloriesConsumed(Long userId, long delta);
+
+    /**
+     * Прибавить к сумме сожжённых калорий (delta может быть отрицательной).
+     * Если строки баланса ещё нет, она создаётся.
+     * @param userId ID пользователя
+     * @param delta  изменение суммы
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "user_balances"))
+    @Query(value = "INSERT INTO user_balances (user_id, calories_consumed, calories_burned) VALUES (:userId, 0, :delta) " +
+            "ON CONFLICT (user_id) DO UPDATE SET calories_burned = user_balances.calories_burned + EXCLUDED.calories_burned",
+            nativeQuery = true)
+    void addCaloriesBurned(Long userId, long delta);
+
+    /**
+     * Найти пользователей, у которых сохранённый баланс расходится с суммами по meals и workouts
+     * (включая пользователей без строки баланса).
+     * @return ID пользователей с расхождением
+     */
+    @Query(value = "SELECT u.id FROM users u " +
+            "LEFT JOIN user_balances b ON b.user_id = u.id " +
+            "LEFT JOIN (SELECT user_id, SUM(calories) AS total FROM meals GROUP BY user_id) m ON m.user_id = u.id " +
+            "LEFT JOIN (SELECT user_id, SUM(calories_burned) AS total FROM workouts GROUP BY user_id) w ON w.user_id = u.id " +
+            "WHERE b.user_id IS NULL " +
+            "OR b.calories_consumed <> COALESCE(m.total, 0) " +
+            "OR b.calories_burned <> COALESCE(w.total, 0) " +
+            "ORDER BY u.id",
+            nativeQuery = true)
+    List<Long> findDriftedUserIds();
+
+    /**
+     * Создать нулевые строки баланса для тех пользователей из списка, у кого их нет,
+     * чтобы затем все балансы можно было заблокировать ({@link #lockByUserIds}).
+     * @param userIds ID пользователей
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "user_balances"))
+    @Query(value = "INSERT INTO user_balances (user_id, calories_consumed, calories_burned) " +
+            "SELECT id, 0, 0 FROM users WHERE id IN (:userIds) " +
+            "ON CONFLICT (user_id) DO NOTHING",
+            nativeQuery = true)
+    void createMissing(List<Long> userIds);
+
+    /**
+     * Заблокировать строки баланса до конца транзакции (в порядке ID, чтобы не было взаимоблокировок).
+     * Ожидает транзакции, которые уже изменили эти балансы, а новые изменения ждут окончания текущей.
+     * @param userIds ID пользователей
+     * @return ID заблокированных балансов
+     */
+    @Query(value = "SELECT user_id FROM user_balances WHERE user_id IN (:userIds) ORDER BY user_id FOR UPDATE",
+            nativeQuery = true)
+    List<Long> lockByUserIds(List<Long> userIds);
+
+    /**
+     * Пересчитать заблокированные балансы по таблицам meals и workouts.
+     * Перезаписываются только строки, которые действительно расходятся с суммами.
+     * Изменение выполняется в CTE, а оператор возвращает ID перезаписанных балансов, поэтому он не помечен @Modifying.
+     * @param userIds ID пользователей
+     * @return ID пользователей, баланс которых был перезаписан
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "user_balances"),
+            @QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "meals"),
+            @QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "workouts")
+    })
+    @Query(value = "WITH totals AS (SELECT b.user_id, " +
+            "COALESCE((SELECT SUM(m.calories) FROM meals m WHERE m.user_id = b.user_id), 0) AS consumed, " +
+            "COALESCE((SELECT SUM(w.calories_burned) FROM workouts w WHERE w.user_id = b.user_id), 0) AS burned " +
+            "FROM user_balances b WHERE b.user_id IN (:userIds)), " +
+            "rebuilt AS (UPDATE user_balances b SET calories_consumed = t.consumed, calories_burned = t.burned " +
+            "FROM totals t WHERE b.user_id = t.user_id " +
+            "AND (b.calories_consumed <> t.consumed OR b.calories_burned <> t.burned) " +
+            "RETURNING b.user_id) " +
+            "SELECT user_id FROM rebuilt ORDER BY user_id",
+            nativeQuery = true)
+    List<Long> rebuild(List<Long> userIds);
+}
@@ -1,13 +1,111 @@
 package maven.example.com.springbootresthomework.repository;
 
+import jakarta.persistence.QueryHint;
 import maven.example.com.springbootresthomework.entity.User;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+import java.util.Optional;
+
 /**
  * Репозиторий для работы с пользователями.
  * Наследует JpaRepository и предоставляет стандартные методы работы с БД.
+ * <p>
+ * findById читает сущность из кэша второго уровня и кладёт её туда. Запросы списка и профиля только читают кэш
+ * (CacheMode.GET): в профиле read-replicas они выполняются на реплике, и отстающая копия, положенная в кэш
+ * сразу после изменения, досталась бы findById основной БД — в том числе при обновлении пользователя.
  */
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
+
+    /**
+     * Получить страницу пользователей после указанного ID (keyset-пагинация по первичному ключу).
+     * @param id       ID последнего пользователя предыдущей страницы
+     * @param pageable размер страницы (всегда первая страница, без OFFSET)
+     * @return Пользователи, упорядоченные по ID
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHE_MODE, value = "GET"))
+    List<User> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
+    /**
+     * Получить пользователя вместе с приёмами пищи (LEFT JOIN FETCH по графу User.withMeals).
+     * @param id ID пользователя
+     * @return Пользователь с инициализированной коллекцией meals или пустой Optional
+     */
+    @EntityGraph(User.GRAPH_WITH_MEALS)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHE_MODE, value = "GET"))
+    Optional<User> findWithMealsById(Long id);
+
+    /**
+     * Получить пользователя вместе с тренировками (LEFT JOIN FETCH по графу User.withWorkouts).
+     * Если пользователь уже загружен в текущей сессии, запрос лишь инициализирует его коллекцию workouts.
+     * @param id ID пользователя
+     * @return Пользователь с инициализированной коллекцией workouts или пустой Optional
+     */
+    @EntityGraph(User.GRAPH_WITH_WORKOUTS)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHE_MODE, value = "GET"))
+    Optional<User> findWithWorkoutsById(Long id);
+
+    /**
+     * Получить пользователя из БД, минуя кэш второго уровня, и обновить его запись в кэше (CacheMode.REFRESH).
+     * Для изменения: версия из кэша может отставать от строки (другой экземпляр приложения, прямой SQL),
+     * и проверка If-Match и UPDATE ... WHERE version = ? по ней отвергали бы корректные запросы.
+     * @param id ID пользователя
+     * @return Пользователь с текущей версией строки или пустой Optional
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHE_MODE, value = "REFRESH"))
+    @Query("select u from User u where u.id = :id")
+    Optional<User> findCurrentById(Long id);
+
+    /**
+     * Удалить пользователя одним DELETE без загрузки сущности и его коллекций.
+     * Приёмы пищи, тренировки и баланс удаляет сама БД (ON DELETE CASCADE).
+     * После массовой операции Hibernate сам очищает регион кэша второго уровня User.
+     * @param id ID пользователя
+     * @return Количество удалённых пользователей (0 — пользователь не найден)
+     */
+    @Modifying
+    @Query("delete from User u where u.id = :id")
+    int deleteUserById(Long id);
+
+    /**
+     * Заблокировать строку пользователя до конца транзакции без загрузки сущности.
+     * Пока блокировка держится, приёмы пищи и тренировки этого пользователя не создаются:
+     * вставка проверяет внешний ключ и ждёт её снятия.
+     * @param id ID пользователя
+     * @return ID или пустой Optional, если пользователь не найден
+     */
+    @Query(value = "SELECT id FROM users WHERE id = :id FOR UPDATE", nativeQuery = true)
+    Optional<Long> lockById(Long id);
+
+    /**
+     * Получить версию строки пользователя (для ETag) без загрузки сущности.
+     * @param id ID пользователя
+     * @return Версия или пустой Optional, если пользователь не найден
+     */
+    @Query(value = "SELECT version FROM users WHERE id = :id", nativeQuery = true)
+    Optional<Long> findVersionById(Long id);
+
+    /**
+     * Получить счётчик изменений приёмов пищи пользователя (для ETag списка).
+     * @param id ID пользователя
+     * @return Счётчик или пустой Optional, если пользователь не найден
+     */
+    @Query(value = "SELECT meals_version FROM users WHERE id = :id", nativeQuery = true)
+    Optional<Long> findMealsVersionById(Long id);
+
+    /**
+     * Получить счётчик изменений тренировок пользователя (для ETag списка).
+     * @param id ID пользователя
+     * @return Счётчик или пустой Optional, если пользователь не найден
+     */
+    @Query(value = "SELECT workouts_version FROM users WHERE id = :id", nativeQuery = true)
+    Optional<Long> findWorkoutsVersionById(Long id);
 }
@@ -1,18 +1,154 @@
 package maven.example.com.springbootresthomework.repository;
 
+import jakarta.persistence.QueryHint;
 import maven.example.com.springbootresthomework.entity.Workout;
+import maven.example.com.springbootresthomework.repository.projection.NameCount;
+import maven.example.com.springbootresthomework.repository.projection.WorkoutView;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
+/**
+ * Репозиторий тренировок.
+ * Методы чтения возвращают проекции {@link WorkoutView}: один SQL-запрос без загрузки Workout и User.
+ */
 @Repository
 public interface WorkoutRepository extends JpaRepository<Workout, Long> {
 
     /**
-     * Получить все тренировки пользователя.
+     * Получить тренировку по ID.
+     * @param id ID тренировки
+     * @return Проекция тренировки
+     */
+    @Query("select new maven.example.com.springbootresthomework.repository.projection.WorkoutView(w.id, w.name, w.duration) " +
+            "from Workout w where w.id = :id")
+    Optional<WorkoutView> findViewById(Long id);
+
+    /**
+     * Получить версию строки тренировки (для ETag).
+     * @param id ID тренировки
+     * @return Версия или пустой Optional, если тренировка не найдена
+     */
+    @Query(value = "SELECT version FROM workouts WHERE id = :id", nativeQuery = true)
+    Optional<Long> findVersionById(Long id);
+
+    /**
+     * Потоково прочитать тренировки пользователя (по индексу (user_id, id), без сортировки).
+     * Существование пользователя не проверяется: для несуществующего пользователя поток пуст.
+     * Поток нужно закрыть и использовать внутри транзакции.
+     * @param userId ID пользователя
+     * @return Поток тренировок, упорядоченный по ID
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select new maven.example.com.springbootresthomework.repository.projection.WorkoutView(w.id, w.name, w.duration) " +
+            "from Workout w where w.user.id = :userId order by w.id")
+    Stream<WorkoutView> streamViewsByUserId(Long userId);
+
+    /**
+     * Получить страницу записей после указанного ID (keyset-пагинация по первичному ключу).
+     * @param id       ID последней записи предыдущей страницы
+     * @param pageable размер страницы (всегда первая страница, без OFFSET)
+     * @return Тренировки, упорядоченные по ID
+     */
+    @Query("select new maven.example.com.springbootresthomework.repository.projection.WorkoutView(w.id, w.name, w.duration) " +
+            "from Workout w where w.id > :id order by w.id")
+    List<WorkoutView> findViewsAfter(Long id, Pageable pageable);
+
+    /**
+     * Потоково прочитать все записи (для выгрузки).
+     * Строки забираются с сервера порциями по fetch size; проекции не попадают в контекст персистентности.
+     * Поток нужно закрыть и использовать внутри транзакции.
+     * @return Поток записей, упорядоченный по ID
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select new maven.example.com.springbootresthomework.repository.projection.WorkoutView(w.id, w.name, w.duration) " +
+            "from Workout w order by w.id")
+    Stream<WorkoutView> streamAll();
+
+    /**
+     * Обновить тренировку без загрузки сущности.
+     * Сожжённые калории считаются в том же операторе по весу владельца той же арифметикой, что и в CalorieCalculator:
+     * MET × вес × минуты / 60 в double precision и округление точного значения половиной вверх, как Math.round.
+     * round(x::numeric) не подходит: приведение к numeric оставляет 15 значащих цифр, и 136.49999999999997
+     * округлилось бы до 137, а Math.round даёт 136. Дробная часть x - floor(x) вычисляется без погрешности.
+     * К балансу пользователя прибавляется разница сожжённых калорий. Вместо блокировки строки
+     * UPDATE сверяет версию тренировки с прочитанной вместе со старыми калориями: если тренировку
+     * успели изменить (или версия не равна ожидаемой), оператор ничего не меняет.
+     * Результат оператора — прежнее название тренировки для индекса подсказок (изменения выполняются в CTE),
+     * поэтому метод не помечен @Modifying и вызывается только внутри транзакции сервиса.
+     * В HINT_NATIVE_SPACES указана и читаемая таблица users: несохранённый вес пользователя сбрасывается в БД до оператора.
+     * @param id              ID тренировки
+     * @param name            новое название
+     * @param duration        новая продолжительность (в минутах)
+     * @param met             MET новой тренировки
+     * @param expectedVersion ожидаемая версия или null, если версию не проверять
+     * @return Прежнее название или пустой Optional, если тренировка не найдена или её версия изменилась
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "workouts"),
+            @QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "users"),
+            @QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "user_balances")
+    })
+    @Query(value = "WITH old AS (SELECT w.id, w.name, w.calories_burned, w.version, " +
+            "CAST(:met AS DOUBLE PRECISION) * u.weight * :duration / CAST(60 AS DOUBLE PRECISION) AS burned " +
+            "FROM workouts w JOIN users u ON u.id = w.user_id WHERE w.id = :id), " +
+            "updated AS (UPDATE workouts w SET name = :name, duration = :duration, " +
+            "calories_burned = floor(old.burned) + CASE WHEN old.burned - floor(old.burned) >= 0.5 THEN 1 ELSE 0 END " +
+            "FROM old WHERE w.id = old.id AND w.version = old.version " +
+            "AND (CAST(:expectedVersion AS BIGINT) IS NULL OR w.version = CAST(:expectedVersion AS BIGINT)) " +
+            "RETURNING w.user_id, w.calories_burned - old.calories_burned AS delta, old.name AS old_name), " +
+            "balance AS (INSERT INTO user_balances (user_id, calories_consumed, calories_burned) " +
+            "SELECT user_id, 0, delta FROM updated " +
+            "ON CONFLICT (user_id) DO UPDATE SET calories_burned = user_balances.calories_burned + EXCLUDED.calories_burned) " +
+            "SELECT old_name FROM updated",
+            nativeQuery = true)
+    Optional<String> updateByIdAdjustingBalance(Long id, String name, int duration, double met, Long expectedVersion);
+
+    /**
+     * Удалить тренировку без загрузки сущности, тем же SQL-оператором вычитая её калории из баланса пользователя.
+     * Возвращает название удалённой тренировки, поэтому тоже не помечен @Modifying.
+     * @param id ID тренировки
+     * @return Название удалённой тренировки или пустой Optional, если тренировка не найдена
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "workouts"),
+            @QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "user_balances")
+    })
+    @Query(value = "WITH deleted AS (DELETE FROM workouts WHERE id = :id RETURNING user_id, name, calories_burned), " +
+            "balance AS (INSERT INTO user_balances (user_id, calories_consumed, calories_burned) " +
+            "SELECT user_id, 0, -calories_burned FROM deleted " +
+            "ON CONFLICT (user_id) DO UPDATE SET calories_burned = user_balances.calories_burned + EXCLUDED.calories_burned) " +
+            "SELECT name FROM deleted",
+            nativeQuery = true)
+    Optional<String> deleteByIdAdjustingBalance(Long id);
+
+    /**
+     * Посчитать тренировки по названиям (для построения индекса подсказок).
+     * @return Различные названия и число тренировок с каждым из них
+     */
+    @Query("select new maven.example.com.springbootresthomework.repository.projection.NameCount(w.name, count(w)) " +
+            "from Workout w group by w.name")
+    List<NameCount> countByName();
+
+    /**
+     * Посчитать тренировки пользователя по названиям (их удалит каскад вместе с пользователем).
      * @param userId ID пользователя
-     * @return Список тренировок
+     * @return Различные названия и число тренировок пользователя с каждым из них
      */
-    List<Workout> findByUserId(Long userId);
+    @Query("select new maven.example.com.springbootresthomework.repository.projection.NameCount(w.name, count(w)) " +
+            "from Workout w where w.user.id = :userId group by w.name")
+    List<NameCount> countByNameForUser(Long userId);
 }
@@ -0,0 +1,25 @@
+package maven.example.com.springbootresthomework.repository.projection;
+
+import maven.example.com.springbootresthomework.dto.MealDTO;
+
+/**
+ * Проекция приёма пищи для операций чтения.
+ * Заполняется конструктором прямо в JPQL-запросе (select new ...), поэтому сущности Meal и User
+ * не загружаются: в SQL попадают только нужные колонки, включая внешний ключ user_id.
+ *
+ * @param id       ID приёма пищи (нужен для курсора пагинации)
+ * @param name     название
+ * @param calories калории
+ * @param userId   ID пользователя
+ */
+public record MealView(Long id, String name, int calories, Long userId) {
+
+    /**
+     * Преобразует проекцию в DTO ответа.
+     *
+     * @return MealDTO
+     */
+    public MealDTO toDTO() {
+        return new MealDTO(name, calories, userId);
+    }
+}
@@ -0,0 +1,10 @@
+package maven.example.com.springbootresthomework.repository.projection;
+
+/**
+ * Число записей с одним названием (результат GROUP BY name).
+ *
+ * @param name  название
+ * @param count сколько записей с этим названием
+ */
+public record NameCount(String name, long count) {
+}
@@ -0,0 +1,24 @@
+package maven.example.com.springbootresthomework.repository.projection;
+
+import maven.example.com.springbootresthomework.dto.WorkoutDTO;
+
+/**
+ * Проекция тренировки для операций чтения.
+ * Заполняется конструктором прямо в JPQL-запросе (select new ...), поэтому сущности Workout и User
+ * не загружаются: в SQL попадают только нужные колонки.
+ *
+ * @param id       ID тренировки (нужен для курсора пагинации)
+ * @param name     название
+ * @param duration продолжительность (в минутах)
+ */
+public record WorkoutView(Long id, String name, int duration) {
+
+    /**
+     * Преобразует проекцию в DTO ответа.
+     *
+     * @return WorkoutDTO
+     */
+    public WorkoutDTO toDTO() {
+        return new WorkoutDTO(name, duration);
+    }
+}
@@ -0,0 +1,36 @@
+package maven.example.com.springbootresthomework.scheduler;
+
+import lombok.extern.slf4j.Slf4j;
+import maven.example.com.springbootresthomework.service.BalanceService;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Периодическая сверка калорийных балансов.
+ * Расхождение означает, что какой-то путь изменения данных обошёл BalanceService, поэтому оно логируется.
+ */
+@Slf4j
+@Component
+public class BalanceReconciliationJob {
+
+    private final BalanceService balanceService;
+
+    public BalanceReconciliationJob(BalanceService balanceService) {
+        this.balanceService = balanceService;
+    }
+
+    /**
+     * Сверить и при необходимости пересчитать балансы (расписание — balance.reconciliation.cron).
+     */
+    @Scheduled(cron = "${balance.reconciliation.cron}")
+    public void reconcile() {
+        List<Long> driftedUserIds = balanceService.reconcile();
+        if (driftedUserIds.isEmpty()) {
+            log.info("Balance reconciliation: all balances match");
+        } else {
+            log.warn("Balance reconciliation: rebuilt balances, drift found for users {}", driftedUserIds);
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package maven.example.com.springbootresthomework.scheduler;
+
+import lombok.extern.slf4j.Slf4j;
+import maven.example.com.springbootresthomework.service.NameSuggestionService;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Периодическая перестройка индексов подсказок названий по данным БД.
+ * Между перестройками индексы обновляются сервисами; перестройка убирает расхождения от изменений в обход них
+ * (каскадное удаление пользователя, правки прямо в БД).
+ */
+@Slf4j
+@Component
+public class NameIndexRebuildJob {
+
+    private final NameSuggestionService nameSuggestionService;
+
+    public NameIndexRebuildJob(NameSuggestionService nameSuggestionService) {
+        this.nameSuggestionService = nameSuggestionService;
+    }
+
+    /**
+     * Перестроить индексы (расписание — suggestions.rebuild.cron).
+     */
+    @Scheduled(cron = "${suggestions.rebuild.cron}")
+    public void rebuild() {
+        nameSuggestionService.rebuild();
+        log.debug("Name suggestion indexes rebuilt");
+    }
+}
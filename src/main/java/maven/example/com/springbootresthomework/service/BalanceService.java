@@ -0,0 +1,134 @@
+package maven.example.com.springbootresthomework.service;
+
+import jakarta.persistence.EntityNotFoundException;
+import maven.example.com.springbootresthomework.constants.MessageConstants;
+import maven.example.com.springbootresthomework.dto.BalanceDTO;
+import maven.example.com.springbootresthomework.entity.UserBalance;
+import maven.example.com.springbootresthomework.repository.UserBalanceRepository;
+import maven.example.com.springbootresthomework.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Сервис калорийного баланса пользователей.
+ * Методы изменения вызываются из MealService и WorkoutService при создании записей и выполняются в их транзакции;
+ * при обновлении и удалении баланс корректируется тем же SQL-оператором в MealRepository/WorkoutRepository.
+ * Чтение баланса выполняется в read-only транзакции.
+ */
+@Service
+@Transactional(readOnly = true)
+public class BalanceService {
+
+    private final UserBalanceRepository userBalanceRepository;
+    private final UserRepository userRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int reconciliationChunkSize;
+
+    public BalanceService(UserBalanceRepository userBalanceRepository, UserRepository userRepository,
+                          PlatformTransactionManager transactionManager,
+                          @Value("${balance.reconciliation.chunk-size}") int reconciliationChunkSize) {
+        this.userBalanceRepository = userBalanceRepository;
+        this.userRepository = userRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.reconciliationChunkSize = reconciliationChunkSize;
+    }
+
+    /**
+     * Получить баланс пользователя.
+     * Обычно это один запрос по первичному ключу; проверка пользователя выполняется,
+     * только если строки баланса нет.
+     *
+     * @param userId ID пользователя
+     * @return Потреблённые, сожжённые калории и разница между ними
+     * @throws EntityNotFoundException если пользователь не найден
+     */
+    public BalanceDTO getBalance(Long userId) {
+        return userBalanceRepository.findById(userId)
+                .map(balance -> toDTO(balance.getCaloriesConsumed(), balance.getCaloriesBurned()))
+                .orElseGet(() -> {
+                    if (!userRepository.existsById(userId)) {
+                        throw new EntityNotFoundException(MessageConstants.USER_NOT_FOUND);
+                    }
+                    return toDTO(0, 0);
+                });
+    }
+
+    /**
+     * Создать баланс для нового пользователя.
+     *
+     * @param userId           ID пользователя
+     * @param caloriesConsumed калории приёмов пищи, созданных вместе с пользователем
+     * @param caloriesBurned   калории тренировок, созданных вместе с пользователем
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void createBalance(Long userId, long caloriesConsumed, long caloriesBurned) {
+        userBalanceRepository.createIfAbsent(userId, caloriesConsumed, caloriesBurned);
+    }
+
+    /**
+     * Изменить сумму потреблённых калорий.
+     *
+     * @param userId ID пользователя
+     * @param delta  изменение (отрицательное при удалении или уменьшении)
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void addCaloriesConsumed(Long userId, long delta) {
+        if (delta != 0) {
+            userBalanceRepository.addCaloriesConsumed(userId, delta);
+        }
+    }
+
+    /**
+     * Изменить сумму сожжённых калорий.
+     *
+     * @param userId ID пользователя
+     * @param delta  изменение (отрицательное при удалении или уменьшении)
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void addCaloriesBurned(Long userId, long delta) {
+        if (delta != 0) {
+            userBalanceRepository.addCaloriesBurned(userId, delta);
+        }
+    }
+
+    /**
+     * Сверить балансы с таблицами meals и workouts и пересчитать расходящиеся.
+     * Перед пересчётом строки баланса блокируются: транзакция, уже изменившая приём пищи и баланс,
+     * успевает завершиться, и её изменение попадает в суммы; следующие изменения ждут сверки и применяют
+     * свою разницу к пересчитанному значению. Без блокировки пересчёт по старому снимку затёр бы их.
+     * <p>
+     * Расходящиеся пользователи обрабатываются порциями (balance.reconciliation.chunk-size), каждая в своей
+     * транзакции: число параметров IN (...) ограничено, а блокировки одной порции не держатся до конца всей сверки.
+     *
+     * @return ID пользователей, баланс которых пришлось перезаписать (пустой список — всё сходится)
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public List<Long> reconcile() {
+        List<Long> driftedUserIds = userBalanceRepository.findDriftedUserIds();
+        List<Long> rebuiltUserIds = new ArrayList<>();
+        for (int from = 0; from < driftedUserIds.size(); from += reconciliationChunkSize) {
+            List<Long> chunk = driftedUserIds.subList(from,
+                    Math.min(from + reconciliationChunkSize, driftedUserIds.size()));
+            rebuiltUserIds.addAll(transactionTemplate.execute(status -> rebuild(chunk)));
+        }
+        return rebuiltUserIds;
+    }
+
+    private List<Long> rebuild(List<Long> userIds) {
+        userBalanceRepository.createMissing(userIds);
+        userBalanceRepository.lockByUserIds(userIds);
+        // Суммы считаются новым оператором уже после блокировки, по снимку, в котором есть дождавшиеся транзакции
+        return userBalanceRepository.rebuild(userIds);
+    }
+
+    private BalanceDTO toDTO(long caloriesConsumed, long caloriesBurned) {
+        return new BalanceDTO(caloriesConsumed, caloriesBurned, caloriesConsumed - caloriesBurned);
+    }
+}
@@ -3,57 +3,103 @@ package maven.example.com.springbootresthomework.service;
 import jakarta.persistence.EntityNotFoundException;
 import maven.example.com.springbootresthomework.constants.MessageConstants;
 import maven.example.com.springbootresthomework.dto.MealDTO;
+import maven.example.com.springbootresthomework.dto.PageDTO;
 import maven.example.com.springbootresthomework.entity.Meal;
 import maven.example.com.springbootresthomework.entity.User;
+import maven.example.com.springbootresthomework.exception.VersionMismatchException;
 import maven.example.com.springbootresthomework.mapper.MealMapper;
 import maven.example.com.springbootresthomework.repository.MealRepository;
 import maven.example.com.springbootresthomework.repository.UserRepository;
+import maven.example.com.springbootresthomework.repository.projection.MealView;
+import maven.example.com.springbootresthomework.util.KeysetPagination;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+/**
+ * Сервис для работы с приёмами пищи.
+ * Транзакции — как в UserService: чтение read-only на уровне класса, изменения — @Transactional.
+ */
 @Service
+@Transactional(readOnly = true)
 public class MealService {
 
     private final MealRepository mealRepository;
     private final UserRepository userRepository;
     private final MealMapper mealMapper;
+    private final BalanceService balanceService;
+    private final UserService userService;
+    private final NameSuggestionService nameSuggestionService;
 
-    public MealService(MealRepository mealRepository, UserRepository userRepository, MealMapper mealMapper) {
+    public MealService(MealRepository mealRepository, UserRepository userRepository, MealMapper mealMapper,
+                       BalanceService balanceService, UserService userService,
+                       NameSuggestionService nameSuggestionService) {
         this.mealRepository = mealRepository;
         this.userRepository = userRepository;
         this.mealMapper = mealMapper;
+        this.balanceService = balanceService;
+        this.userService = userService;
+        this.nameSuggestionService = nameSuggestionService;
     }
 
     /**
-     * Получает список всех приёмов пищи.
+     * Получает страницу приёмов пищи (keyset-пагинация по ID).
      *
-     * @return Список всех приёмов пищи.
+     * @param after ID последнего приёма пищи предыдущей страницы или null для первой страницы
+     * @param limit размер страницы
+     * @return Страница приёмов пищи с курсором следующей страницы
+     * @throws IllegalArgumentException если размер страницы вне допустимого диапазона
      */
-    public List<MealDTO> getAllMeals() {
-        return mealRepository.findAll()
-                .stream()
-                .map(mealMapper::toDTO)
-                .collect(Collectors.toList());
+    public PageDTO<MealDTO> getAllMeals(Long after, int limit) {
+        List<MealView> meals = mealRepository.findViewsAfter(
+                KeysetPagination.startAfter(after), KeysetPagination.fetchLimit(limit));
+
+        return KeysetPagination.toPage(meals, limit, MealView::id, MealView::toDTO);
+    }
+
+    /**
+     * Выгрузить все приёмы пищи потоком, не загружая весь список в память.
+     * Строки читаются проекциями и не накапливаются в контексте персистентности,
+     * поэтому расход памяти не зависит от размера таблицы.
+     *
+     * @param action обработчик каждого приёма пищи
+     */
+    public void exportMeals(Consumer<MealDTO> action) {
+        try (Stream<MealView> meals = mealRepository.streamAll()) {
+            meals.map(MealView::toDTO).forEach(action);
+        }
     }
 
     /**
-     * Получить приёмы пищи конкретного пользователя.
+     * Передать приёмы пищи пользователя обработчику по одному, не собирая их в список.
+     * Существование пользователя проверяет вызывающая сторона (getMealsVersionByUserId).
      *
      * @param userId ID пользователя
-     * @return Список приёмов пищи пользователя
-     * @throws EntityNotFoundException если пользователь не найден
+     * @param action обработчик каждого приёма пищи
      */
-    public List<MealDTO> getMealsByUserId(Long userId) {
-        if (!userRepository.existsById(userId)) {
-            throw new EntityNotFoundException(MessageConstants.USER_NOT_FOUND);
+    public void streamMealsByUserId(Long userId, Consumer<MealDTO> action) {
+        try (Stream<MealView> meals = mealRepository.streamViewsByUserId(userId)) {
+            meals.map(MealView::toDTO).forEach(action);
         }
+    }
 
-        return mealRepository.findByUserId(userId)
-                .stream()
-                .map(mealMapper::toDTO)
-                .collect(Collectors.toList());
+    /**
+     * Получить версию списка приёмов пищи пользователя (для ETag).
+     * Меняется при любом добавлении, изменении или удалении приёма пищи пользователя.
+     *
+     * @param userId ID пользователя
+     * @return Счётчик изменений приёмов пищи пользователя
+     * @throws EntityNotFoundException если пользователь не найден
+     */
+    public long getMealsVersionByUserId(Long userId) {
+        return userRepository.findMealsVersionById(userId)
+                .orElseThrow(() -> new EntityNotFoundException(MessageConstants.USER_NOT_FOUND));
     }
 
     /**
@@ -64,40 +110,88 @@ public class MealService {
      * @throws EntityNotFoundException если приём пищи не найден
      */
     public MealDTO getMealById(Long id) {
-        Meal meal = mealRepository.findById(id)
+        return mealRepository.findViewById(id)
+                .map(MealView::toDTO)
                 .orElseThrow(() -> new EntityNotFoundException(MessageConstants.MEAL_NOT_FOUND));
+    }
 
-        return mealMapper.toDTO(meal);
+    /**
+     * Получить версию приёма пищи (для ETag).
+     *
+     * @param id ID приёма пищи
+     * @return Версия строки приёма пищи
+     * @throws EntityNotFoundException если приём пищи не найден
+     */
+    public long getMealVersion(Long id) {
+        return mealRepository.findVersionById(id)
+                .orElseThrow(() -> new EntityNotFoundException(MessageConstants.MEAL_NOT_FOUND));
     }
 
     /**
      * Создать новый приём пищи для пользователя.
+     * Баланс пользователя обновляется в той же транзакции.
      *
      * @param userId  ID пользователя
      * @param mealDTO Данные нового приёма пищи
      * @throws EntityNotFoundException если пользователь не найден
      */
+    @Transactional
     public void createMeal(Long userId, MealDTO mealDTO) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new EntityNotFoundException(MessageConstants.USER_NOT_FOUND));
+        User user = getUserReference(userId);
 
         Meal meal = mealMapper.toEntity(mealDTO, user);
         mealRepository.save(meal);
+        balanceService.addCaloriesConsumed(userId, mealDTO.getCalories());
+        nameSuggestionService.mealsCreated(List.of(mealDTO.getName()));
     }
 
     /**
-     * Обновить приём пищи по его ID.
+     * Создать несколько приёмов пищи для пользователя в одной транзакции.
+     * INSERT'ы отправляются в БД JDBC-пакетами (hibernate.jdbc.batch_size).
      *
-     * @param id      ID приёма пищи
-     * @param mealDTO Новые данные
-     * @throws EntityNotFoundException если приём пищи не найден
+     * @param userId   ID пользователя
+     * @param mealDTOs Данные новых приёмов пищи
+     * @throws EntityNotFoundException если пользователь не найден
      */
-    public void updateMeal(Long id, MealDTO mealDTO) {
-        Meal existingMeal = mealRepository.findById(id)
-                .orElseThrow(() -> new EntityNotFoundException(MessageConstants.MEAL_NOT_FOUND));
+    @Transactional
+    public void createMeals(Long userId, List<MealDTO> mealDTOs) {
+        User user = getUserReference(userId);
 
-        mealMapper.updateEntity(existingMeal, mealDTO);
-        mealRepository.save(existingMeal);
+        List<Meal> meals = mealDTOs.stream()
+                .map(mealDTO -> mealMapper.toEntity(mealDTO, user))
+                .collect(Collectors.toList());
+        mealRepository.saveAll(meals);
+
+        long totalCalories = mealDTOs.stream().mapToLong(MealDTO::getCalories).sum();
+        balanceService.addCaloriesConsumed(userId, totalCalories);
+        nameSuggestionService.mealsCreated(mealDTOs.stream().map(MealDTO::getName).toList());
+    }
+
+    /**
+     * Обновить приём пищи по его ID.
+     * Если строку изменили параллельно, обновление повторяется в новой транзакции.
+     *
+     * @param id              ID приёма пищи
+     * @param mealDTO         Новые данные
+     * @param expectedVersion Версия из If-Match или null, если клиент её не передал
+     * @throws EntityNotFoundException  если приём пищи не найден
+     * @throws VersionMismatchException если версия приёма пищи не совпадает с ожидаемой
+     */
+    @RetryOnConcurrentUpdate
+    @Transactional
+    public void updateMeal(Long id, MealDTO mealDTO, Long expectedVersion) {
+        // Один UPDATE без предварительного SELECT; разница калорий попадает в баланс тем же оператором
+        Optional<String> oldName = mealRepository.updateByIdAdjustingBalance(
+                id, mealDTO.getName(), mealDTO.getCalories(), expectedVersion);
+        if (oldName.isEmpty()) {
+            // Только на пути отказа: отличить отсутствие строки от конфликта версий
+            long currentVersion = getMealVersion(id);
+            if (expectedVersion != null && expectedVersion != currentVersion) {
+                throw new VersionMismatchException(MessageConstants.VERSION_MISMATCH);
+            }
+            throw new ObjectOptimisticLockingFailureException(Meal.class, id);
+        }
+        nameSuggestionService.mealRenamed(oldName.get(), mealDTO.getName());
     }
 
     /**
@@ -106,10 +200,26 @@ public class MealService {
      * @param id ID приёма пищи
      * @throws EntityNotFoundException если приём пищи не найден
      */
+    @Transactional
     public void deleteMeal(Long id) {
-        Meal meal = mealRepository.findById(id)
+        String deletedName = mealRepository.deleteByIdAdjustingBalance(id)
                 .orElseThrow(() -> new EntityNotFoundException(MessageConstants.MEAL_NOT_FOUND));
+        nameSuggestionService.mealDeleted(deletedName);
+    }
 
-        mealRepository.delete(meal);
+    /**
+     * Получить ссылку на пользователя для привязки новой записи.
+     * Существование проверяется через кэш UserService, а сам пользователь не загружается:
+     * getReferenceById возвращает прокси, из которого берётся только внешний ключ.
+     *
+     * @param userId ID пользователя
+     * @return Прокси пользователя
+     * @throws EntityNotFoundException если пользователь не найден
+     */
+    private User getUserReference(Long userId) {
+        if (!userService.existsById(userId)) {
+            throw new EntityNotFoundException(MessageConstants.USER_NOT_FOUND);
+        }
+        return userRepository.getReferenceById(userId);
     }
 }
@@ -0,0 +1,207 @@
+package maven.example.com.springbootresthomework.service;
+
+import jakarta.annotation.PostConstruct;
+import maven.example.com.springbootresthomework.constants.MessageConstants;
+import maven.example.com.springbootresthomework.constants.SearchConstants;
+import maven.example.com.springbootresthomework.dto.NameSuggestionDTO;
+import maven.example.com.springbootresthomework.repository.MealRepository;
+import maven.example.com.springbootresthomework.repository.WorkoutRepository;
+import maven.example.com.springbootresthomework.repository.projection.NameCount;
+import maven.example.com.springbootresthomework.util.PrefixIndex;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Подсказки названий приёмов пищи и тренировок по префиксу (автодополнение).
+ * Ответ строится по индексам в памяти, без запросов к БД. Индексы заполняются при старте
+ * и обновляются после фиксации транзакций MealService, WorkoutService и удаления пользователя в UserService;
+ * откаченные изменения в них не попадают.
+ * <p>
+ * Расхождения, которые всё же возникнут (например, изменения в БД в обход сервисов), исправляет
+ * периодическая перестройка ({@link #rebuild()}, см. NameIndexRebuildJob).
+ * <p>
+ * Перестройка читает данные по одному снимку, а изменения, зафиксированные после него, повторяются на новых
+ * индексах ({@link PrefixIndex#beginRebuild()}). Чтобы граница была точной, транзакция с изменением названий
+ * держит разделяемую блокировку commits от beforeCommit до применения изменения к индексам, а снимок
+ * берётся под исключительной: ни одна фиксация не окажется в снимке, не успев попасть в индекс.
+ */
+@Service
+public class NameSuggestionService {
+
+    private final MealRepository mealRepository;
+    private final WorkoutRepository workoutRepository;
+    private final PrefixIndex mealNames = new PrefixIndex();
+    private final PrefixIndex workoutNames = new PrefixIndex();
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate snapshotTransaction;
+    private final ReadWriteLock commits = new ReentrantReadWriteLock();
+
+    public NameSuggestionService(MealRepository mealRepository, WorkoutRepository workoutRepository,
+                                 JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.mealRepository = mealRepository;
+        this.workoutRepository = workoutRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.snapshotTransaction = new TransactionTemplate(transactionManager);
+        this.snapshotTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.snapshotTransaction.setReadOnly(true);
+    }
+
+    /**
+     * Построить индексы заново по данным БД (один GROUP BY на таблицу) в одной транзакции REPEATABLE READ.
+     * Снимок фиксируется первым оператором транзакции, поэтому он выполняется под исключительной блокировкой
+     * commits; сами GROUP BY фиксации не задерживают. Перестройки не пересекаются: у индекса один список изменений.
+     */
+    @PostConstruct
+    public synchronized void rebuild() {
+        snapshotTransaction.executeWithoutResult(status -> {
+            commits.writeLock().lock();
+            try {
+                jdbcTemplate.execute("SELECT 1");
+                mealNames.beginRebuild();
+                workoutNames.beginRebuild();
+            } finally {
+                commits.writeLock().unlock();
+            }
+            mealNames.replaceAll(mealRepository.countByName());
+            workoutNames.replaceAll(workoutRepository.countByName());
+        });
+    }
+
+    /**
+     * Самые частые названия приёмов пищи, начинающиеся с префикса.
+     *
+     * @param prefix начало названия (без учёта регистра)
+     * @param limit  максимальное число подсказок
+     * @return Подсказки по убыванию числа приёмов пищи
+     * @throws IllegalArgumentException если префикс пустой или limit вне допустимого диапазона
+     */
+    public List<NameSuggestionDTO> suggestMealNames(String prefix, int limit) {
+        validate(prefix, limit);
+        return mealNames.suggest(prefix, limit);
+    }
+
+    /**
+     * Самые частые названия тренировок, начинающиеся с префикса.
+     *
+     * @param prefix начало названия (без учёта регистра)
+     * @param limit  максимальное число подсказок
+     * @return Подсказки по убыванию числа тренировок
+     * @throws IllegalArgumentException если префикс пустой или limit вне допустимого диапазона
+     */
+    public List<NameSuggestionDTO> suggestWorkoutNames(String prefix, int limit) {
+        validate(prefix, limit);
+        return workoutNames.suggest(prefix, limit);
+    }
+
+    /**
+     * Учесть созданные приёмы пищи после фиксации текущей транзакции.
+     */
+    public void mealsCreated(List<String> names) {
+        afterCommit(() -> names.forEach(mealNames::add));
+    }
+
+    /**
+     * Учесть переименование приёма пищи после фиксации текущей транзакции.
+     */
+    public void mealRenamed(String oldName, String newName) {
+        afterCommit(() -> mealNames.rename(oldName, newName));
+    }
+
+    /**
+     * Учесть удаление приёма пищи после фиксации текущей транзакции.
+     */
+    public void mealDeleted(String name) {
+        afterCommit(() -> mealNames.remove(name));
+    }
+
+    /**
+     * Учесть созданные тренировки после фиксации текущей транзакции.
+     */
+    public void workoutsCreated(List<String> names) {
+        afterCommit(() -> names.forEach(workoutNames::add));
+    }
+
+    /**
+     * Учесть переименование тренировки после фиксации текущей транзакции.
+     */
+    public void workoutRenamed(String oldName, String newName) {
+        afterCommit(() -> workoutNames.rename(oldName, newName));
+    }
+
+    /**
+     * Учесть удаление тренировки после фиксации текущей транзакции.
+     */
+    public void workoutDeleted(String name) {
+        afterCommit(() -> workoutNames.remove(name));
+    }
+
+    /**
+     * Учесть записи пользователя, которые удалит каскад вместе с ним: названия считаются в текущей транзакции
+     * (до DELETE пользователя) и вычитаются из индексов после её фиксации, как при удалении по одной записи.
+     *
+     * @param userId ID удаляемого пользователя
+     */
+    public void userDeleting(Long userId) {
+        List<NameCount> meals = mealRepository.countByNameForUser(userId);
+        List<NameCount> workouts = workoutRepository.countByNameForUser(userId);
+        if (meals.isEmpty() && workouts.isEmpty()) {
+            return;
+        }
+        afterCommit(() -> {
+            mealNames.removeAll(meals);
+            workoutNames.removeAll(workouts);
+        });
+    }
+
+    private static void validate(String prefix, int limit) {
+        if (prefix == null || prefix.isBlank()) {
+            throw new IllegalArgumentException(MessageConstants.EMPTY_SEARCH_PREFIX);
+        }
+        if (limit < 1 || limit > SearchConstants.MAX_SUGGESTION_LIMIT) {
+            throw new IllegalArgumentException(MessageConstants.INVALID_SUGGESTION_LIMIT);
+        }
+    }
+
+    /**
+     * Выполнить действие после фиксации транзакции или сразу, если транзакции нет.
+     * От beforeCommit до выполнения действия держится разделяемая блокировка commits (см. {@link #rebuild()}).
+     */
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            private boolean committing;
+
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                commits.readLock().lock();
+                committing = true;
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (!committing) {
+                    return;
+                }
+                try {
+                    if (status == STATUS_COMMITTED) {
+                        action.run();
+                    }
+                } finally {
+                    commits.readLock().unlock();
+                }
+            }
+        });
+    }
+}
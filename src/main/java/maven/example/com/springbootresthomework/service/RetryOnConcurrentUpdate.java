@@ -0,0 +1,27 @@
+package maven.example.com.springbootresthomework.service;
+
+import maven.example.com.springbootresthomework.exception.VersionMismatchException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.retry.annotation.Backoff;
+import org.springframework.retry.annotation.Retryable;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Повтор идемпотентного обновления при конфликте оптимистической блокировки.
+ * Каждая попытка выполняется в новой транзакции (повтор снаружи @Transactional, см. RetryConfig)
+ * и заново читает текущую версию строки. Пауза случайная, чтобы конкурирующие запросы не сталкивались снова.
+ * Несовпадение с If-Match клиента ({@link VersionMismatchException}) не повторяется.
+ * После исчерпания попыток исключение уходит в GlobalExceptionHandler (409).
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Retryable(retryFor = OptimisticLockingFailureException.class,
+        noRetryFor = VersionMismatchException.class,
+        maxAttempts = 3,
+        backoff = @Backoff(delay = 10, maxDelay = 50, random = true))
+public @interface RetryOnConcurrentUpdate {
+}
@@ -1,50 +1,76 @@
 package maven.example.com.springbootresthomework.service;
 
 import jakarta.persistence.EntityNotFoundException;
+import maven.example.com.springbootresthomework.constants.CacheNames;
 import maven.example.com.springbootresthomework.constants.MessageConstants;
+import maven.example.com.springbootresthomework.dto.PageDTO;
+import maven.example.com.springbootresthomework.dto.UserCreateDTO;
 import maven.example.com.springbootresthomework.dto.UserDTO;
+import maven.example.com.springbootresthomework.dto.UserProfileDTO;
+import maven.example.com.springbootresthomework.dto.VersionedDTO;
+import maven.example.com.springbootresthomework.entity.Meal;
 import maven.example.com.springbootresthomework.entity.User;
+import maven.example.com.springbootresthomework.entity.Workout;
+import maven.example.com.springbootresthomework.exception.VersionMismatchException;
 import maven.example.com.springbootresthomework.mapper.UserMapper;
 import maven.example.com.springbootresthomework.repository.UserRepository;
+import maven.example.com.springbootresthomework.util.KeysetPagination;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
-import java.util.stream.Collectors;
 
 
 /**
  * Сервис для работы с пользователями.
+ * Методы чтения выполняются в read-only транзакции (класс помечен readOnly = true): Hibernate переводит сессию
+ * в FlushMode.MANUAL и загружает сущности только для чтения — без снимков состояния и dirty checking.
+ * Методы изменения явно помечены @Transactional и выполняются в одной транзакции.
  */
 @Service
+@Transactional(readOnly = true)
 public class UserService {
 
     private final UserRepository userRepository;
     private final UserMapper userMapper;
+    private final BalanceService balanceService;
+    private final NameSuggestionService nameSuggestionService;
 
-    public UserService(UserRepository userRepository, UserMapper userMapper) {
+    public UserService(UserRepository userRepository, UserMapper userMapper, BalanceService balanceService,
+                       NameSuggestionService nameSuggestionService) {
         this.userRepository = userRepository;
         this.userMapper = userMapper;
+        this.balanceService = balanceService;
+        this.nameSuggestionService = nameSuggestionService;
     }
 
     /**
-     * Получить список всех пользователей.
+     * Получить страницу пользователей (keyset-пагинация по ID).
      *
-     * @return Список пользователей
+     * @param after ID последнего пользователя предыдущей страницы или null для первой страницы
+     * @param limit размер страницы
+     * @return Страница пользователей с курсором следующей страницы
+     * @throws IllegalArgumentException если размер страницы вне допустимого диапазона
      */
-    public List<UserDTO> getAllUsers() {
-        return userRepository.findAll()
-                .stream()
-                .map(userMapper::toDTO)
-                .collect(Collectors.toList());
+    public PageDTO<UserDTO> getAllUsers(Long after, int limit) {
+        List<User> users = userRepository.findByIdGreaterThanOrderByIdAsc(
+                KeysetPagination.startAfter(after), KeysetPagination.fetchLimit(limit));
+
+        return KeysetPagination.toPage(users, limit, User::getId, userMapper::toDTO);
     }
 
     /**
      * Получить пользователя по ID.
+     * Результат кэшируется; запись удаляется из кэша при обновлении и удалении пользователя.
      *
      * @param id Идентификатор пользователя
      * @return Найденный пользователь
      * @throws EntityNotFoundException если пользователь не найден
      */
+    @Cacheable(cacheNames = CacheNames.USERS, key = "#id")
     public UserDTO getUserById(Long id) {
         User user = userRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException(MessageConstants.USER_NOT_FOUND));
@@ -53,25 +79,99 @@ public class UserService {
     }
 
     /**
-     * Создать нового пользователя.
+     * Получить профиль пользователя: данные, приёмы пищи и тренировки.
+     * Выполняется ровно два запроса независимо от размера коллекций: первый загружает пользователя с приёмами
+     * пищи, второй дозагружает в тот же экземпляр тренировки. Один запрос с обеими коллекциями вернул бы
+     * meals × workouts строк.
+     *
+     * @param id Идентификатор пользователя
+     * @return Профиль пользователя
+     * @throws EntityNotFoundException если пользователь не найден
+     */
+    public UserProfileDTO getUserProfile(Long id) {
+        User user = userRepository.findWithMealsById(id)
+                .orElseThrow(() -> new EntityNotFoundException(MessageConstants.USER_NOT_FOUND));
+        userRepository.findWithWorkoutsById(id);
+
+        return userMapper.toProfileDTO(user);
+    }
+
+    /**
+     * Получить пользователя вместе с версией строки (для ETag) одним чтением сущности.
+     * Кэш users здесь не используется: его запись очищается вне транзакции и после параллельного обновления
+     * может остаться старше версии из БД — клиент получил бы старое тело под новым ETag.
      *
-     * @param userDTO Данные пользователя
+     * @param id Идентификатор пользователя
+     * @return Данные пользователя и версия, из которой они построены
+     * @throws EntityNotFoundException если пользователь не найден
      */
-    public void createUser(UserDTO userDTO) {
+    public VersionedDTO<UserDTO> getVersionedUser(Long id) {
+        User user = userRepository.findById(id)
+                .orElseThrow(() -> new EntityNotFoundException(MessageConstants.USER_NOT_FOUND));
+
+        return new VersionedDTO<>(user.getVersion(), userMapper.toDTO(user));
+    }
+
+    /**
+     * Проверить существование пользователя.
+     * Кэшируются только положительные ответы: ID, которого ещё нет, может появиться позже,
+     * а удаление пользователя явно очищает кэш.
+     *
+     * @param id Идентификатор пользователя
+     * @return true, если пользователь существует
+     */
+    @Cacheable(cacheNames = CacheNames.USER_EXISTS, key = "#id", unless = "!#result")
+    public boolean existsById(Long id) {
+        return userRepository.existsById(id);
+    }
+
+    /**
+     * Создать нового пользователя вместе с переданными приёмами пищи, тренировками и калорийным балансом
+     * в одной транзакции.
+     * Приёмы пищи и тренировки сохраняются каскадом (CascadeType.PERSIST): ID берутся блоками из последовательностей,
+     * а INSERT'ы группируются по таблицам в JDBC-пакеты (hibernate.jdbc.batch_size, hibernate.order_inserts).
+     * Баланс сразу создаётся с суммами калорий истории.
+     *
+     * @param userDTO Данные пользователя и, необязательно, его история
+     */
+    @Transactional
+    public void createUser(UserCreateDTO userDTO) {
         User user = userMapper.toEntity(userDTO);
         userRepository.save(user);
+
+        long caloriesConsumed = user.getMeals().stream().mapToLong(Meal::getCalories).sum();
+        long caloriesBurned = user.getWorkouts().stream().mapToLong(Workout::getCaloriesBurned).sum();
+        balanceService.createBalance(user.getId(), caloriesConsumed, caloriesBurned);
+
+        if (!user.getMeals().isEmpty()) {
+            nameSuggestionService.mealsCreated(user.getMeals().stream().map(Meal::getName).toList());
+        }
+        if (!user.getWorkouts().isEmpty()) {
+            nameSuggestionService.workoutsCreated(user.getWorkouts().stream().map(Workout::getName).toList());
+        }
     }
 
     /**
      * Обновить данные пользователя по ID.
+     * Пользователь читается из БД, а не из кэша второго уровня: If-Match сверяется с текущей версией строки.
+     * UPDATE проверяет версию строки (@Version): если пользователя изменили параллельно, обновление
+     * повторяется в новой транзакции на свежих данных.
      *
-     * @param id      Идентификатор пользователя
-     * @param userDTO Новые данные
-     * @throws EntityNotFoundException если пользователь не найден
+     * @param id              Идентификатор пользователя
+     * @param userDTO         Новые данные
+     * @param expectedVersion Версия из If-Match или null, если клиент её не передал
+     * @throws EntityNotFoundException  если пользователь не найден
+     * @throws VersionMismatchException если версия пользователя не совпадает с ожидаемой
      */
-    public void updateUser(Long id, UserDTO userDTO) {
-        User existingUser = userRepository.findById(id)
+    @RetryOnConcurrentUpdate
+    @CacheEvict(cacheNames = CacheNames.USERS, key = "#id")
+    @Transactional
+    public void updateUser(Long id, UserDTO userDTO, Long expectedVersion) {
+        User existingUser = userRepository.findCurrentById(id)
                 .orElseThrow(() -> new EntityNotFoundException(MessageConstants.USER_NOT_FOUND));
+        if (expectedVersion != null && !expectedVersion.equals(existingUser.getVersion())) {
+            throw new VersionMismatchException(MessageConstants.VERSION_MISMATCH);
+        }
 
         userMapper.updateEntity(existingUser, userDTO);
         userRepository.save(existingUser);
@@ -83,9 +183,18 @@ public class UserService {
      * @param id Идентификатор пользователя
      * @throws EntityNotFoundException если пользователь не найден
      */
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheNames.USERS, key = "#id"),
+            @CacheEvict(cacheNames = CacheNames.USER_EXISTS, key = "#id")
+    })
+    @Transactional
     public void deleteUser(Long id) {
-        User user = userRepository.findById(id)
-                .orElseThrow(() -> new EntityNotFoundException(MessageConstants.USER_NOT_FOUND));
-        userRepository.delete(user);
+        // Блокировка до подсчёта названий: новые записи пользователя не появятся между подсчётом и каскадом
+        if (userRepository.lockById(id).isEmpty()) {
+            throw new EntityNotFoundException(MessageConstants.USER_NOT_FOUND);
+        }
+        nameSuggestionService.userDeleting(id);
+        // Один DELETE: связанные строки удаляет БД (ON DELETE CASCADE), коллекции не загружаются
+        userRepository.deleteUserById(id);
     }
 }
\ No newline at end of file
@@ -3,43 +3,78 @@ package maven.example.com.springbootresthomework.service;
 
 import jakarta.persistence.EntityNotFoundException;
 import maven.example.com.springbootresthomework.constants.MessageConstants;
+import maven.example.com.springbootresthomework.dto.PageDTO;
 import maven.example.com.springbootresthomework.dto.WorkoutDTO;
 import maven.example.com.springbootresthomework.entity.User;
 import maven.example.com.springbootresthomework.entity.Workout;
+import maven.example.com.springbootresthomework.exception.VersionMismatchException;
 import maven.example.com.springbootresthomework.mapper.WorkoutMapper;
 import maven.example.com.springbootresthomework.repository.UserRepository;
 import maven.example.com.springbootresthomework.repository.WorkoutRepository;
+import maven.example.com.springbootresthomework.repository.projection.WorkoutView;
+import maven.example.com.springbootresthomework.util.KeysetPagination;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Сервис для работы с тренировками.
+ * Чтение выполняется в read-only транзакции класса, каждое изменение — в одной транзакции @Transactional.
  */
 @Service
+@Transactional(readOnly = true)
 public class WorkoutService {
 
     private final WorkoutRepository workoutRepository;
     private final UserRepository userRepository;
     private final WorkoutMapper workoutMapper;
+    private final BalanceService balanceService;
+    private final UserService userService;
+    private final NameSuggestionService nameSuggestionService;
 
-    public WorkoutService(WorkoutRepository workoutRepository, UserRepository userRepository, WorkoutMapper workoutMapper) {
+    public WorkoutService(WorkoutRepository workoutRepository, UserRepository userRepository, WorkoutMapper workoutMapper,
+                          BalanceService balanceService, UserService userService,
+                          NameSuggestionService nameSuggestionService) {
         this.workoutRepository = workoutRepository;
         this.userRepository = userRepository;
         this.workoutMapper = workoutMapper;
+        this.balanceService = balanceService;
+        this.userService = userService;
+        this.nameSuggestionService = nameSuggestionService;
     }
 
     /**
-     * Получить список всех тренировок.
+     * Получить страницу тренировок (keyset-пагинация по ID).
      *
-     * @return список тренировок
+     * @param after идентификатор последней тренировки предыдущей страницы или null для первой страницы
+     * @param limit размер страницы
+     * @return страница тренировок с курсором следующей страницы
+     * @throws IllegalArgumentException если размер страницы вне допустимого диапазона
      */
-    public List<WorkoutDTO> getAllWorkouts() {
-        return workoutRepository.findAll()
-                .stream()
-                .map(workoutMapper::toDTO)
-                .collect(Collectors.toList());
+    public PageDTO<WorkoutDTO> getAllWorkouts(Long after, int limit) {
+        List<WorkoutView> workouts = workoutRepository.findViewsAfter(
+                KeysetPagination.startAfter(after), KeysetPagination.fetchLimit(limit));
+
+        return KeysetPagination.toPage(workouts, limit, WorkoutView::id, WorkoutView::toDTO);
+    }
+
+    /**
+     * Выгрузить все тренировки потоком, не загружая весь список в память.
+     * Строки читаются проекциями и не накапливаются в контексте персистентности,
+     * поэтому расход памяти не зависит от размера таблицы.
+     *
+     * @param action обработчик каждой тренировки
+     */
+    public void exportWorkouts(Consumer<WorkoutDTO> action) {
+        try (Stream<WorkoutView> workouts = workoutRepository.streamAll()) {
+            workouts.map(WorkoutView::toDTO).forEach(action);
+        }
     }
 
     /**
@@ -50,57 +85,118 @@ public class WorkoutService {
      * @throws EntityNotFoundException если тренировка не найдена
      */
     public WorkoutDTO getWorkoutById(Long workoutId) {
-        Workout workout = workoutRepository.findById(workoutId)
+        return workoutRepository.findViewById(workoutId)
+                .map(WorkoutView::toDTO)
                 .orElseThrow(() -> new EntityNotFoundException(MessageConstants.WORKOUT_NOT_FOUND));
+    }
 
-        return workoutMapper.toDTO(workout);
+    /**
+     * Получить версию тренировки (для ETag).
+     *
+     * @param workoutId идентификатор тренировки
+     * @return версия строки тренировки
+     * @throws EntityNotFoundException если тренировка не найдена
+     */
+    public long getWorkoutVersion(Long workoutId) {
+        return workoutRepository.findVersionById(workoutId)
+                .orElseThrow(() -> new EntityNotFoundException(MessageConstants.WORKOUT_NOT_FOUND));
     }
 
     /**
-     * Получить список тренировок пользователя.
+     * Получить версию списка тренировок пользователя (для ETag).
+     * Меняется при любом добавлении, изменении или удалении тренировки пользователя.
      *
      * @param userId идентификатор пользователя
-     * @return список тренировок пользователя
+     * @return счётчик изменений тренировок пользователя
+     * @throws EntityNotFoundException если пользователь не найден
      */
-    public List<WorkoutDTO> getWorkoutsByUserId(Long userId) {
-        if (!userRepository.existsById(userId)) {
-            throw new EntityNotFoundException(MessageConstants.USER_NOT_FOUND);
-        }
+    public long getWorkoutsVersionByUserId(Long userId) {
+        return userRepository.findWorkoutsVersionById(userId)
+                .orElseThrow(() -> new EntityNotFoundException(MessageConstants.USER_NOT_FOUND));
+    }
 
-        return workoutRepository.findByUserId(userId)
-                .stream()
-                .map(workoutMapper::toDTO)
-                .collect(Collectors.toList());
+    /**
+     * Передать тренировки пользователя обработчику по одному, не собирая их в список.
+     * Существование пользователя проверяет вызывающая сторона (getWorkoutsVersionByUserId).
+     *
+     * @param userId идентификатор пользователя
+     * @param action обработчик каждой тренировки
+     */
+    public void streamWorkoutsByUserId(Long userId, Consumer<WorkoutDTO> action) {
+        try (Stream<WorkoutView> workouts = workoutRepository.streamViewsByUserId(userId)) {
+            workouts.map(WorkoutView::toDTO).forEach(action);
+        }
     }
 
     /**
      * Создать новую тренировку для пользователя.
-     * Автоматически рассчитывает `caloriesBurned` в зависимости от типа тренировки.
+     * Автоматически рассчитывает `caloriesBurned` по типу тренировки, её продолжительности и весу пользователя
+     * и в той же транзакции добавляет их к балансу пользователя.
      *
      * @param userId     идентификатор пользователя
      * @param workoutDTO данные тренировки
+     * @throws EntityNotFoundException если пользователь не найден
      */
+    @Transactional
     public void createWorkout(Long userId, WorkoutDTO workoutDTO) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new EntityNotFoundException(MessageConstants.USER_NOT_FOUND));
+        // Вес берётся из кэша пользователей; для внешнего ключа достаточно прокси без загрузки User
+        double weight = userService.getUserById(userId).getWeight();
+        User user = userRepository.getReferenceById(userId);
 
-        Workout workout = workoutMapper.toEntity(workoutDTO, user);
+        Workout workout = workoutMapper.toEntity(workoutDTO, user, weight);
         workoutRepository.save(workout);
+        balanceService.addCaloriesBurned(userId, workout.getCaloriesBurned());
+        nameSuggestionService.workoutsCreated(List.of(workoutDTO.getName()));
     }
 
     /**
-     * Обновить данные тренировки.
+     * Создать несколько тренировок для пользователя в одной транзакции.
+     * INSERT'ы отправляются в БД JDBC-пакетами (hibernate.jdbc.batch_size).
      *
-     * @param workoutId  идентификатор тренировки
-     * @param workoutDTO новые данные тренировки
-     * @throws EntityNotFoundException если тренировка не найдена
+     * @param userId      идентификатор пользователя
+     * @param workoutDTOs данные тренировок
+     * @throws EntityNotFoundException если пользователь не найден
      */
-    public void updateWorkout(Long workoutId, WorkoutDTO workoutDTO) {
-        Workout existingWorkout = workoutRepository.findById(workoutId)
-                .orElseThrow(() -> new EntityNotFoundException(MessageConstants.WORKOUT_NOT_FOUND));
+    @Transactional
+    public void createWorkouts(Long userId, List<WorkoutDTO> workoutDTOs) {
+        double weight = userService.getUserById(userId).getWeight();
+        User user = userRepository.getReferenceById(userId);
 
-        workoutMapper.updateEntity(existingWorkout, workoutDTO);
-        workoutRepository.save(existingWorkout);
+        List<Workout> workouts = workoutDTOs.stream()
+                .map(workoutDTO -> workoutMapper.toEntity(workoutDTO, user, weight))
+                .collect(Collectors.toList());
+        workoutRepository.saveAll(workouts);
+
+        long totalCaloriesBurned = workouts.stream().mapToLong(Workout::getCaloriesBurned).sum();
+        balanceService.addCaloriesBurned(userId, totalCaloriesBurned);
+        nameSuggestionService.workoutsCreated(workoutDTOs.stream().map(WorkoutDTO::getName).toList());
+    }
+
+    /**
+     * Обновить данные тренировки.
+     * Конфликт с параллельным изменением той же тренировки повторяется в новой транзакции.
+     *
+     * @param workoutId       идентификатор тренировки
+     * @param workoutDTO      новые данные тренировки
+     * @param expectedVersion версия из If-Match или null, если клиент её не передал
+     * @throws EntityNotFoundException  если тренировка не найдена
+     * @throws VersionMismatchException если версия тренировки не совпадает с ожидаемой
+     */
+    @RetryOnConcurrentUpdate
+    @Transactional
+    public void updateWorkout(Long workoutId, WorkoutDTO workoutDTO, Long expectedVersion) {
+        // Один UPDATE без предварительного SELECT: калории считаются по весу владельца прямо в БД,
+        // разница калорий попадает в баланс тем же оператором
+        Optional<String> oldName = workoutRepository.updateByIdAdjustingBalance(workoutId, workoutDTO.getName(),
+                workoutDTO.getDuration(), workoutMapper.getMet(workoutDTO), expectedVersion);
+        if (oldName.isEmpty()) {
+            long currentVersion = getWorkoutVersion(workoutId);
+            if (expectedVersion != null && expectedVersion != currentVersion) {
+                throw new VersionMismatchException(MessageConstants.VERSION_MISMATCH);
+            }
+            throw new ObjectOptimisticLockingFailureException(Workout.class, workoutId);
+        }
+        nameSuggestionService.workoutRenamed(oldName.get(), workoutDTO.getName());
     }
 
     /**
@@ -109,10 +205,10 @@ public class WorkoutService {
      * @param workoutId идентификатор тренировки
      * @throws EntityNotFoundException если тренировка не найдена
      */
+    @Transactional
     public void deleteWorkout(Long workoutId) {
-        Workout workout = workoutRepository.findById(workoutId)
+        String deletedName = workoutRepository.deleteByIdAdjustingBalance(workoutId)
                 .orElseThrow(() -> new EntityNotFoundException(MessageConstants.WORKOUT_NOT_FOUND));
-
-        workoutRepository.delete(workout);
+        nameSuggestionService.workoutDeleted(deletedName);
     }
 }
@@ -2,31 +2,182 @@ package maven.example.com.springbootresthomework.util;
 
 import org.springframework.stereotype.Component;
 
-import java.util.Map;
-
 /**
- * Утилитный класс для расчёта сожжённых калорий.
+ * Утилитный класс для расчёта сожжённых калорий по MET (метаболическому эквиваленту):
+ * ккал = MET × вес (кг) × время (ч).
+ * <p>
+ * Значения MET — по Compendium of Physical Activities. Название тренировки сравнивается без учёта регистра
+ * и пробельных символов ("Jump Rope", "jump rope", "JUMPROPE" — одна активность). Поиск выполняется
+ * по открытой адресации прямо по символам названия, без создания нормализованной строки.
  */
 @Component
 public class CalorieCalculator {
 
-    private static final Map<String, Integer> WORKOUT_CALORIES = Map.of(
-            "Running", 10,
-            "Swimming", 8,
-            "Cycling", 7,
-            "Yoga", 4,
-            "Jump Rope", 12
-    );
+    /**
+     * MET для тренировок, которых нет в таблице (умеренная нагрузка).
+     */
+    public static final double DEFAULT_MET = 5.0;
+
+    private static final Object[][] ACTIVITIES = {
+            {"Running", 9.8},
+            {"Jogging", 7.0},
+            {"Sprinting", 15.0},
+            {"Treadmill", 9.0},
+            {"Walking", 3.5},
+            {"Brisk Walking", 4.3},
+            {"Nordic Walking", 4.8},
+            {"Hiking", 6.0},
+            {"Swimming", 6.0},
+            {"Water Aerobics", 5.5},
+            {"Cycling", 7.5},
+            {"Stationary Cycling", 6.8},
+            {"Spinning", 8.5},
+            {"Mountain Biking", 8.5},
+            {"Rowing", 7.0},
+            {"Elliptical", 5.0},
+            {"Stair Climbing", 8.8},
+            {"Jump Rope", 12.3},
+            {"Aerobics", 7.3},
+            {"Step Aerobics", 8.5},
+            {"HIIT", 8.0},
+            {"CrossFit", 8.0},
+            {"Circuit Training", 8.0},
+            {"Calisthenics", 3.8},
+            {"Push Ups", 3.8},
+            {"Weightlifting", 5.0},
+            {"Strength Training", 5.0},
+            {"Powerlifting", 6.0},
+            {"Kettlebell", 9.8},
+            {"Yoga", 2.5},
+            {"Power Yoga", 4.0},
+            {"Pilates", 3.0},
+            {"Stretching", 2.3},
+            {"Tai Chi", 3.0},
+            {"Dancing", 5.0},
+            {"Zumba", 6.5},
+            {"Boxing", 7.8},
+            {"Kickboxing", 10.3},
+            {"Martial Arts", 10.3},
+            {"Wrestling", 6.0},
+            {"Tennis", 7.3},
+            {"Table Tennis", 4.0},
+            {"Badminton", 5.5},
+            {"Squash", 7.3},
+            {"Basketball", 6.5},
+            {"Football", 7.0},
+            {"Soccer", 7.0},
+            {"Volleyball", 4.0},
+            {"Handball", 12.0},
+            {"Hockey", 8.0},
+            {"Rugby", 8.3},
+            {"Golf", 4.8},
+            {"Bowling", 3.8},
+            {"Skiing", 7.0},
+            {"Cross-Country Skiing", 9.0},
+            {"Snowboarding", 5.3},
+            {"Skating", 7.0},
+            {"Rollerblading", 9.8},
+            {"Rock Climbing", 8.0},
+            {"Kayaking", 5.0},
+            {"Canoeing", 3.5},
+            {"Surfing", 3.0},
+            {"Horse Riding", 5.5}
+    };
+
+    private static final int MASK;
+    private static final String[] KEYS;
+    private static final double[] METS;
+
+    static {
+        // Заполнение таблицы не больше чем наполовину — короткие цепочки проб
+        int capacity = Integer.highestOneBit(ACTIVITIES.length * 2 - 1) << 1;
+        MASK = capacity - 1;
+        KEYS = new String[capacity];
+        METS = new double[capacity];
+
+        for (Object[] activity : ACTIVITIES) {
+            String name = (String) activity[0];
+            int slot = hash(name) & MASK;
+            while (KEYS[slot] != null) {
+                if (matches(KEYS[slot], name)) {
+                    throw new IllegalStateException("Duplicate activity: " + name);
+                }
+                slot = (slot + 1) & MASK;
+            }
+            KEYS[slot] = name;
+            METS[slot] = (double) activity[1];
+        }
+    }
+
+    /**
+     * Возвращает MET тренировки.
+     *
+     * @param workoutName название тренировки
+     * @return MET из таблицы или {@link #DEFAULT_MET}, если тренировка неизвестна
+     */
+    public double getMet(CharSequence workoutName) {
+        if (workoutName == null) {
+            return DEFAULT_MET;
+        }
+        int slot = hash(workoutName) & MASK;
+        String key;
+        while ((key = KEYS[slot]) != null) {
+            if (matches(key, workoutName)) {
+                return METS[slot];
+            }
+            slot = (slot + 1) & MASK;
+        }
+        return DEFAULT_MET;
+    }
 
     /**
-     * Рассчитывает количество сожжённых калорий на основе типа тренировки и её продолжительности.
+     * Рассчитывает количество сожжённых калорий на основе типа тренировки, её продолжительности и веса пользователя.
      *
      * @param workoutName название тренировки
      * @param duration    продолжительность (в минутах)
-     * @return количество сожжённых калорий
+     * @param weight      вес пользователя (в кг)
+     * @return количество сожжённых калорий, округлённое до целого
+     */
+    public int calculateCaloriesBurned(String workoutName, int duration, double weight) {
+        return (int) Math.round(getMet(workoutName) * weight * duration / 60.0);
+    }
+
+    /**
+     * Хэш названия без учёта регистра и пробельных символов.
+     */
+    private static int hash(CharSequence name) {
+        int h = 0;
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (!Character.isWhitespace(c)) {
+                h = 31 * h + Character.toLowerCase(c);
+            }
+        }
+        // Перемешивание старших битов в младшие: индекс слота берётся по маске
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Посимвольное сравнение без учёта регистра и пробельных символов.
      */
-    public int calculateCaloriesBurned(String workoutName, int duration) {
-        int caloriesPerMinute = WORKOUT_CALORIES.getOrDefault(workoutName, 5);
-        return caloriesPerMinute * duration;
+    private static boolean matches(CharSequence key, CharSequence name) {
+        int i = 0;
+        int j = 0;
+        while (true) {
+            while (i < key.length() && Character.isWhitespace(key.charAt(i))) {
+                i++;
+            }
+            while (j < name.length() && Character.isWhitespace(name.charAt(j))) {
+                j++;
+            }
+            if (i == key.length() || j == name.length()) {
+                return i == key.length() && j == name.length();
+            }
+            if (Character.toLowerCase(key.charAt(i)) != Character.toLowerCase(name.charAt(j))) {
+                return false;
+            }
+            i++;
+            j++;
+        }
     }
 }
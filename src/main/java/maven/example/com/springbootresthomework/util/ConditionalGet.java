@@ -0,0 +1,74 @@
+package maven.example.com.springbootresthomework.util;
+
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Условный GET по ETag, построенному из версии данных и формата ответа ({@link PayloadFormat}).
+ * Если If-None-Match совпадает с текущей версией, тело не читается и не сериализуется — клиент получает 304.
+ * Ответ зависит от Accept, поэтому он всегда помечается Vary: Accept (в том числе 304).
+ */
+public final class ConditionalGet {
+
+    private ConditionalGet() {
+    }
+
+    /**
+     * Возвращает 200 с телом и сильным ETag или 304, если версия у клиента актуальна.
+     * Версия читается до тела: если данные изменятся между двумя чтениями, клиент получит более новое тело
+     * со старым ETag и при следующем запросе просто загрузит данные повторно. Обратного не бывает: с репликами
+     * оба чтения запроса идут в один источник (ReplicaAffinity), и тело не старше версии. Кэш, который очищается
+     * вне транзакции, этого не гарантирует: для таких ресурсов версия и тело передаются из одного чтения.
+     * Сильный ETag нужен для If-Match ({@link ConditionalUpdate}), но Tomcat не сжимает такие ответы —
+     * поэтому он используется только для отдельных ресурсов, которые и так меньше порога сжатия.
+     *
+     * @param request текущий запрос
+     * @param version версия данных ресурса
+     * @param body    чтение тела ответа (вызывается, только если версия изменилась)
+     * @return ответ с ETag или null — ответ 304 уже сформирован Spring MVC
+     */
+    public static <T> ResponseEntity<T> ifModified(WebRequest request, long version, Supplier<T> body) {
+        PayloadFormat format = negotiate(request);
+        String eTag = "\"" + version + format.eTagSuffix() + "\"";
+        if (request.checkNotModified(eTag)) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(eTag).body(body.get());
+    }
+
+    /**
+     * Вариант для тел, которые пишутся в ответ напрямую, минуя HttpMessageConverter (StreamingResponseBody):
+     * формат выбирается здесь же и передаётся в фабрику тела, Content-Type выставляется явно.
+     * ETag слабый: для If-None-Match этого достаточно, а ответ со слабым ETag Tomcat может сжать.
+     *
+     * @param request текущий запрос
+     * @param version версия данных ресурса
+     * @param body    создание тела ответа в выбранном формате (вызывается, только если версия изменилась)
+     * @return ответ с ETag или null — ответ 304 уже сформирован Spring MVC
+     */
+    public static <T> ResponseEntity<T> ifModifiedStream(WebRequest request, long version,
+                                                         Function<PayloadFormat, T> body) {
+        PayloadFormat format = negotiate(request);
+        String eTag = "W/\"" + version + format.eTagSuffix() + "\"";
+        if (request.checkNotModified(eTag)) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(eTag).contentType(format.mediaType()).body(body.apply(format));
+    }
+
+    private static PayloadFormat negotiate(WebRequest request) {
+        if (request instanceof NativeWebRequest nativeRequest) {
+            HttpServletResponse response = nativeRequest.getNativeResponse(HttpServletResponse.class);
+            if (response != null) {
+                response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+            }
+        }
+        return PayloadFormat.negotiate(request.getHeader(HttpHeaders.ACCEPT));
+    }
+}
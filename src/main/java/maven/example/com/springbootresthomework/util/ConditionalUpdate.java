@@ -0,0 +1,36 @@
+package maven.example.com.springbootresthomework.util;
+
+import maven.example.com.springbootresthomework.constants.MessageConstants;
+
+/**
+ * Разбор заголовка If-Match условного обновления.
+ * ETag ресурса — версия строки в кавычках, для бинарных форматов с суффиксом формата
+ * (см. {@link ConditionalGet}, {@link PayloadFormat}): "3" и "3-cbor" ожидают одну и ту же версию 3.
+ */
+public final class ConditionalUpdate {
+
+    private ConditionalUpdate() {
+    }
+
+    /**
+     * Возвращает версию, которую клиент ожидает изменить.
+     *
+     * @param ifMatch значение If-Match или null
+     * @return ожидаемая версия или null, если заголовка нет или он равен "*"
+     * @throws IllegalArgumentException если значение не является ETag этого сервиса
+     */
+    public static Long expectedVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String eTag = ifMatch.trim();
+        if (eTag.length() < 3 || eTag.charAt(0) != '"' || eTag.charAt(eTag.length() - 1) != '"') {
+            throw new IllegalArgumentException(MessageConstants.INVALID_IF_MATCH);
+        }
+        try {
+            return Long.valueOf(PayloadFormat.stripSuffix(eTag.substring(1, eTag.length() - 1)));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(MessageConstants.INVALID_IF_MATCH);
+        }
+    }
+}
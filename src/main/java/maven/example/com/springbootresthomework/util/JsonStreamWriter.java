@@ -0,0 +1,95 @@
+package maven.example.com.springbootresthomework.util;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Потоковая запись DTO в тело ответа без накопления всего списка в памяти.
+ * Данные пишутся через буфер JsonGenerator и уходят клиенту по мере чтения из БД.
+ * Источник вызывается уже при записи тела, в потоке асинхронной обработки запроса,
+ * поэтому он сам открывает свою транзакцию (методы сервисов).
+ */
+@Component
+public class JsonStreamWriter {
+
+    private final ObjectMapper objectMapper;
+    private final ObjectWriter objectWriter;
+    private final Map<PayloadFormat, ObjectWriter> writers = new EnumMap<>(PayloadFormat.class);
+
+    public JsonStreamWriter(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+        // Сброс буфера после каждого объекта превратил бы каждую строку в отдельную запись в сокет
+        this.objectWriter = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        // Копии общего ObjectMapper с бинарной фабрикой сохраняют его модули и настройки
+        writers.put(PayloadFormat.JSON, objectWriter);
+        writers.put(PayloadFormat.CBOR, objectMapper.copyWith(new CBORFactory()).writer()
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE));
+        writers.put(PayloadFormat.SMILE, objectMapper.copyWith(new SmileFactory()).writer()
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE));
+    }
+
+    /**
+     * Создаёт тело ответа в формате NDJSON (один JSON-объект на строку).
+     *
+     * @param source источник данных: вызывает переданный consumer для каждого элемента
+     * @return тело ответа для асинхронной записи
+     */
+    public <T> StreamingResponseBody ndjson(Consumer<Consumer<T>> source) {
+        return outputStream -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+                // Поток ответа закрывает контейнер, а не генератор
+                generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                generator.setRootValueSeparator(null);
+
+                source.accept(item -> {
+                    try {
+                        objectWriter.writeValue(generator, item);
+                        generator.writeRaw('\n');
+                    } catch (IOException ex) {
+                        throw new UncheckedIOException(ex);
+                    }
+                });
+            }
+        };
+    }
+
+    /**
+     * Создаёт тело ответа в виде массива, элементы которого сериализуются по одному.
+     * Для клиента ответ не отличается от List&lt;T&gt;, но ни список сущностей, ни список DTO не строится:
+     * первый элемент уходит в сокет, как только заполнится буфер генератора.
+     *
+     * @param format формат ответа: JSON или бинарный CBOR/Smile
+     * @param source источник данных: вызывает переданный consumer для каждого элемента
+     * @return тело ответа для асинхронной записи
+     */
+    public <T> StreamingResponseBody array(PayloadFormat format, Consumer<Consumer<T>> source) {
+        ObjectWriter writer = writers.get(format);
+        return outputStream -> {
+            try (JsonGenerator generator = writer.createGenerator(outputStream)) {
+                generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+                generator.writeStartArray();
+                source.accept(item -> {
+                    try {
+                        writer.writeValue(generator, item);
+                    } catch (IOException ex) {
+                        throw new UncheckedIOException(ex);
+                    }
+                });
+                generator.writeEndArray();
+            }
+        };
+    }
+}
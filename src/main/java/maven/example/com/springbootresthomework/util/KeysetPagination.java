@@ -0,0 +1,68 @@
+package maven.example.com.springbootresthomework.util;
+
+import maven.example.com.springbootresthomework.constants.MessageConstants;
+import maven.example.com.springbootresthomework.constants.PaginationConstants;
+import maven.example.com.springbootresthomework.dto.PageDTO;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Вспомогательные методы для keyset-пагинации (WHERE id > :after ORDER BY id LIMIT :limit).
+ * Стоимость страницы не зависит от того, насколько далеко клиент пролистал список.
+ */
+public final class KeysetPagination {
+
+    private KeysetPagination() {
+    }
+
+    /**
+     * Возвращает ID, после которого начинается страница (0 — с начала таблицы).
+     *
+     * @param after курсор из предыдущего ответа или null
+     * @return нижняя граница ID (не включительно)
+     */
+    public static long startAfter(Long after) {
+        return after == null ? 0L : after;
+    }
+
+    /**
+     * Проверяет размер страницы и возвращает лимит для запроса к БД.
+     * Запрашивается на одну строку больше, чтобы понять, есть ли следующая страница.
+     * Всегда запрашивается первая страница: смещение задаёт условие id > :after, а не OFFSET.
+     *
+     * @param limit запрошенный размер страницы
+     * @return параметры выборки для репозитория
+     * @throws IllegalArgumentException если размер страницы вне допустимого диапазона
+     */
+    public static Pageable fetchLimit(int limit) {
+        if (limit < 1 || limit > PaginationConstants.MAX_LIMIT) {
+            throw new IllegalArgumentException(MessageConstants.INVALID_PAGE_LIMIT);
+        }
+        return PageRequest.ofSize(limit + 1);
+    }
+
+    /**
+     * Собирает страницу из строк, полученных с лимитом {@link #fetchLimit(int)}.
+     *
+     * @param rows     строки, упорядоченные по ID
+     * @param limit    запрошенный размер страницы
+     * @param idGetter функция получения ID строки (для курсора)
+     * @param mapper   преобразование строки в DTO
+     * @return страница с курсором следующей страницы
+     */
+    public static <E, D> PageDTO<D> toPage(List<E> rows, int limit,
+                                           Function<E, Long> idGetter, Function<E, D> mapper) {
+        boolean hasNext = rows.size() > limit;
+        List<E> pageRows = hasNext ? rows.subList(0, limit) : rows;
+        Long nextCursor = hasNext ? idGetter.apply(pageRows.get(pageRows.size() - 1)) : null;
+
+        List<D> items = pageRows.stream()
+                .map(mapper)
+                .collect(Collectors.toList());
+        return new PageDTO<>(items, nextCursor);
+    }
+}
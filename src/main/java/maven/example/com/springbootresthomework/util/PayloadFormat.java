@@ -0,0 +1,82 @@
+package maven.example.com.springbootresthomework.util;
+
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Форматы тел ответов: JSON и компактные бинарные CBOR и Smile (Jackson dataformats).
+ * Выбор по Accept повторяет порядок конвертеров Spring MVC: при равном качестве и для *&#47;* выигрывает JSON.
+ */
+public enum PayloadFormat {
+
+    JSON(MediaType.APPLICATION_JSON, ""),
+    CBOR(MediaType.APPLICATION_CBOR, "-cbor"),
+    SMILE(new MediaType("application", "x-jackson-smile"), "-smile");
+
+    private final MediaType mediaType;
+    private final String eTagSuffix;
+
+    PayloadFormat(MediaType mediaType, String eTagSuffix) {
+        this.mediaType = mediaType;
+        this.eTagSuffix = eTagSuffix;
+    }
+
+    public MediaType mediaType() {
+        return mediaType;
+    }
+
+    /**
+     * Суффикс версии в ETag: сильный ETag должен различаться у разных представлений одного ресурса.
+     */
+    public String eTagSuffix() {
+        return eTagSuffix;
+    }
+
+    /**
+     * Выбирает формат по заголовку Accept.
+     *
+     * @param accept значение Accept или null
+     * @return наиболее предпочтительный для клиента поддерживаемый формат; JSON, если заголовка нет,
+     * он некорректен или ни один формат не подходит
+     */
+    public static PayloadFormat negotiate(String accept) {
+        if (accept == null || accept.isBlank()) {
+            return JSON;
+        }
+        List<MediaType> accepted;
+        try {
+            accepted = new ArrayList<>(MediaType.parseMediaTypes(accept));
+        } catch (InvalidMediaTypeException ex) {
+            return JSON;
+        }
+        // Сортировка устойчива: при равном q сохраняется порядок клиента
+        accepted.sort(Comparator.comparingDouble(MediaType::getQualityValue).reversed());
+        for (MediaType mediaType : accepted) {
+            if (mediaType.getQualityValue() == 0) {
+                break;
+            }
+            for (PayloadFormat format : values()) {
+                if (mediaType.isCompatibleWith(format.mediaType)) {
+                    return format;
+                }
+            }
+        }
+        return JSON;
+    }
+
+    /**
+     * Отделяет суффикс формата от значения ETag без кавычек ("3-cbor" → "3").
+     */
+    static String stripSuffix(String eTagValue) {
+        for (PayloadFormat format : values()) {
+            if (!format.eTagSuffix.isEmpty() && eTagValue.endsWith(format.eTagSuffix)) {
+                return eTagValue.substring(0, eTagValue.length() - format.eTagSuffix.length());
+            }
+        }
+        return eTagValue;
+    }
+}
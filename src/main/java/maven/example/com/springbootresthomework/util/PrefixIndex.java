@@ -0,0 +1,166 @@
+package maven.example.com.springbootresthomework.util;
+
+import maven.example.com.springbootresthomework.dto.NameSuggestionDTO;
+import maven.example.com.springbootresthomework.repository.projection.NameCount;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Индекс названий для автодополнения: различные названия с числом использований, упорядоченные по ключу
+ * (название в нижнем регистре без крайних пробелов). Названия с общим префиксом лежат подряд, поэтому
+ * подсказки — это обход одного диапазона ключей с отбором K самых частых.
+ * <p>
+ * Чтение не блокируется и может идти параллельно с изменениями (ConcurrentSkipListMap);
+ * счётчик названия меняется атомарно, название с нулевым счётчиком удаляется.
+ * <p>
+ * Перестройка состоит из двух шагов: {@link #beginRebuild()} в момент снимка данных и {@link #replaceAll}
+ * с прочитанными по нему счётчиками. Изменения между шагами применяются к текущему содержимому и запоминаются,
+ * а перед заменой повторяются на новом: их нет в снимке, и без повтора они бы потерялись.
+ */
+public class PrefixIndex {
+
+    // Сначала частые, при равенстве — по алфавиту
+    private static final Comparator<Entry> BY_RANK = Comparator.comparingLong(Entry::count).reversed()
+            .thenComparing(Entry::name);
+
+    private volatile ConcurrentNavigableMap<String, Entry> entries = new ConcurrentSkipListMap<>();
+
+    // Изменения с начала перестройки; null, если перестройка не идёт. Защищено монитором индекса
+    private List<Change> changesSinceSnapshot;
+
+    /**
+     * Начинает перестройку: изменения с этого момента будут повторены на новом содержимом.
+     * Вызывается, когда снимок данных для {@link #replaceAll} уже зафиксирован и в него не попадут
+     * изменения, которые ещё не применены к индексу.
+     */
+    public synchronized void beginRebuild() {
+        changesSinceSnapshot = new ArrayList<>();
+    }
+
+    /**
+     * Заменяет содержимое индекса целиком. Если перестройка начата ({@link #beginRebuild()}),
+     * изменения, пришедшие после начала, повторяются на новом содержимом до замены.
+     *
+     * @param counts различные названия с числом записей
+     */
+    public void replaceAll(List<NameCount> counts) {
+        ConcurrentNavigableMap<String, Entry> rebuilt = new ConcurrentSkipListMap<>();
+        for (NameCount nameCount : counts) {
+            rebuilt.merge(key(nameCount.name()), new Entry(nameCount.name().strip(), nameCount.count()),
+                    (existing, added) -> new Entry(existing.name(), existing.count() + added.count()));
+        }
+        synchronized (this) {
+            if (changesSinceSnapshot != null) {
+                for (Change change : changesSinceSnapshot) {
+                    adjust(rebuilt, change.name(), change.delta());
+                }
+                changesSinceSnapshot = null;
+            }
+            entries = rebuilt;
+        }
+    }
+
+    /**
+     * Учитывает новую запись с названием.
+     */
+    public void add(String name) {
+        adjust(name, 1);
+    }
+
+    /**
+     * Учитывает удаление записи с названием.
+     */
+    public void remove(String name) {
+        adjust(name, -1);
+    }
+
+    /**
+     * Учитывает удаление нескольких записей сразу.
+     *
+     * @param counts различные названия с числом удалённых записей
+     */
+    public void removeAll(List<NameCount> counts) {
+        for (NameCount nameCount : counts) {
+            adjust(nameCount.name(), -nameCount.count());
+        }
+    }
+
+    /**
+     * Учитывает переименование записи.
+     */
+    public void rename(String oldName, String newName) {
+        if (!key(oldName).equals(key(newName))) {
+            remove(oldName);
+            add(newName);
+        }
+    }
+
+    /**
+     * Возвращает самые частые названия, начинающиеся с префикса (без учёта регистра).
+     *
+     * @param prefix начало названия
+     * @param limit  максимальное число подсказок
+     * @return подсказки по убыванию числа использований
+     */
+    public List<NameSuggestionDTO> suggest(String prefix, int limit) {
+        String from = key(prefix);
+        // Куча из K лучших: в голове — худшая из отобранных
+        PriorityQueue<Entry> top = new PriorityQueue<>(limit + 1, BY_RANK.reversed());
+        for (Entry entry : entries.subMap(from, true, from + Character.MAX_VALUE, false).values()) {
+            if (top.size() < limit) {
+                top.add(entry);
+            } else if (BY_RANK.compare(entry, top.peek()) < 0) {
+                top.poll();
+                top.add(entry);
+            }
+        }
+
+        List<Entry> ranked = new ArrayList<>(top);
+        ranked.sort(BY_RANK);
+        List<NameSuggestionDTO> suggestions = new ArrayList<>(ranked.size());
+        for (Entry entry : ranked) {
+            suggestions.add(new NameSuggestionDTO(entry.name(), entry.count()));
+        }
+        return suggestions;
+    }
+
+    /**
+     * Число различных названий в индексе.
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    private synchronized void adjust(String name, long delta) {
+        adjust(entries, name, delta);
+        if (changesSinceSnapshot != null) {
+            changesSinceSnapshot.add(new Change(name, delta));
+        }
+    }
+
+    private static void adjust(ConcurrentNavigableMap<String, Entry> entries, String name, long delta) {
+        entries.compute(key(name), (key, entry) -> {
+            long count = (entry == null ? 0 : entry.count()) + delta;
+            if (count <= 0) {
+                return null;
+            }
+            return new Entry(entry == null ? name.strip() : entry.name(), count);
+        });
+    }
+
+    private static String key(String name) {
+        return name.strip().toLowerCase(Locale.ROOT);
+    }
+
+    private record Entry(String name, long count) {
+    }
+
+    private record Change(String name, long delta) {
+    }
+}
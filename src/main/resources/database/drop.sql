@@ -1,3 +0,0 @@
-DROP TABLE IF EXISTS users;
-DROP TABLE IF EXISTS meals;
-DROP TABLE IF EXISTS workouts;
\ No newline at end of file
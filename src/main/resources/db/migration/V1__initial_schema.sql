@@ -1,5 +1,11 @@
+-- Последовательности с шагом 50 совпадают с allocationSize в сущностях:
+-- Hibernate получает блок из 50 ID за одно обращение и может группировать INSERT'ы в пакеты.
+CREATE SEQUENCE users_id_seq INCREMENT BY 50;
+CREATE SEQUENCE meals_id_seq INCREMENT BY 50;
+CREATE SEQUENCE workouts_id_seq INCREMENT BY 50;
+
 CREATE TABLE users (
-                       id SERIAL PRIMARY KEY,
+                       id BIGINT PRIMARY KEY DEFAULT nextval('users_id_seq'),
                        name VARCHAR(50) NOT NULL,
                        age INT NOT NULL CHECK (age >= 14),
                        weight DOUBLE PRECISION NOT NULL CHECK (weight >= 40),
@@ -7,18 +13,22 @@ CREATE TABLE users (
                    );
 
 CREATE TABLE meals (
-                       id SERIAL PRIMARY KEY,
+                       id BIGINT PRIMARY KEY DEFAULT nextval('meals_id_seq'),
                        name VARCHAR(255) NOT NULL,
                        calories INT NOT NULL CHECK (calories >= 10),
-                       user_id INT NOT NULL,
+                       user_id BIGINT NOT NULL,
                        CONSTRAINT fk_meal_user FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
                    );
 
 CREATE TABLE workouts (
-                          id SERIAL PRIMARY KEY,
+                          id BIGINT PRIMARY KEY DEFAULT nextval('workouts_id_seq'),
                           name VARCHAR(255) NOT NULL,
                           duration INT NOT NULL CHECK (duration >= 1),
                           calories_burned INT NOT NULL,
-                          user_id INT NOT NULL,
+                          user_id BIGINT NOT NULL,
                           CONSTRAINT fk_workout_user FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
                       );
+
+ALTER SEQUENCE users_id_seq OWNED BY users.id;
+ALTER SEQUENCE meals_id_seq OWNED BY meals.id;
+ALTER SEQUENCE workouts_id_seq OWNED BY workouts.id;
@@ -0,0 +1,14 @@
+-- Агрегированный баланс: поддерживается сервисами в транзакции изменения meals/workouts
+CREATE TABLE user_balances (
+                               user_id BIGINT PRIMARY KEY,
+                               calories_consumed BIGINT NOT NULL DEFAULT 0,
+                               calories_burned BIGINT NOT NULL DEFAULT 0,
+                               CONSTRAINT fk_balance_user FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
+                           );
+
+-- Балансы для уже существующих пользователей
+INSERT INTO user_balances (user_id, calories_consumed, calories_burned)
+SELECT u.id,
+       COALESCE((SELECT SUM(m.calories) FROM meals m WHERE m.user_id = u.id), 0),
+       COALESCE((SELECT SUM(w.calories_burned) FROM workouts w WHERE w.user_id = u.id), 0)
+FROM users u;
@@ -0,0 +1,6 @@
+-- Индексы по внешним ключам user_id в форме запросов MealRepository/WorkoutRepository:
+-- WHERE user_id = ? ORDER BY id читается по индексу без сортировки, а INCLUDE-колонки
+-- позволяют отдать проекцию и SUM() для сверки балансов index-only scan'ом.
+-- Этот же индекс используется при ON DELETE CASCADE из users вместо полного сканирования таблицы.
+CREATE INDEX idx_meals_user_id_id ON meals (user_id, id) INCLUDE (name, calories);
+CREATE INDEX idx_workouts_user_id_id ON workouts (user_id, id) INCLUDE (name, duration, calories_burned);
@@ -0,0 +1,55 @@
+-- Версии для ETag (условный GET).
+-- version — версия строки, растёт при каждом изменении строки;
+-- meals_version / workouts_version — счётчики изменений коллекций пользователя, растут при любом
+-- INSERT/UPDATE/DELETE его приёмов пищи / тренировок.
+-- Версии ведутся триггерами: так их меняют все пути записи — Hibernate, нативные UPDATE/DELETE
+-- репозиториев и каскадное удаление.
+ALTER TABLE users ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE users ADD COLUMN meals_version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE users ADD COLUMN workouts_version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE meals ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE workouts ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+
+CREATE FUNCTION bump_row_version() RETURNS trigger AS $$
+BEGIN
+    NEW.version := OLD.version + 1;
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Для users только по столбцам данных: обновление счётчиков коллекций не меняет версию пользователя
+CREATE TRIGGER users_row_version BEFORE UPDATE OF name, age, weight, height ON users
+    FOR EACH ROW EXECUTE FUNCTION bump_row_version();
+CREATE TRIGGER meals_row_version BEFORE UPDATE ON meals
+    FOR EACH ROW EXECUTE FUNCTION bump_row_version();
+CREATE TRIGGER workouts_row_version BEFORE UPDATE ON workouts
+    FOR EACH ROW EXECUTE FUNCTION bump_row_version();
+
+CREATE FUNCTION bump_user_meals_version() RETURNS trigger AS $$
+BEGIN
+    IF TG_OP <> 'INSERT' THEN
+        UPDATE users SET meals_version = meals_version + 1 WHERE id = OLD.user_id;
+    END IF;
+    IF TG_OP = 'INSERT' OR (TG_OP = 'UPDATE' AND NEW.user_id <> OLD.user_id) THEN
+        UPDATE users SET meals_version = meals_version + 1 WHERE id = NEW.user_id;
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE FUNCTION bump_user_workouts_version() RETURNS trigger AS $$
+BEGIN
+    IF TG_OP <> 'INSERT' THEN
+        UPDATE users SET workouts_version = workouts_version + 1 WHERE id = OLD.user_id;
+    END IF;
+    IF TG_OP = 'INSERT' OR (TG_OP = 'UPDATE' AND NEW.user_id <> OLD.user_id) THEN
+        UPDATE users SET workouts_version = workouts_version + 1 WHERE id = NEW.user_id;
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER meals_user_version AFTER INSERT OR UPDATE OR DELETE ON meals
+    FOR EACH ROW EXECUTE FUNCTION bump_user_meals_version();
+CREATE TRIGGER workouts_user_version AFTER INSERT OR UPDATE OR DELETE ON workouts
+    FOR EACH ROW EXECUTE FUNCTION bump_user_workouts_version();
@@ -0,0 +1,3 @@
+-- users.version теперь ведёт Hibernate (@Version в User): он сам увеличивает версию в UPDATE
+-- и проверяет её в WHERE. Триггер увеличивал бы версию второй раз.
+DROP TRIGGER users_row_version ON users;
@@ -0,0 +1,54 @@
+-- Счётчики коллекций (V4) увеличиваются один раз на оператор и пользователя, а не на каждую строку:
+-- пакетная вставка 1000 приёмов пищи обновляла строку пользователя 1000 раз (1000 мёртвых версий строки).
+-- Затронутые пользователи берутся из таблиц переходов; PostgreSQL разрешает их только у триггера
+-- на одно событие, поэтому триггеров по три на таблицу.
+DROP TRIGGER meals_user_version ON meals;
+DROP TRIGGER workouts_user_version ON workouts;
+
+CREATE OR REPLACE FUNCTION bump_user_meals_version() RETURNS trigger AS $$
+BEGIN
+    IF TG_OP = 'INSERT' THEN
+        UPDATE users SET meals_version = meals_version + 1 WHERE id IN (SELECT user_id FROM new_rows);
+    ELSIF TG_OP = 'DELETE' THEN
+        UPDATE users SET meals_version = meals_version + 1 WHERE id IN (SELECT user_id FROM old_rows);
+    ELSE
+        UPDATE users SET meals_version = meals_version + 1
+        WHERE id IN (SELECT user_id FROM old_rows UNION SELECT user_id FROM new_rows);
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION bump_user_workouts_version() RETURNS trigger AS $$
+BEGIN
+    IF TG_OP = 'INSERT' THEN
+        UPDATE users SET workouts_version = workouts_version + 1 WHERE id IN (SELECT user_id FROM new_rows);
+    ELSIF TG_OP = 'DELETE' THEN
+        UPDATE users SET workouts_version = workouts_version + 1 WHERE id IN (SELECT user_id FROM old_rows);
+    ELSE
+        UPDATE users SET workouts_version = workouts_version + 1
+        WHERE id IN (SELECT user_id FROM old_rows UNION SELECT user_id FROM new_rows);
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER meals_user_version_insert AFTER INSERT ON meals
+    REFERENCING NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION bump_user_meals_version();
+CREATE TRIGGER meals_user_version_update AFTER UPDATE ON meals
+    REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION bump_user_meals_version();
+CREATE TRIGGER meals_user_version_delete AFTER DELETE ON meals
+    REFERENCING OLD TABLE AS old_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION bump_user_meals_version();
+
+CREATE TRIGGER workouts_user_version_insert AFTER INSERT ON workouts
+    REFERENCING NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION bump_user_workouts_version();
+CREATE TRIGGER workouts_user_version_update AFTER UPDATE ON workouts
+    REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION bump_user_workouts_version();
+CREATE TRIGGER workouts_user_version_delete AFTER DELETE ON workouts
+    REFERENCING OLD TABLE AS old_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION bump_user_workouts_version();
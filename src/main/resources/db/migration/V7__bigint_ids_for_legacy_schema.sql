@@ -0,0 +1,20 @@
+-- Приведение схемы, созданной до Flyway (database/schema.sql: SERIAL/INT), к V1: BIGINT-ключи и последовательности
+-- с шагом 50 под allocationSize сущностей. Такая база принимается за версию 1 (spring.flyway.baseline-version),
+-- V2–V6 применяются к ней как обычно, а эта миграция догоняет отличия от V1. В базе, созданной V1,
+-- типы уже BIGINT и операторы ничего не меняют.
+ALTER TABLE users ALTER COLUMN id TYPE BIGINT;
+ALTER TABLE meals ALTER COLUMN id TYPE BIGINT, ALTER COLUMN user_id TYPE BIGINT;
+ALTER TABLE workouts ALTER COLUMN id TYPE BIGINT, ALTER COLUMN user_id TYPE BIGINT;
+
+-- Последовательности SERIAL называются так же, как в V1, но имеют тип INT и шаг 1
+ALTER SEQUENCE users_id_seq AS BIGINT INCREMENT BY 50;
+ALTER SEQUENCE meals_id_seq AS BIGINT INCREMENT BY 50;
+ALTER SEQUENCE workouts_id_seq AS BIGINT INCREMENT BY 50;
+
+-- Оптимизатор pooled Hibernate выдаёт ID из блока (значение - 49 .. значение], поэтому последовательность
+-- должна стоять не ниже max(id): тогда следующий блок начинается после существующих строк.
+-- Последовательность только догоняет max(id) и никогда не сдвигается назад: блоки, уже выданные работающим
+-- экземплярам, остаются уникальными.
+SELECT setval('users_id_seq', GREATEST(MAX(id), (SELECT last_value FROM users_id_seq))) FROM users HAVING MAX(id) IS NOT NULL;
+SELECT setval('meals_id_seq', GREATEST(MAX(id), (SELECT last_value FROM meals_id_seq))) FROM meals HAVING MAX(id) IS NOT NULL;
+SELECT setval('workouts_id_seq', GREATEST(MAX(id), (SELECT last_value FROM workouts_id_seq))) FROM workouts HAVING MAX(id) IS NOT NULL;
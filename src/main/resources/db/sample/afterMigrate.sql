@@ -0,0 +1,43 @@
+-- Демонстрационные данные (профиль dev). Flyway выполняет этот callback после каждой миграции,
+-- поэтому данные вставляются только в пустую базу.
+-- ID выдаются последовательностями с шагом 50, поэтому пользователи ищутся по имени, а не по номеру
+DO $$
+BEGIN
+IF NOT EXISTS (SELECT 1 FROM users) THEN
+
+INSERT INTO users (name, age, weight, height) VALUES
+('Stanislav', 29, 70, 180),
+('Denis', 24, 78, 175),
+('Artem', 19, 65, 180),
+('Karina', 18, 49, 163),
+('Tatyana', 23, 51, 168);
+
+INSERT INTO meals (name, calories, user_id) VALUES
+('Pasta', 500, (SELECT id FROM users WHERE name = 'Stanislav')),
+('Salad', 200, (SELECT id FROM users WHERE name = 'Stanislav')),
+('Burger', 700, (SELECT id FROM users WHERE name = 'Denis')),
+('Steak', 600, (SELECT id FROM users WHERE name = 'Artem')),
+('Oatmeal', 300, (SELECT id FROM users WHERE name = 'Artem')),
+('French Fries', 430, (SELECT id FROM users WHERE name = 'Karina')),
+('Boiled Chicken', 200, (SELECT id FROM users WHERE name = 'Karina')),
+('Walnut', 340, (SELECT id FROM users WHERE name = 'Tatyana')),
+('Banana', 250, (SELECT id FROM users WHERE name = 'Tatyana'));
+
+INSERT INTO workouts (name, duration, calories_burned, user_id) VALUES
+('Running', 30, 300, (SELECT id FROM users WHERE name = 'Stanislav')),
+('Swimming', 45, 400, (SELECT id FROM users WHERE name = 'Stanislav')),
+('Cycling', 60, 500, (SELECT id FROM users WHERE name = 'Denis')),
+('Yoga', 30, 120, (SELECT id FROM users WHERE name = 'Artem')),
+('Jump Rope', 15, 180, (SELECT id FROM users WHERE name = 'Artem')),
+('Running', 60, 600, (SELECT id FROM users WHERE name = 'Karina')),
+('Shuttle running', 30, 150, (SELECT id FROM users WHERE name = 'Tatyana'));
+
+INSERT INTO user_balances (user_id, calories_consumed, calories_burned)
+SELECT u.id,
+       COALESCE((SELECT SUM(m.calories) FROM meals m WHERE m.user_id = u.id), 0),
+       COALESCE((SELECT SUM(w.calories_burned) FROM workouts w WHERE w.user_id = u.id), 0)
+FROM users u;
+
+END IF;
+END
+$$;
@@ -0,0 +1,67 @@
+package maven.example.com.springbootresthomework.config;
+
+import jakarta.servlet.FilterChain;
+import maven.example.com.springbootresthomework.constants.MessageConstants;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrencyLimitFilterTest {
+
+    @Test
+    void doFilter_WhenPermitAvailable_ShouldPassAndReleasePermit() throws Exception {
+        ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(1, Duration.ofMillis(10));
+
+        // Два последовательных запроса: разрешение возвращается после первого
+        for (int i = 0; i < 2; i++) {
+            MockHttpServletResponse response = new MockHttpServletResponse();
+            MockFilterChain chain = new MockFilterChain();
+
+            filter.doFilter(new MockHttpServletRequest(), response, chain);
+
+            assertEquals(HttpStatus.OK.value(), response.getStatus());
+            assertNotNull(chain.getRequest());
+        }
+    }
+
+    @Test
+    void doFilter_WhenLimitReached_ShouldReturnServiceUnavailable() throws Exception {
+        ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(1, Duration.ofMillis(10));
+        MockHttpServletResponse rejected = new MockHttpServletResponse();
+
+        // Пока первый запрос в обработке, второй не получает разрешения
+        FilterChain holdingChain = (request, response) ->
+                filter.doFilter(new MockHttpServletRequest(), rejected, new MockFilterChain());
+        filter.doFilter(new MockHttpServletRequest(), new MockHttpServletResponse(), holdingChain);
+
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE.value(), rejected.getStatus());
+        assertEquals("1", rejected.getHeader("Retry-After"));
+        assertEquals(MessageConstants.SERVER_BUSY, rejected.getContentAsString());
+    }
+
+    @Test
+    void doFilter_WhenAsyncStarted_ShouldHoldPermitUntilAsyncCompletes() throws Exception {
+        ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(1, Duration.ofMillis(10));
+        MockHttpServletRequest streaming = new MockHttpServletRequest();
+        streaming.setAsyncSupported(true);
+
+        // Тело потокового ответа пишется после выхода из цепочки фильтров
+        filter.doFilter(streaming, new MockHttpServletResponse(), (request, response) -> request.startAsync());
+
+        MockHttpServletResponse whileStreaming = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest(), whileStreaming, new MockFilterChain());
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE.value(), whileStreaming.getStatus());
+
+        streaming.getAsyncContext().complete();
+
+        MockHttpServletResponse afterStreaming = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest(), afterStreaming, new MockFilterChain());
+        assertEquals(HttpStatus.OK.value(), afterStreaming.getStatus());
+    }
+}
@@ -0,0 +1,49 @@
+package maven.example.com.springbootresthomework.config;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SchemaVerifierTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private ObjectProvider<Flyway> flyway;
+
+    @InjectMocks
+    private SchemaVerifier schemaVerifier;
+
+    @Test
+    void verifyRequiredIndexes_WhenAllIndexesExist_ShouldPass() {
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class)))
+                .thenReturn(List.of("meals_pkey", "idx_meals_user_id_id", "workouts_pkey", "idx_workouts_user_id_id"));
+
+        assertDoesNotThrow(() -> schemaVerifier.verifyRequiredIndexes());
+    }
+
+    @Test
+    void verifyRequiredIndexes_WhenIndexIsMissing_ShouldThrowException() {
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class)))
+                .thenReturn(List.of("meals_pkey", "idx_meals_user_id_id", "workouts_pkey"));
+
+        IllegalStateException exception = assertThrows(IllegalStateException.class, () ->
+                schemaVerifier.verifyRequiredIndexes());
+
+        assertTrue(exception.getMessage().contains("idx_workouts_user_id_id"));
+    }
+}
@@ -1,24 +1,38 @@
 package maven.example.com.springbootresthomework.controller;
 
+import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
 import jakarta.persistence.EntityNotFoundException;
 import maven.example.com.springbootresthomework.constants.MessageConstants;
 import maven.example.com.springbootresthomework.dto.MealDTO;
+import maven.example.com.springbootresthomework.dto.NameSuggestionDTO;
+import maven.example.com.springbootresthomework.dto.PageDTO;
+import maven.example.com.springbootresthomework.entity.Meal;
 import maven.example.com.springbootresthomework.exception.GlobalExceptionHandler;
 import maven.example.com.springbootresthomework.service.MealService;
+import maven.example.com.springbootresthomework.service.NameSuggestionService;
+import maven.example.com.springbootresthomework.util.JsonStreamWriter;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.json.JsonCompareMode;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -29,6 +43,12 @@ class MealControllerTest {
     @Mock
     private MealService mealService;
 
+    @Mock
+    private NameSuggestionService nameSuggestionService;
+
+    @Spy
+    private JsonStreamWriter jsonStreamWriter = new JsonStreamWriter(new ObjectMapper());
+
     @InjectMocks
     private MealController mealController;
 
@@ -36,16 +56,29 @@ class MealControllerTest {
 
     private final ObjectMapper objectMapper = new ObjectMapper();
 
+    private final ObjectMapper cborMapper = new ObjectMapper(new CBORFactory());
+
     //Тестовые данные
     private static final String URI_TEMPLATE_MEALS = "/meals";
+    private static final String URI_TEMPLATE_MEALS_EXPORT = "/meals/export";
+    private static final String URI_TEMPLATE_MEALS_SEARCH = "/meals/search";
     private static final String URI_TEMPLATE_MEALS_ID = "/meals/{id}";
     private static final String URI_TEMPLATE_MEALS_USER_USER_ID = "/meals/user/{userId}";
+    private static final String URI_TEMPLATE_MEALS_USER_USER_ID_BATCH = "/meals/user/{userId}/batch";
 
     private static final Long VALID_USER_ID = 1L;
     private static final Long VALID_MEAL_ID = 10L;
     private static final Long INVALID_ID = 999L;
     private static final MealDTO TEST_MEAL_DTO = new MealDTO("Pasta", 500, VALID_USER_ID);
     private static final List<MealDTO> TEST_MEAL_LIST = List.of(TEST_MEAL_DTO);
+    private static final int DEFAULT_LIMIT = 20;
+    private static final Long NEXT_CURSOR = 42L;
+
+    private static final long ETAG_VERSION = 3L;
+    private static final String ETAG = "\"3\"";
+    private static final String CBOR_ETAG = "\"3-cbor\"";
+    private static final String LIST_ETAG = "W/\"3\"";
+    private static final String CBOR_LIST_ETAG = "W/\"3-cbor\"";
 
     @BeforeEach
     void setUp() {
@@ -55,62 +88,225 @@ class MealControllerTest {
     }
 
     @Test
-    void getAllMeals_ShouldReturnAllMeals() throws Exception {
-        when(mealService.getAllMeals()).thenReturn(TEST_MEAL_LIST);
+    void getAllMeals_ShouldReturnFirstPage() throws Exception {
+        when(mealService.getAllMeals(null, DEFAULT_LIMIT)).thenReturn(new PageDTO<>(TEST_MEAL_LIST, NEXT_CURSOR));
 
         mockMvc.perform(get(URI_TEMPLATE_MEALS))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$.size()", is(1)))
-                .andExpect(jsonPath("$[0].name", is(TEST_MEAL_DTO.getName())));
+                .andExpect(jsonPath("$.items.size()", is(1)))
+                .andExpect(jsonPath("$.items[0].name", is(TEST_MEAL_DTO.getName())))
+                .andExpect(jsonPath("$.nextCursor", is(NEXT_CURSOR.intValue())));
 
-        verify(mealService, times(1)).getAllMeals();
+        verify(mealService, times(1)).getAllMeals(null, DEFAULT_LIMIT);
+    }
+
+    @Test
+    void getAllMeals_WithCursor_ShouldPassCursorAndLimit() throws Exception {
+        when(mealService.getAllMeals(NEXT_CURSOR, 5)).thenReturn(new PageDTO<>(TEST_MEAL_LIST, null));
+
+        mockMvc.perform(get(URI_TEMPLATE_MEALS)
+                        .param("after", NEXT_CURSOR.toString())
+                        .param("limit", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.size()", is(1)))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+
+        verify(mealService, times(1)).getAllMeals(NEXT_CURSOR, 5);
+    }
+
+    @Test
+    void exportMeals_ShouldStreamNdjson() throws Exception {
+        doAnswer(invocation -> {
+            Consumer<MealDTO> action = invocation.getArgument(0);
+            action.accept(TEST_MEAL_DTO);
+            action.accept(TEST_MEAL_DTO);
+            return null;
+        }).when(mealService).exportMeals(any());
+
+        MvcResult result = mockMvc.perform(get(URI_TEMPLATE_MEALS_EXPORT))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String line = objectMapper.writeValueAsString(TEST_MEAL_DTO) + "\n";
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string(line + line));
+
+        verify(mealService, times(1)).exportMeals(any());
+    }
+
+    @Test
+    void searchMealNames_ShouldReturnSuggestionsWithDefaultLimit() throws Exception {
+        when(nameSuggestionService.suggestMealNames("Pas", 10))
+                .thenReturn(List.of(new NameSuggestionDTO("Pasta", 12), new NameSuggestionDTO("Pastry", 3)));
+
+        mockMvc.perform(get(URI_TEMPLATE_MEALS_SEARCH).param("prefix", "Pas"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.size()", is(2)))
+                .andExpect(jsonPath("$[0].name", is("Pasta")))
+                .andExpect(jsonPath("$[0].count", is(12)));
+
+        verifyNoInteractions(mealService);
+    }
+
+    @Test
+    void searchMealNames_WhenLimitIsOutOfRange_ShouldReturnBadRequest() throws Exception {
+        when(nameSuggestionService.suggestMealNames("Pas", 500))
+                .thenThrow(new IllegalArgumentException(MessageConstants.INVALID_SUGGESTION_LIMIT));
+
+        mockMvc.perform(get(URI_TEMPLATE_MEALS_SEARCH).param("prefix", "Pas").param("limit", "500"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string(MessageConstants.INVALID_SUGGESTION_LIMIT));
     }
 
     @Test
     void getMealById_WhenMealExists_ShouldReturnMeal() throws Exception {
+        when(mealService.getMealVersion(VALID_MEAL_ID)).thenReturn(ETAG_VERSION);
         when(mealService.getMealById(VALID_MEAL_ID)).thenReturn(TEST_MEAL_DTO);
 
         mockMvc.perform(get(URI_TEMPLATE_MEALS_ID, VALID_MEAL_ID))
                 .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, ETAG))
                 .andExpect(jsonPath("$.name", is(TEST_MEAL_DTO.getName())))
                 .andExpect(jsonPath("$.calories", is(TEST_MEAL_DTO.getCalories())));
 
         verify(mealService, times(1)).getMealById(VALID_MEAL_ID);
     }
 
+    @Test
+    void getMealById_WhenCborAccepted_ShouldReturnCborWithFormatSpecificETag() throws Exception {
+        when(mealService.getMealVersion(VALID_MEAL_ID)).thenReturn(ETAG_VERSION);
+        when(mealService.getMealById(VALID_MEAL_ID)).thenReturn(TEST_MEAL_DTO);
+
+        byte[] body = mockMvc.perform(get(URI_TEMPLATE_MEALS_ID, VALID_MEAL_ID)
+                        .accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, CBOR_ETAG))
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        assertEquals(TEST_MEAL_DTO, cborMapper.readValue(body, MealDTO.class));
+    }
+
+    @Test
+    void getMealById_WhenJsonETagSentForCbor_ShouldReturnFullResponse() throws Exception {
+        when(mealService.getMealVersion(VALID_MEAL_ID)).thenReturn(ETAG_VERSION);
+        when(mealService.getMealById(VALID_MEAL_ID)).thenReturn(TEST_MEAL_DTO);
+
+        // Версия та же, но у клиента закэширован JSON, а не CBOR
+        mockMvc.perform(get(URI_TEMPLATE_MEALS_ID, VALID_MEAL_ID)
+                        .accept(MediaType.APPLICATION_CBOR)
+                        .header(HttpHeaders.IF_NONE_MATCH, ETAG))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, CBOR_ETAG));
+    }
+
     @Test
     void getMealById_WhenMealDoesNotExist_ShouldReturnNotFound() throws Exception {
-        when(mealService.getMealById(INVALID_ID)).thenThrow(new EntityNotFoundException(MessageConstants.MEAL_NOT_FOUND));
+        when(mealService.getMealVersion(INVALID_ID)).thenThrow(new EntityNotFoundException(MessageConstants.MEAL_NOT_FOUND));
 
         mockMvc.perform(get(URI_TEMPLATE_MEALS_ID, INVALID_ID))
                 .andExpect(status().isNotFound())
                 .andExpect(content().string(MessageConstants.MEAL_NOT_FOUND));
 
-        verify(mealService, times(1)).getMealById(INVALID_ID);
+        verify(mealService, never()).getMealById(INVALID_ID);
+    }
+
+    @Test
+    void getMealById_WhenMealDoesNotExistAndCborAccepted_ShouldReturnPlainTextMessage() throws Exception {
+        when(mealService.getMealVersion(INVALID_ID)).thenThrow(new EntityNotFoundException(MessageConstants.MEAL_NOT_FOUND));
+
+        mockMvc.perform(get(URI_TEMPLATE_MEALS_ID, INVALID_ID)
+                        .accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isNotFound())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.TEXT_PLAIN))
+                .andExpect(content().string(MessageConstants.MEAL_NOT_FOUND));
     }
 
     @Test
-    void getMealsByUserId_WhenUserExists_ShouldReturnMeals() throws Exception {
-        when(mealService.getMealsByUserId(VALID_USER_ID)).thenReturn(TEST_MEAL_LIST);
+    void getMealsByUserId_WhenUserExists_ShouldStreamJsonArray() throws Exception {
+        when(mealService.getMealsVersionByUserId(VALID_USER_ID)).thenReturn(ETAG_VERSION);
+        doAnswer(invocation -> {
+            Consumer<MealDTO> action = invocation.getArgument(1);
+            TEST_MEAL_LIST.forEach(action);
+            return null;
+        }).when(mealService).streamMealsByUserId(eq(VALID_USER_ID), any());
+
+        MvcResult result = mockMvc.perform(get(URI_TEMPLATE_MEALS_USER_USER_ID, VALID_USER_ID))
+                .andExpect(request().asyncStarted())
+                .andExpect(header().string(HttpHeaders.ETAG, LIST_ETAG))
+                .andReturn();
+
+        // Тело совпадает с сериализованным List<MealDTO>
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(content().json(objectMapper.writeValueAsString(TEST_MEAL_LIST), JsonCompareMode.STRICT));
 
-        mockMvc.perform(get(URI_TEMPLATE_MEALS_USER_USER_ID, VALID_USER_ID))
+        verify(mealService, times(1)).streamMealsByUserId(eq(VALID_USER_ID), any());
+    }
+
+    @Test
+    void getMealsByUserId_WhenCborAccepted_ShouldStreamCborArray() throws Exception {
+        when(mealService.getMealsVersionByUserId(VALID_USER_ID)).thenReturn(ETAG_VERSION);
+        doAnswer(invocation -> {
+            Consumer<MealDTO> action = invocation.getArgument(1);
+            TEST_MEAL_LIST.forEach(action);
+            return null;
+        }).when(mealService).streamMealsByUserId(eq(VALID_USER_ID), any());
+
+        MvcResult result = mockMvc.perform(get(URI_TEMPLATE_MEALS_USER_USER_ID, VALID_USER_ID)
+                        .accept(MediaType.APPLICATION_CBOR))
+                .andExpect(request().asyncStarted())
+                .andExpect(header().string(HttpHeaders.ETAG, CBOR_LIST_ETAG))
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT))
+                .andReturn();
+
+        byte[] body = mockMvc.perform(asyncDispatch(result))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$.size()", is(1)))
-                .andExpect(jsonPath("$[0].name", is(TEST_MEAL_DTO.getName())))
-                .andExpect(jsonPath("$[0].calories", is(TEST_MEAL_DTO.getCalories())));
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn().getResponse().getContentAsByteArray();
 
-        verify(mealService, times(1)).getMealsByUserId(VALID_USER_ID);
+        assertEquals(TEST_MEAL_LIST, cborMapper.readValue(body, new TypeReference<List<MealDTO>>() {
+        }));
+    }
+
+    @Test
+    void getMealsByUserId_WhenUserHasNoMeals_ShouldStreamEmptyArray() throws Exception {
+        when(mealService.getMealsVersionByUserId(VALID_USER_ID)).thenReturn(ETAG_VERSION);
+
+        MvcResult result = mockMvc.perform(get(URI_TEMPLATE_MEALS_USER_USER_ID, VALID_USER_ID))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().string("[]"));
+    }
+
+    @Test
+    void getMealsByUserId_WhenETagMatches_ShouldReturnNotModifiedWithoutLoading() throws Exception {
+        when(mealService.getMealsVersionByUserId(VALID_USER_ID)).thenReturn(ETAG_VERSION);
+
+        mockMvc.perform(get(URI_TEMPLATE_MEALS_USER_USER_ID, VALID_USER_ID)
+                        .header(HttpHeaders.IF_NONE_MATCH, LIST_ETAG))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, LIST_ETAG))
+                .andExpect(content().string(""));
+
+        verify(mealService, never()).streamMealsByUserId(any(), any());
     }
 
     @Test
     void getMealsByUserId_WhenUserDoesNotExist_ShouldReturnNotFound() throws Exception {
-        when(mealService.getMealsByUserId(INVALID_ID)).thenThrow(new EntityNotFoundException(MessageConstants.USER_NOT_FOUND));
+        when(mealService.getMealsVersionByUserId(INVALID_ID)).thenThrow(new EntityNotFoundException(MessageConstants.USER_NOT_FOUND));
 
         mockMvc.perform(get(URI_TEMPLATE_MEALS_USER_USER_ID, INVALID_ID))
                 .andExpect(status().isNotFound())
                 .andExpect(content().string(MessageConstants.USER_NOT_FOUND));
 
-        verify(mealService, times(1)).getMealsByUserId(INVALID_ID);
+        verify(mealService, never()).streamMealsByUserId(any(), any());
     }
 
     @Test
@@ -126,6 +322,18 @@ class MealControllerTest {
         verify(mealService, times(1)).createMeal(VALID_USER_ID, TEST_MEAL_DTO);
     }
 
+    @Test
+    void createMeal_WhenOnlyCborAccepted_ShouldReturnNotAcceptable() throws Exception {
+        // Сообщение о создании — текст: под application/cbor клиент получил бы нечитаемое тело
+        mockMvc.perform(post(URI_TEMPLATE_MEALS_USER_USER_ID, VALID_USER_ID)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_CBOR)
+                        .content(objectMapper.writeValueAsString(TEST_MEAL_DTO)))
+                .andExpect(status().isNotAcceptable());
+
+        verify(mealService, never()).createMeal(VALID_USER_ID, TEST_MEAL_DTO);
+    }
+
     @Test
     void createMeal_WhenUserDoesNotExist_ShouldReturnNotFound() throws Exception {
         doThrow(new EntityNotFoundException(MessageConstants.USER_NOT_FOUND))
@@ -140,9 +348,34 @@ class MealControllerTest {
         verify(mealService, times(1)).createMeal(eq(INVALID_ID), any(MealDTO.class));
     }
 
+    @Test
+    void createMeals_ShouldReturnCreated() throws Exception {
+        doNothing().when(mealService).createMeals(VALID_USER_ID, TEST_MEAL_LIST);
+
+        mockMvc.perform(post(URI_TEMPLATE_MEALS_USER_USER_ID_BATCH, VALID_USER_ID)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(TEST_MEAL_LIST)))
+                .andExpect(status().isCreated())
+                .andExpect(content().string(MessageConstants.MEALS_CREATED));
+
+        verify(mealService, times(1)).createMeals(VALID_USER_ID, TEST_MEAL_LIST);
+    }
+
+    @Test
+    void createMeals_WhenUserDoesNotExist_ShouldReturnNotFound() throws Exception {
+        doThrow(new EntityNotFoundException(MessageConstants.USER_NOT_FOUND))
+                .when(mealService).createMeals(eq(INVALID_ID), anyList());
+
+        mockMvc.perform(post(URI_TEMPLATE_MEALS_USER_USER_ID_BATCH, INVALID_ID)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(TEST_MEAL_LIST)))
+                .andExpect(status().isNotFound())
+                .andExpect(content().string(MessageConstants.USER_NOT_FOUND));
+    }
+
     @Test
     void updateMeal_ShouldReturnOk() throws Exception {
-        doNothing().when(mealService).updateMeal(VALID_MEAL_ID, TEST_MEAL_DTO);
+        doNothing().when(mealService).updateMeal(VALID_MEAL_ID, TEST_MEAL_DTO, null);
 
         mockMvc.perform(put(URI_TEMPLATE_MEALS_ID, VALID_MEAL_ID)
                         .contentType(MediaType.APPLICATION_JSON)
@@ -150,13 +383,13 @@ class MealControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(content().string(MessageConstants.MEAL_UPDATED));
 
-        verify(mealService, times(1)).updateMeal(VALID_MEAL_ID, TEST_MEAL_DTO);
+        verify(mealService, times(1)).updateMeal(VALID_MEAL_ID, TEST_MEAL_DTO, null);
     }
 
     @Test
     void updateMeal_WhenUserDoesNotExist_ShouldReturnNotFound() throws Exception {
         doThrow(new EntityNotFoundException(MessageConstants.MEAL_NOT_FOUND))
-                .when(mealService).updateMeal(INVALID_ID, TEST_MEAL_DTO);
+                .when(mealService).updateMeal(INVALID_ID, TEST_MEAL_DTO, null);
 
         mockMvc.perform(put(URI_TEMPLATE_MEALS_ID, INVALID_ID)
                         .contentType(MediaType.APPLICATION_JSON)
@@ -164,7 +397,33 @@ class MealControllerTest {
                 .andExpect(status().isNotFound())
                 .andExpect(content().string(MessageConstants.MEAL_NOT_FOUND));
 
-        verify(mealService, times(1)).updateMeal(INVALID_ID, TEST_MEAL_DTO);
+        verify(mealService, times(1)).updateMeal(INVALID_ID, TEST_MEAL_DTO, null);
+    }
+
+    @Test
+    void updateMeal_WithCborETag_ShouldPassExpectedVersion() throws Exception {
+        doNothing().when(mealService).updateMeal(VALID_MEAL_ID, TEST_MEAL_DTO, ETAG_VERSION);
+
+        mockMvc.perform(put(URI_TEMPLATE_MEALS_ID, VALID_MEAL_ID)
+                        .header(HttpHeaders.IF_MATCH, CBOR_ETAG)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(TEST_MEAL_DTO)))
+                .andExpect(status().isOk());
+
+        verify(mealService, times(1)).updateMeal(VALID_MEAL_ID, TEST_MEAL_DTO, ETAG_VERSION);
+    }
+
+    @Test
+    void updateMeal_WhenRetriesAreExhausted_ShouldReturnConflict() throws Exception {
+        doThrow(new ObjectOptimisticLockingFailureException(Meal.class, VALID_MEAL_ID))
+                .when(mealService).updateMeal(VALID_MEAL_ID, TEST_MEAL_DTO, ETAG_VERSION);
+
+        mockMvc.perform(put(URI_TEMPLATE_MEALS_ID, VALID_MEAL_ID)
+                        .header(HttpHeaders.IF_MATCH, ETAG)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(TEST_MEAL_DTO)))
+                .andExpect(status().isConflict())
+                .andExpect(content().string(MessageConstants.CONCURRENT_UPDATE));
     }
 
     @Test
@@ -3,8 +3,17 @@ package maven.example.com.springbootresthomework.controller;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.persistence.EntityNotFoundException;
 import maven.example.com.springbootresthomework.constants.MessageConstants;
+import maven.example.com.springbootresthomework.dto.BalanceDTO;
+import maven.example.com.springbootresthomework.dto.MealDTO;
+import maven.example.com.springbootresthomework.dto.PageDTO;
+import maven.example.com.springbootresthomework.dto.UserCreateDTO;
 import maven.example.com.springbootresthomework.dto.UserDTO;
+import maven.example.com.springbootresthomework.dto.UserProfileDTO;
+import maven.example.com.springbootresthomework.dto.VersionedDTO;
+import maven.example.com.springbootresthomework.dto.WorkoutDTO;
 import maven.example.com.springbootresthomework.exception.GlobalExceptionHandler;
+import maven.example.com.springbootresthomework.exception.VersionMismatchException;
+import maven.example.com.springbootresthomework.service.BalanceService;
 import maven.example.com.springbootresthomework.service.UserService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -12,6 +21,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
@@ -29,6 +39,9 @@ class UserControllerTest {
     @Mock
     private UserService userService;
 
+    @Mock
+    private BalanceService balanceService;
+
     @InjectMocks
     private UserController userController;
 
@@ -39,11 +52,19 @@ class UserControllerTest {
     // Тестовые данные
     private static final String URI_TEMPLATE_USERS = "/users";
     private static final String URI_TEMPLATE_USERS_ID = "/users/{id}";
+    private static final String URI_TEMPLATE_USERS_ID_BALANCE = "/users/{id}/balance";
+    private static final String URI_TEMPLATE_USERS_ID_PROFILE = "/users/{id}/profile";
 
     private static final Long VALID_USER_ID = 1L;
     private static final Long INVALID_ID = 999L;
     private static final UserDTO TEST_USER_DTO = new UserDTO("Nikolai", 28, 79, 185);
     private static final List<UserDTO> TEST_USER_LIST = List.of(TEST_USER_DTO);
+    private static final UserCreateDTO TEST_USER_CREATE_DTO = new UserCreateDTO("Nikolai", 28, 79, 185, null, null);
+    private static final int DEFAULT_LIMIT = 20;
+    private static final Long NEXT_CURSOR = 5L;
+
+    private static final long ETAG_VERSION = 3L;
+    private static final String ETAG = "\"3\"";
 
     @BeforeEach
     void setUp() {
@@ -53,43 +74,122 @@ class UserControllerTest {
     }
 
     @Test
-    void getAllUsers_ShouldReturnAllUsers() throws Exception {
-        when(userService.getAllUsers()).thenReturn(TEST_USER_LIST);
+    void getAllUsers_ShouldReturnFirstPage() throws Exception {
+        when(userService.getAllUsers(null, DEFAULT_LIMIT)).thenReturn(new PageDTO<>(TEST_USER_LIST, NEXT_CURSOR));
 
         mockMvc.perform(get(URI_TEMPLATE_USERS))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$.size()", is(1)))
-                .andExpect(jsonPath("$[0].name", is(TEST_USER_DTO.getName())));
+                .andExpect(jsonPath("$.items.size()", is(1)))
+                .andExpect(jsonPath("$.items[0].name", is(TEST_USER_DTO.getName())))
+                .andExpect(jsonPath("$.nextCursor", is(NEXT_CURSOR.intValue())));
+
+        verify(userService, times(1)).getAllUsers(null, DEFAULT_LIMIT);
+    }
+
+    @Test
+    void getAllUsers_WithCursor_ShouldPassCursorAndLimit() throws Exception {
+        when(userService.getAllUsers(NEXT_CURSOR, 5)).thenReturn(new PageDTO<>(TEST_USER_LIST, null));
+
+        mockMvc.perform(get(URI_TEMPLATE_USERS)
+                        .param("after", NEXT_CURSOR.toString())
+                        .param("limit", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.size()", is(1)))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
 
-        verify(userService, times(1)).getAllUsers();
+        verify(userService, times(1)).getAllUsers(NEXT_CURSOR, 5);
+    }
+
+    @Test
+    void getAllUsers_WhenLimitIsInvalid_ShouldReturnBadRequest() throws Exception {
+        when(userService.getAllUsers(null, 0)).thenThrow(new IllegalArgumentException(MessageConstants.INVALID_PAGE_LIMIT));
+
+        mockMvc.perform(get(URI_TEMPLATE_USERS).param("limit", "0"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string(MessageConstants.INVALID_PAGE_LIMIT));
     }
 
     @Test
     void getUserById_WhenUserExists_ShouldReturnUser() throws Exception {
-        when(userService.getUserById(VALID_USER_ID)).thenReturn(TEST_USER_DTO);
+        when(userService.getVersionedUser(VALID_USER_ID)).thenReturn(new VersionedDTO<>(ETAG_VERSION, TEST_USER_DTO));
 
         mockMvc.perform(get(URI_TEMPLATE_USERS_ID, VALID_USER_ID))
                 .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, ETAG))
                 .andExpect(jsonPath("$.name", is(TEST_USER_DTO.getName())))
                 .andExpect(jsonPath("$.age", is(TEST_USER_DTO.getAge())));
 
-        verify(userService, times(1)).getUserById(VALID_USER_ID);
+        verify(userService, never()).getUserById(VALID_USER_ID);
+    }
+
+    @Test
+    void getUserById_WhenETagMatches_ShouldReturnNotModified() throws Exception {
+        when(userService.getVersionedUser(VALID_USER_ID)).thenReturn(new VersionedDTO<>(ETAG_VERSION, TEST_USER_DTO));
+
+        mockMvc.perform(get(URI_TEMPLATE_USERS_ID, VALID_USER_ID)
+                        .header(HttpHeaders.IF_NONE_MATCH, ETAG))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, ETAG))
+                .andExpect(content().string(""));
     }
 
     @Test
     void getUserById_WhenUserDoesNotExist_ShouldReturnNotFound() throws Exception {
-        when(userService.getUserById(INVALID_ID)).thenThrow(new EntityNotFoundException(MessageConstants.USER_NOT_FOUND));
+        when(userService.getVersionedUser(INVALID_ID)).thenThrow(new EntityNotFoundException(MessageConstants.USER_NOT_FOUND));
 
         mockMvc.perform(get(URI_TEMPLATE_USERS_ID, INVALID_ID))
                 .andExpect(status().isNotFound())
                 .andExpect(content().string(MessageConstants.USER_NOT_FOUND));
+    }
+
+    @Test
+    void getUserProfile_WhenUserExists_ShouldReturnUserWithMealsAndWorkouts() throws Exception {
+        when(userService.getUserProfile(VALID_USER_ID)).thenReturn(new UserProfileDTO(TEST_USER_DTO,
+                List.of(new MealDTO("Pasta", 500, VALID_USER_ID)), List.of(new WorkoutDTO("Running", 30))));
+
+        mockMvc.perform(get(URI_TEMPLATE_USERS_ID_PROFILE, VALID_USER_ID))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.user.name", is(TEST_USER_DTO.getName())))
+                .andExpect(jsonPath("$.meals[0].name", is("Pasta")))
+                .andExpect(jsonPath("$.workouts[0].duration", is(30)));
+
+        verify(userService, times(1)).getUserProfile(VALID_USER_ID);
+    }
+
+    @Test
+    void getUserProfile_WhenUserDoesNotExist_ShouldReturnNotFound() throws Exception {
+        when(userService.getUserProfile(INVALID_ID)).thenThrow(new EntityNotFoundException(MessageConstants.USER_NOT_FOUND));
+
+        mockMvc.perform(get(URI_TEMPLATE_USERS_ID_PROFILE, INVALID_ID))
+                .andExpect(status().isNotFound())
+                .andExpect(content().string(MessageConstants.USER_NOT_FOUND));
+    }
 
-        verify(userService, times(1)).getUserById(INVALID_ID);
+    @Test
+    void getUserBalance_WhenUserExists_ShouldReturnBalance() throws Exception {
+        when(balanceService.getBalance(VALID_USER_ID)).thenReturn(new BalanceDTO(700, 450, 250));
+
+        mockMvc.perform(get(URI_TEMPLATE_USERS_ID_BALANCE, VALID_USER_ID))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.caloriesConsumed", is(700)))
+                .andExpect(jsonPath("$.caloriesBurned", is(450)))
+                .andExpect(jsonPath("$.netBalance", is(250)));
+
+        verify(balanceService, times(1)).getBalance(VALID_USER_ID);
+    }
+
+    @Test
+    void getUserBalance_WhenUserDoesNotExist_ShouldReturnNotFound() throws Exception {
+        when(balanceService.getBalance(INVALID_ID)).thenThrow(new EntityNotFoundException(MessageConstants.USER_NOT_FOUND));
+
+        mockMvc.perform(get(URI_TEMPLATE_USERS_ID_BALANCE, INVALID_ID))
+                .andExpect(status().isNotFound())
+                .andExpect(content().string(MessageConstants.USER_NOT_FOUND));
     }
 
     @Test
     void createUser_ShouldReturnCreated() throws Exception {
-        doNothing().when(userService).createUser(TEST_USER_DTO);
+        doNothing().when(userService).createUser(TEST_USER_CREATE_DTO);
 
         mockMvc.perform(post(URI_TEMPLATE_USERS)
                         .contentType(MediaType.APPLICATION_JSON)
@@ -97,12 +197,40 @@ class UserControllerTest {
                 .andExpect(status().isCreated())
                 .andExpect(content().string(MessageConstants.USER_CREATED));
 
-        verify(userService, times(1)).createUser(TEST_USER_DTO);
+        verify(userService, times(1)).createUser(TEST_USER_CREATE_DTO);
+    }
+
+    @Test
+    void createUser_WithHistory_ShouldPassMealsAndWorkouts() throws Exception {
+        UserCreateDTO userWithHistory = new UserCreateDTO("Nikolai", 28, 79, 185,
+                List.of(new MealDTO("Pasta", 500, null)), List.of(new WorkoutDTO("Running", 30)));
+
+        mockMvc.perform(post(URI_TEMPLATE_USERS)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(userWithHistory)))
+                .andExpect(status().isCreated())
+                .andExpect(content().string(MessageConstants.USER_CREATED));
+
+        verify(userService, times(1)).createUser(userWithHistory);
+    }
+
+    @Test
+    void createUser_WhenNestedMealIsInvalid_ShouldReturnBadRequest() throws Exception {
+        UserCreateDTO userWithHistory = new UserCreateDTO("Nikolai", 28, 79, 185,
+                List.of(new MealDTO("Pasta", 5, null)), null);
+
+        mockMvc.perform(post(URI_TEMPLATE_USERS)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(userWithHistory)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$['meals[0].calories']", is("Calories must be greater than 10")));
+
+        verifyNoInteractions(userService);
     }
 
     @Test
     void updateUser_ShouldReturnOk() throws Exception {
-        doNothing().when(userService).updateUser(VALID_USER_ID, TEST_USER_DTO);
+        doNothing().when(userService).updateUser(VALID_USER_ID, TEST_USER_DTO, null);
 
         mockMvc.perform(put(URI_TEMPLATE_USERS_ID, VALID_USER_ID)
                         .contentType(MediaType.APPLICATION_JSON)
@@ -110,13 +238,13 @@ class UserControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(content().string(MessageConstants.USER_UPDATED));
 
-        verify(userService, times(1)).updateUser(VALID_USER_ID, TEST_USER_DTO);
+        verify(userService, times(1)).updateUser(VALID_USER_ID, TEST_USER_DTO, null);
     }
 
     @Test
     void updateUser_WhenUserDoesNotExist_ShouldReturnNotFound() throws Exception {
         doThrow(new EntityNotFoundException(MessageConstants.USER_NOT_FOUND))
-                .when(userService).updateUser(INVALID_ID, TEST_USER_DTO);
+                .when(userService).updateUser(INVALID_ID, TEST_USER_DTO, null);
 
         mockMvc.perform(put(URI_TEMPLATE_USERS_ID, INVALID_ID)
                         .contentType(MediaType.APPLICATION_JSON)
@@ -124,7 +252,43 @@ class UserControllerTest {
                 .andExpect(status().isNotFound())
                 .andExpect(content().string(MessageConstants.USER_NOT_FOUND));
 
-        verify(userService, times(1)).updateUser(INVALID_ID, TEST_USER_DTO);
+        verify(userService, times(1)).updateUser(INVALID_ID, TEST_USER_DTO, null);
+    }
+
+    @Test
+    void updateUser_WithIfMatch_ShouldPassExpectedVersion() throws Exception {
+        mockMvc.perform(put(URI_TEMPLATE_USERS_ID, VALID_USER_ID)
+                        .header(HttpHeaders.IF_MATCH, ETAG)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(TEST_USER_DTO)))
+                .andExpect(status().isOk());
+
+        verify(userService, times(1)).updateUser(VALID_USER_ID, TEST_USER_DTO, ETAG_VERSION);
+    }
+
+    @Test
+    void updateUser_WhenIfMatchIsStale_ShouldReturnPreconditionFailed() throws Exception {
+        doThrow(new VersionMismatchException(MessageConstants.VERSION_MISMATCH))
+                .when(userService).updateUser(VALID_USER_ID, TEST_USER_DTO, ETAG_VERSION);
+
+        mockMvc.perform(put(URI_TEMPLATE_USERS_ID, VALID_USER_ID)
+                        .header(HttpHeaders.IF_MATCH, ETAG)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(TEST_USER_DTO)))
+                .andExpect(status().isPreconditionFailed())
+                .andExpect(content().string(MessageConstants.VERSION_MISMATCH));
+    }
+
+    @Test
+    void updateUser_WithMalformedIfMatch_ShouldReturnBadRequest() throws Exception {
+        mockMvc.perform(put(URI_TEMPLATE_USERS_ID, VALID_USER_ID)
+                        .header(HttpHeaders.IF_MATCH, "W/\"3\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(TEST_USER_DTO)))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string(MessageConstants.INVALID_IF_MATCH));
+
+        verifyNoInteractions(userService);
     }
 
     @Test
@@ -1,23 +1,32 @@
 package maven.example.com.springbootresthomework.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
 import jakarta.persistence.EntityNotFoundException;
 import maven.example.com.springbootresthomework.constants.MessageConstants;
+import maven.example.com.springbootresthomework.dto.NameSuggestionDTO;
+import maven.example.com.springbootresthomework.dto.PageDTO;
 import maven.example.com.springbootresthomework.dto.WorkoutDTO;
 import maven.example.com.springbootresthomework.exception.GlobalExceptionHandler;
+import maven.example.com.springbootresthomework.service.NameSuggestionService;
 import maven.example.com.springbootresthomework.service.WorkoutService;
+import maven.example.com.springbootresthomework.util.JsonStreamWriter;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import static org.hamcrest.Matchers.is;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -30,6 +39,12 @@ class WorkoutControllerTest {
     @Mock
     private WorkoutService workoutService;
 
+    @Mock
+    private NameSuggestionService nameSuggestionService;
+
+    @Spy
+    private JsonStreamWriter jsonStreamWriter = new JsonStreamWriter(new ObjectMapper());
+
     @InjectMocks
     private WorkoutController workoutController;
 
@@ -39,8 +54,11 @@ class WorkoutControllerTest {
 
     // Тестовые данные
     private final static String URI_TEMPLATE_WORKOUTS = "/workouts";
+    private final static String URI_TEMPLATE_WORKOUTS_EXPORT = "/workouts/export";
+    private final static String URI_TEMPLATE_WORKOUTS_SEARCH = "/workouts/search";
     private final static String URI_TEMPLATE_WORKOUTS_ID = "/workouts/{id}";
     private final static String URI_TEMPLATE_WORKOUTS_USER_USER_ID = "/workouts/user/{userId}";
+    private final static String URI_TEMPLATE_WORKOUTS_USER_USER_ID_BATCH = "/workouts/user/{userId}/batch";
 
     private static final Long VALID_USER_ID = 1L;
     private static final Long VALID_WORKOUT_ID = 10L;
@@ -48,6 +66,13 @@ class WorkoutControllerTest {
 
     private static final WorkoutDTO TEST_WORKOUT_DTO = new WorkoutDTO("Running", 60);
     private static final List<WorkoutDTO> TEST_WORKOUT_LIST = List.of(TEST_WORKOUT_DTO);
+    private static final int DEFAULT_LIMIT = 20;
+    private static final Long NEXT_CURSOR = 7L;
+
+    private static final long ETAG_VERSION = 3L;
+    private static final String ETAG = "\"3\"";
+    private static final String LIST_ETAG = "W/\"3\"";
+    private static final MediaType SMILE = new MediaType("application", "x-jackson-smile");
 
     @BeforeEach
     void setUp() {
@@ -57,51 +82,152 @@ class WorkoutControllerTest {
     }
 
     @Test
-    void getAllWorkouts_ShouldReturnAllWorkouts() throws Exception {
-        when(workoutService.getAllWorkouts()).thenReturn(TEST_WORKOUT_LIST);
+    void getAllWorkouts_ShouldReturnFirstPage() throws Exception {
+        when(workoutService.getAllWorkouts(null, DEFAULT_LIMIT)).thenReturn(new PageDTO<>(TEST_WORKOUT_LIST, NEXT_CURSOR));
 
         mockMvc.perform(get(URI_TEMPLATE_WORKOUTS))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.size()", is(1)))
+                .andExpect(jsonPath("$.items[0].name", is(TEST_WORKOUT_DTO.getName())))
+                .andExpect(jsonPath("$.nextCursor", is(NEXT_CURSOR.intValue())));
+
+        verify(workoutService, times(1)).getAllWorkouts(null, DEFAULT_LIMIT);
+    }
+
+    @Test
+    void getAllWorkouts_WithCursor_ShouldPassCursorAndLimit() throws Exception {
+        when(workoutService.getAllWorkouts(NEXT_CURSOR, 5)).thenReturn(new PageDTO<>(TEST_WORKOUT_LIST, null));
+
+        mockMvc.perform(get(URI_TEMPLATE_WORKOUTS)
+                        .param("after", NEXT_CURSOR.toString())
+                        .param("limit", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.size()", is(1)))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+
+        verify(workoutService, times(1)).getAllWorkouts(NEXT_CURSOR, 5);
+    }
+
+    @Test
+    void exportWorkouts_ShouldStreamNdjson() throws Exception {
+        doAnswer(invocation -> {
+            Consumer<WorkoutDTO> action = invocation.getArgument(0);
+            action.accept(TEST_WORKOUT_DTO);
+            action.accept(TEST_WORKOUT_DTO);
+            return null;
+        }).when(workoutService).exportWorkouts(any());
+
+        MvcResult result = mockMvc.perform(get(URI_TEMPLATE_WORKOUTS_EXPORT))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String line = objectMapper.writeValueAsString(TEST_WORKOUT_DTO) + "\n";
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string(line + line));
+
+        verify(workoutService, times(1)).exportWorkouts(any());
+    }
+
+    @Test
+    void searchWorkoutNames_ShouldPassPrefixAndLimit() throws Exception {
+        when(nameSuggestionService.suggestWorkoutNames("run", 5))
+                .thenReturn(List.of(new NameSuggestionDTO("Running", 40)));
+
+        mockMvc.perform(get(URI_TEMPLATE_WORKOUTS_SEARCH).param("prefix", "run").param("limit", "5"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.size()", is(1)))
-                .andExpect(jsonPath("$[0].name", is(TEST_WORKOUT_DTO.getName())));
+                .andExpect(jsonPath("$[0].name", is("Running")));
 
-        verify(workoutService, times(1)).getAllWorkouts();
+        verify(nameSuggestionService, times(1)).suggestWorkoutNames("run", 5);
+    }
+
+    @Test
+    void searchWorkoutNames_WhenPrefixIsBlank_ShouldReturnBadRequest() throws Exception {
+        when(nameSuggestionService.suggestWorkoutNames(" ", 10))
+                .thenThrow(new IllegalArgumentException(MessageConstants.EMPTY_SEARCH_PREFIX));
+
+        mockMvc.perform(get(URI_TEMPLATE_WORKOUTS_SEARCH).param("prefix", " "))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string(MessageConstants.EMPTY_SEARCH_PREFIX));
     }
 
     @Test
     void getWorkoutById_WhenWorkoutExists_ShouldReturnWorkout() throws Exception {
+        when(workoutService.getWorkoutVersion(VALID_WORKOUT_ID)).thenReturn(ETAG_VERSION);
         when(workoutService.getWorkoutById(VALID_WORKOUT_ID)).thenReturn(TEST_WORKOUT_DTO);
 
         mockMvc.perform(get(URI_TEMPLATE_WORKOUTS_ID, VALID_WORKOUT_ID))
                 .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, ETAG))
                 .andExpect(jsonPath("$.name", is(TEST_WORKOUT_DTO.getName())))
                 .andExpect(jsonPath("$.duration", is(TEST_WORKOUT_DTO.getDuration())));
 
         verify(workoutService, times(1)).getWorkoutById(VALID_WORKOUT_ID);
     }
 
+    @Test
+    void getWorkoutById_WhenSmileAccepted_ShouldReturnSmile() throws Exception {
+        when(workoutService.getWorkoutVersion(VALID_WORKOUT_ID)).thenReturn(ETAG_VERSION);
+        when(workoutService.getWorkoutById(VALID_WORKOUT_ID)).thenReturn(TEST_WORKOUT_DTO);
+
+        byte[] body = mockMvc.perform(get(URI_TEMPLATE_WORKOUTS_ID, VALID_WORKOUT_ID)
+                        .accept(SMILE))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"3-smile\""))
+                .andExpect(content().contentType(SMILE))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        assertEquals(TEST_WORKOUT_DTO, new ObjectMapper(new SmileFactory()).readValue(body, WorkoutDTO.class));
+    }
+
     @Test
     void getWorkoutById_WhenWorkoutDoesNotExist_ShouldReturnNotFound() throws Exception {
-        when(workoutService.getWorkoutById(INVALID_ID)).thenThrow(new EntityNotFoundException(MessageConstants.WORKOUT_NOT_FOUND));
+        when(workoutService.getWorkoutVersion(INVALID_ID)).thenThrow(new EntityNotFoundException(MessageConstants.WORKOUT_NOT_FOUND));
 
         mockMvc.perform(get(URI_TEMPLATE_WORKOUTS_ID, INVALID_ID))
                 .andExpect(status().isNotFound())
                 .andExpect(content().string(MessageConstants.WORKOUT_NOT_FOUND));
 
-        verify(workoutService, times(1)).getWorkoutById(INVALID_ID);
+        verify(workoutService, never()).getWorkoutById(INVALID_ID);
     }
 
     @Test
-    void getWorkoutsByUserId_WhenUserExists_ShouldReturnWorkouts() throws Exception {
-        when(workoutService.getWorkoutsByUserId(VALID_USER_ID)).thenReturn(TEST_WORKOUT_LIST);
-
-        mockMvc.perform(get(URI_TEMPLATE_WORKOUTS_USER_USER_ID, VALID_USER_ID))
+    void getWorkoutsByUserId_WhenUserExists_ShouldStreamJsonArray() throws Exception {
+        when(workoutService.getWorkoutsVersionByUserId(VALID_USER_ID)).thenReturn(ETAG_VERSION);
+        doAnswer(invocation -> {
+            Consumer<WorkoutDTO> action = invocation.getArgument(1);
+            TEST_WORKOUT_LIST.forEach(action);
+            return null;
+        }).when(workoutService).streamWorkoutsByUserId(eq(VALID_USER_ID), any());
+
+        MvcResult result = mockMvc.perform(get(URI_TEMPLATE_WORKOUTS_USER_USER_ID, VALID_USER_ID))
+                .andExpect(request().asyncStarted())
+                .andExpect(header().string(HttpHeaders.ETAG, LIST_ETAG))
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
                 .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
                 .andExpect(jsonPath("$.size()", is(1)))
                 .andExpect(jsonPath("$[0].name", is(TEST_WORKOUT_DTO.getName())))
                 .andExpect(jsonPath("$[0].duration", is(TEST_WORKOUT_DTO.getDuration())));
 
-        verify(workoutService, times(1)).getWorkoutsByUserId(VALID_USER_ID);
+        verify(workoutService, times(1)).streamWorkoutsByUserId(eq(VALID_USER_ID), any());
+    }
+
+    @Test
+    void getWorkoutsByUserId_WhenETagMatches_ShouldReturnNotModifiedWithoutLoading() throws Exception {
+        when(workoutService.getWorkoutsVersionByUserId(VALID_USER_ID)).thenReturn(ETAG_VERSION);
+
+        mockMvc.perform(get(URI_TEMPLATE_WORKOUTS_USER_USER_ID, VALID_USER_ID)
+                        .header(HttpHeaders.IF_NONE_MATCH, LIST_ETAG))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, LIST_ETAG))
+                .andExpect(content().string(""));
+
+        verify(workoutService, never()).streamWorkoutsByUserId(any(), any());
     }
 
     @Test
@@ -131,9 +257,34 @@ class WorkoutControllerTest {
         verify(workoutService, times(1)).createWorkout(INVALID_ID, TEST_WORKOUT_DTO);
     }
 
+    @Test
+    void createWorkouts_ShouldReturnOk() throws Exception {
+        doNothing().when(workoutService).createWorkouts(VALID_USER_ID, TEST_WORKOUT_LIST);
+
+        mockMvc.perform(post(URI_TEMPLATE_WORKOUTS_USER_USER_ID_BATCH, VALID_USER_ID)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(TEST_WORKOUT_LIST)))
+                .andExpect(status().isOk())
+                .andExpect(content().string(MessageConstants.WORKOUTS_CREATED));
+
+        verify(workoutService, times(1)).createWorkouts(VALID_USER_ID, TEST_WORKOUT_LIST);
+    }
+
+    @Test
+    void createWorkouts_WhenUserDoesNotExist_ShouldReturnNotFound() throws Exception {
+        doThrow(new EntityNotFoundException(MessageConstants.USER_NOT_FOUND))
+                .when(workoutService).createWorkouts(eq(INVALID_ID), anyList());
+
+        mockMvc.perform(post(URI_TEMPLATE_WORKOUTS_USER_USER_ID_BATCH, INVALID_ID)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(TEST_WORKOUT_LIST)))
+                .andExpect(status().isNotFound())
+                .andExpect(content().string(MessageConstants.USER_NOT_FOUND));
+    }
+
     @Test
     void updateWorkout_ShouldReturnOk() throws Exception {
-        doNothing().when(workoutService).updateWorkout(VALID_WORKOUT_ID, TEST_WORKOUT_DTO);
+        doNothing().when(workoutService).updateWorkout(VALID_WORKOUT_ID, TEST_WORKOUT_DTO, null);
 
         mockMvc.perform(put(URI_TEMPLATE_WORKOUTS_ID, VALID_WORKOUT_ID)
                 .contentType(MediaType.APPLICATION_JSON)
@@ -141,13 +292,13 @@ class WorkoutControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(content().string(MessageConstants.WORKOUT_UPDATED));
 
-        verify(workoutService, times(1)).updateWorkout(VALID_WORKOUT_ID, TEST_WORKOUT_DTO);
+        verify(workoutService, times(1)).updateWorkout(VALID_WORKOUT_ID, TEST_WORKOUT_DTO, null);
     }
 
     @Test
     void updateWorkout_WhenWorkoutDoesNotExist_ShouldReturnNotFound() throws Exception {
         doThrow(new EntityNotFoundException(MessageConstants.WORKOUT_NOT_FOUND))
-                .when(workoutService).updateWorkout(INVALID_ID, TEST_WORKOUT_DTO);
+                .when(workoutService).updateWorkout(INVALID_ID, TEST_WORKOUT_DTO, null);
 
         mockMvc.perform(put(URI_TEMPLATE_WORKOUTS_ID, INVALID_ID)
                 .contentType(MediaType.APPLICATION_JSON)
@@ -155,7 +306,7 @@ class WorkoutControllerTest {
                 .andExpect(status().isNotFound())
                 .andExpect(content().string(MessageConstants.WORKOUT_NOT_FOUND));
 
-        verify(workoutService, times(1)).updateWorkout(INVALID_ID, TEST_WORKOUT_DTO);
+        verify(workoutService, times(1)).updateWorkout(INVALID_ID, TEST_WORKOUT_DTO, null);
     }
 
     @Test
@@ -0,0 +1,263 @@
+package maven.example.com.springbootresthomework.integration;
+
+import io.zonky.test.db.AutoConfigureEmbeddedDatabase;
+import maven.example.com.springbootresthomework.constants.MessageConstants;
+import maven.example.com.springbootresthomework.dto.MealDTO;
+import maven.example.com.springbootresthomework.dto.NameSuggestionDTO;
+import maven.example.com.springbootresthomework.dto.WorkoutDTO;
+import maven.example.com.springbootresthomework.service.BalanceService;
+import maven.example.com.springbootresthomework.service.MealService;
+import maven.example.com.springbootresthomework.service.NameSuggestionService;
+import maven.example.com.springbootresthomework.service.WorkoutService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static io.zonky.test.db.AutoConfigureEmbeddedDatabase.DatabaseProvider.ZONKY;
+import static org.hamcrest.Matchers.not;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Параллельные обновления одной записи (встроенный PostgreSQL): без блокировок строк баланс
+ * остаётся согласованным, а устаревший If-Match отклоняется с 412. Сверка балансов не затирает
+ * разницу, которую параллельно записала транзакция изменения, а перестройка индексов подсказок — названия,
+ * зафиксированные во время чтения.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureEmbeddedDatabase(provider = ZONKY)
+class ConcurrentUpdateTest {
+
+    private static final int WRITERS = 8;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private BalanceService balanceService;
+
+    @Autowired
+    private MealService mealService;
+
+    @Autowired
+    private WorkoutService workoutService;
+
+    @Autowired
+    private NameSuggestionService nameSuggestionService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    // Тестовые данные
+    private Long userId;
+    private Long mealId;
+
+    @BeforeEach
+    void setUp() {
+        userId = jdbcTemplate.queryForObject(
+                "INSERT INTO users (name, age, weight, height) VALUES ('Alice', 25, 65, 170) RETURNING id", Long.class);
+        mealId = jdbcTemplate.queryForObject(
+                "INSERT INTO meals (name, calories, user_id) VALUES ('Pasta', 500, ?) RETURNING id", Long.class, userId);
+        jdbcTemplate.update("INSERT INTO user_balances (user_id, calories_consumed, calories_burned) VALUES (?, 500, 0)", userId);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM users");
+    }
+
+    @Test
+    void parallelMealUpdates_ShouldKeepBalanceEqualToStoredCalories() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(WRITERS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> statuses = new ArrayList<>();
+        try {
+            for (int i = 0; i < WRITERS; i++) {
+                String body = "{\"name\":\"Meal " + i + "\",\"calories\":" + (100 + i * 10) + "}";
+                statuses.add(executor.submit(() -> {
+                    start.await();
+                    return mockMvc.perform(put("/meals/" + mealId)
+                                    .contentType(MediaType.APPLICATION_JSON)
+                                    .content(body))
+                            .andReturn().getResponse().getStatus();
+                }));
+            }
+            start.countDown();
+
+            int succeeded = 0;
+            for (Future<Integer> status : statuses) {
+                int code = status.get();
+                // 409 допустим только после исчерпания повторов
+                assertTrue(code == HttpStatus.OK.value() || code == HttpStatus.CONFLICT.value(), "status " + code);
+                if (code == HttpStatus.OK.value()) {
+                    succeeded++;
+                }
+            }
+            assertTrue(succeeded > 0);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        Integer storedCalories = jdbcTemplate.queryForObject(
+                "SELECT calories FROM meals WHERE id = ?", Integer.class, mealId);
+        assertEquals(storedCalories, jdbcTemplate.queryForObject(
+                "SELECT calories_consumed FROM user_balances WHERE user_id = ?", Integer.class, userId));
+    }
+
+    @Test
+    void reconcile_WhileMealCreationIsUncommitted_ShouldKeepItsDelta() throws Exception {
+        // Расхождение, которое найдёт сверка
+        jdbcTemplate.update("UPDATE user_balances SET calories_consumed = 0 WHERE user_id = ?", userId);
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        CountDownLatch balanceLocked = new CountDownLatch(1);
+        CountDownLatch commit = new CountDownLatch(1);
+        try {
+            Future<?> writer = executor.submit(() -> new TransactionTemplate(transactionManager).executeWithoutResult(tx -> {
+                mealService.createMeal(userId, new MealDTO("Salad", 200, userId));
+                balanceLocked.countDown();
+                try {
+                    commit.await();
+                } catch (InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+            }));
+            assertTrue(balanceLocked.await(10, TimeUnit.SECONDS));
+
+            Future<List<Long>> reconciliation = executor.submit(balanceService::reconcile);
+            // Сверка должна дождаться блокировки строки баланса, которую держит незавершённое создание
+            awaitLockWait();
+            commit.countDown();
+            writer.get(10, TimeUnit.SECONDS);
+
+            assertEquals(List.of(userId), reconciliation.get(10, TimeUnit.SECONDS));
+        } finally {
+            commit.countDown();
+            executor.shutdownNow();
+        }
+
+        assertEquals(700, jdbcTemplate.queryForObject(
+                "SELECT calories_consumed FROM user_balances WHERE user_id = ?", Integer.class, userId));
+    }
+
+    @Test
+    void updateMeal_WithStaleIfMatch_ShouldReturnPreconditionFailedAndKeepRow() throws Exception {
+        String eTag = mockMvc.perform(get("/meals/" + mealId))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        mockMvc.perform(put("/meals/" + mealId)
+                        .header(HttpHeaders.IF_MATCH, eTag)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Soup\",\"calories\":300}"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(put("/meals/" + mealId)
+                        .header(HttpHeaders.IF_MATCH, eTag)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Salad\",\"calories\":200}"))
+                .andExpect(status().isPreconditionFailed())
+                .andExpect(content().string(MessageConstants.VERSION_MISMATCH));
+
+        assertEquals(300, jdbcTemplate.queryForObject(
+                "SELECT calories_consumed FROM user_balances WHERE user_id = ?", Integer.class, userId));
+    }
+
+    @Test
+    void updateUser_ShouldBumpVersionOnceAndRejectStaleIfMatch() throws Exception {
+        String eTag = mockMvc.perform(get("/users/" + userId))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        String body = "{\"name\":\"Alice\",\"age\":26,\"weight\":64,\"height\":170}";
+
+        mockMvc.perform(put("/users/" + userId)
+                        .header(HttpHeaders.IF_MATCH, eTag)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isOk());
+
+        // Версию увеличивает только Hibernate: ровно на единицу за обновление
+        long version = jdbcTemplate.queryForObject("SELECT version FROM users WHERE id = ?", Long.class, userId);
+        assertEquals("\"" + version + "\"", mockMvc.perform(get("/users/" + userId))
+                .andExpect(header().string(HttpHeaders.ETAG, not(eTag)))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG));
+        assertEquals(Long.parseLong(eTag.replace("\"", "")) + 1, version);
+
+        mockMvc.perform(put("/users/" + userId)
+                        .header(HttpHeaders.IF_MATCH, eTag)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isPreconditionFailed());
+    }
+
+    @Test
+    void rebuildSuggestions_WhenWorkoutCommitsDuringRead_ShouldKeepItExactlyOnce() throws Exception {
+        workoutService.createWorkout(userId, new WorkoutDTO("Yoga", 30));
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        CountDownLatch mealsLocked = new CountDownLatch(1);
+        CountDownLatch unlock = new CountDownLatch(1);
+        try {
+            // Блокировка таблицы meals останавливает перестройку на чтении приёмов пищи, уже после снимка
+            Future<?> lock = executor.submit(() -> new TransactionTemplate(transactionManager).executeWithoutResult(tx -> {
+                jdbcTemplate.execute("LOCK TABLE meals IN ACCESS EXCLUSIVE MODE");
+                mealsLocked.countDown();
+                try {
+                    unlock.await();
+                } catch (InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+            }));
+            assertTrue(mealsLocked.await(10, TimeUnit.SECONDS));
+
+            Future<?> rebuild = executor.submit(nameSuggestionService::rebuild);
+            awaitLockWait();
+            // Тренировка фиксируется после снимка: её нет в GROUP BY, она должна быть повторена на новом индексе
+            workoutService.createWorkout(userId, new WorkoutDTO("Yoga", 45));
+            unlock.countDown();
+            lock.get(10, TimeUnit.SECONDS);
+            rebuild.get(10, TimeUnit.SECONDS);
+        } finally {
+            unlock.countDown();
+            executor.shutdownNow();
+        }
+
+        assertEquals(List.of(new NameSuggestionDTO("Yoga", 2)), nameSuggestionService.suggestWorkoutNames("yo", 10));
+    }
+
+    private void awaitLockWait() throws InterruptedException {
+        for (int attempt = 0; attempt < 100; attempt++) {
+            Integer waiting = jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM pg_stat_activity WHERE wait_event_type = 'Lock'", Integer.class);
+            if (waiting > 0) {
+                return;
+            }
+            Thread.sleep(50);
+        }
+        throw new AssertionError("no transaction is waiting for a lock");
+    }
+}
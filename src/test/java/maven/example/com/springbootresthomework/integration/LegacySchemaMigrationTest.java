@@ -0,0 +1,124 @@
+package maven.example.com.springbootresthomework.integration;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Запуск приложения на базе, созданной до Flyway скриптом database/schema.sql (SERIAL/INT, без истории миграций).
+ * База принимается за версию 1 и доводится миграциями до текущей схемы; новые ID не пересекаются со старыми строками.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class LegacySchemaMigrationTest {
+
+    private static final EmbeddedPostgres LEGACY_DATABASE;
+
+    // Тестовые данные: схема database/schema.sql до перехода на Flyway и строки, созданные через SERIAL
+    private static final String LEGACY_SCHEMA = """
+            CREATE TABLE users (
+                id SERIAL PRIMARY KEY,
+                name VARCHAR(50) NOT NULL,
+                age INT NOT NULL CHECK (age >= 14),
+                weight DOUBLE PRECISION NOT NULL CHECK (weight >= 40),
+                height DOUBLE PRECISION NOT NULL CHECK (height >= 80)
+            );
+            CREATE TABLE meals (
+                id SERIAL PRIMARY KEY,
+                name VARCHAR(255) NOT NULL,
+                calories INT NOT NULL CHECK (calories >= 10),
+                user_id INT NOT NULL,
+                CONSTRAINT fk_meal_user FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
+            );
+            CREATE TABLE workouts (
+                id SERIAL PRIMARY KEY,
+                name VARCHAR(255) NOT NULL,
+                duration INT NOT NULL CHECK (duration >= 1),
+                calories_burned INT NOT NULL,
+                user_id INT NOT NULL,
+                CONSTRAINT fk_workout_user FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
+            );
+            """;
+
+    static {
+        try {
+            LEGACY_DATABASE = EmbeddedPostgres.start();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        JdbcTemplate legacy = new JdbcTemplate(LEGACY_DATABASE.getPostgresDatabase());
+        legacy.execute(LEGACY_SCHEMA);
+        for (int i = 1; i <= 3; i++) {
+            legacy.update("INSERT INTO users (name, age, weight, height) VALUES (?, 25, 65, 170)", "User" + i);
+        }
+        legacy.update("INSERT INTO meals (name, calories, user_id) VALUES ('Pasta', 500, 1), ('Soup', 200, 1)");
+        legacy.update("INSERT INTO workouts (name, duration, calories_burned, user_id) VALUES ('Running', 30, 300, 2)");
+    }
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> LEGACY_DATABASE.getJdbcUrl("postgres", "postgres"));
+        registry.add("spring.datasource.username", () -> "postgres");
+        registry.add("spring.datasource.password", () -> "postgres");
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterAll
+    static void stopDatabase() throws IOException {
+        LEGACY_DATABASE.close();
+    }
+
+    @Test
+    void legacySchema_ShouldBeBaselinedAndConvertedToBigintKeys() {
+        assertEquals("1", jdbcTemplate.queryForObject(
+                "SELECT version FROM flyway_schema_history WHERE type = 'BASELINE'", String.class));
+        assertEquals(List.of("bigint"), jdbcTemplate.queryForList(
+                "SELECT DISTINCT data_type FROM information_schema.columns " +
+                        "WHERE table_schema = current_schema() AND table_name IN ('users', 'meals', 'workouts') " +
+                        "AND column_name IN ('id', 'user_id')", String.class));
+        assertEquals(List.of(50L), jdbcTemplate.queryForList(
+                "SELECT DISTINCT increment_by FROM pg_sequences WHERE schemaname = current_schema() " +
+                        "AND sequencename IN ('users_id_seq', 'meals_id_seq', 'workouts_id_seq')", Long.class));
+        // V2 заполнил балансы по существующим строкам
+        assertEquals(700L, jdbcTemplate.queryForObject(
+                "SELECT calories_consumed FROM user_balances WHERE user_id = 1", Long.class));
+    }
+
+    @Test
+    void createUser_AfterLegacyMigration_ShouldNotReuseExistingIds() throws Exception {
+        mockMvc.perform(post("/users")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Bob\",\"age\":30,\"weight\":70,\"height\":180," +
+                                "\"meals\":[{\"name\":\"Rice\",\"calories\":300}]," +
+                                "\"workouts\":[{\"name\":\"Running\",\"duration\":20}]}"))
+                .andExpect(status().isCreated());
+
+        Long bobId = jdbcTemplate.queryForObject("SELECT id FROM users WHERE name = 'Bob'", Long.class);
+        assertTrue(bobId > 3, "new user id " + bobId);
+        assertTrue(jdbcTemplate.queryForObject("SELECT id FROM meals WHERE name = 'Rice'", Long.class) > 2);
+        assertTrue(jdbcTemplate.queryForObject("SELECT id FROM workouts WHERE user_id = ?", Long.class, bobId) > 1);
+        assertEquals(4, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM users", Integer.class));
+    }
+}
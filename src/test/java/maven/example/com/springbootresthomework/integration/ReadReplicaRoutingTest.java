@@ -0,0 +1,162 @@
+package maven.example.com.springbootresthomework.integration;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import jakarta.servlet.http.Cookie;
+import maven.example.com.springbootresthomework.replica.ReadYourWrites;
+import maven.example.com.springbootresthomework.replica.ReplicaRoutingDataSource;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.cookie;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Маршрутизация чтения на реплику (профиль read-replicas) на двух встроенных PostgreSQL.
+ * «Реплика» — независимый экземпляр с той же схемой: данные на неё не реплицируются,
+ * поэтому по содержимому ответа видно, из какой БД он прочитан.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("read-replicas")
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class ReadReplicaRoutingTest {
+
+    private static final EmbeddedPostgres PRIMARY;
+    private static final EmbeddedPostgres REPLICA;
+    private static boolean replicaStopped;
+
+    static {
+        try {
+            PRIMARY = EmbeddedPostgres.start();
+            REPLICA = EmbeddedPostgres.start();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        Flyway.configure()
+                .dataSource(REPLICA.getPostgresDatabase())
+                .locations("classpath:db/migration")
+                .load()
+                .migrate();
+    }
+
+    @DynamicPropertySource
+    static void databases(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> PRIMARY.getJdbcUrl("postgres", "postgres"));
+        registry.add("spring.datasource.username", () -> "postgres");
+        registry.add("spring.datasource.password", () -> "postgres");
+        registry.add("app.replicas.urls", () -> REPLICA.getJdbcUrl("postgres", "postgres"));
+        registry.add("app.replicas.connection-timeout", () -> "250ms");
+        // Проверку по расписанию тест вызывает сам
+        registry.add("app.replicas.health-check-interval", () -> "1h");
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ReplicaRoutingDataSource replicaRoutingDataSource;
+
+    @BeforeEach
+    void setUp() {
+        // JdbcTemplate вне транзакции работает с основной БД
+        jdbcTemplate.update("INSERT INTO users (name, age, weight, height) VALUES ('Alice', 25, 65, 170)");
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM users");
+    }
+
+    @AfterAll
+    static void stopDatabases() throws IOException {
+        PRIMARY.close();
+        if (!replicaStopped) {
+            REPLICA.close();
+        }
+    }
+
+    @Test
+    @Order(1)
+    void readOnlyRequest_ShouldBeServedByReplica() throws Exception {
+        mockMvc.perform(get("/users"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items", hasSize(0)));
+    }
+
+    @Test
+    @Order(2)
+    void mutation_ShouldOpenReadYourWritesWindow() throws Exception {
+        Cookie window = mockMvc.perform(post("/users")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Bob\",\"age\":30,\"weight\":70,\"height\":180}"))
+                .andExpect(status().isCreated())
+                .andExpect(cookie().maxAge(ReadYourWrites.COOKIE_NAME, 5))
+                .andReturn().getResponse().getCookie(ReadYourWrites.COOKIE_NAME);
+
+        mockMvc.perform(get("/users").cookie(window))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items", hasSize(2)))
+                .andExpect(jsonPath("$.items[1].name", is("Bob")));
+    }
+
+    @Test
+    @Order(3)
+    void streamedListInWindow_ShouldBeReadFromPrimary() throws Exception {
+        Long userId = jdbcTemplate.queryForObject("SELECT id FROM users WHERE name = 'Alice'", Long.class);
+        jdbcTemplate.update("INSERT INTO meals (name, calories, user_id) VALUES ('Pasta', 500, ?)", userId);
+
+        // Список пишется в асинхронном потоке: окно должно перейти туда вместе с задачей
+        MvcResult result = mockMvc.perform(get("/meals/user/" + userId)
+                        .cookie(new Cookie(ReadYourWrites.COOKIE_NAME, "1")))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)));
+    }
+
+    @Test
+    @Order(4)
+    void whenReplicaIsDown_ShouldFallBackToPrimary() throws Exception {
+        assertEquals(1, replicaRoutingDataSource.healthyReplicaCount());
+        REPLICA.close();
+        replicaStopped = true;
+
+        replicaRoutingDataSource.checkHealth();
+        assertEquals(0, replicaRoutingDataSource.healthyReplicaCount());
+
+        mockMvc.perform(get("/users"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items", hasSize(1)));
+    }
+}
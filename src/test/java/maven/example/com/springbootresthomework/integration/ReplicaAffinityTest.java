@@ -0,0 +1,133 @@
+package maven.example.com.springbootresthomework.integration;
+
+import com.jayway.jsonpath.JsonPath;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Версия для ETag и тело ответа читаются с одной реплики (профиль read-replicas, две встроенные «реплики»).
+ * Реплики намеренно расходятся: на первой приём пищи версии 1, на второй он же уже изменён до версии 2.
+ * Если бы версия и тело читались с разных реплик, ETag не соответствовал бы телу.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("read-replicas")
+class ReplicaAffinityTest {
+
+    private static final long USER_ID = 100;
+    private static final long MEAL_ID = 200;
+
+    private static final EmbeddedPostgres PRIMARY;
+    private static final EmbeddedPostgres REPLICA_1;
+    private static final EmbeddedPostgres REPLICA_2;
+
+    static {
+        try {
+            PRIMARY = EmbeddedPostgres.start();
+            REPLICA_1 = EmbeddedPostgres.start();
+            REPLICA_2 = EmbeddedPostgres.start();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        fillReplica(REPLICA_1.getPostgresDatabase(), 1, "Pasta");
+        fillReplica(REPLICA_2.getPostgresDatabase(), 2, "Soup", "Salad");
+    }
+
+    // Тестовые данные: приёмы пищи пользователя USER_ID; первый из них — MEAL_ID версии version,
+    // версия коллекции пользователя тоже равна version
+    private static void fillReplica(DataSource dataSource, long version, String... mealNames) {
+        Flyway.configure()
+                .dataSource(dataSource)
+                .locations("classpath:db/migration")
+                .load()
+                .migrate();
+        JdbcTemplate replica = new JdbcTemplate(dataSource);
+        replica.update("INSERT INTO users (id, name, age, weight, height) VALUES (?, 'Alice', 25, 65, 170)", USER_ID);
+        replica.update("INSERT INTO meals (id, name, calories, user_id, version) VALUES (?, ?, 500, ?, ?)",
+                MEAL_ID, mealNames[0], USER_ID, version);
+        for (int i = 1; i < mealNames.length; i++) {
+            replica.update("INSERT INTO meals (name, calories, user_id) VALUES (?, 200, ?)", mealNames[i], USER_ID);
+        }
+        replica.update("UPDATE users SET meals_version = ? WHERE id = ?", version, USER_ID);
+    }
+
+    @DynamicPropertySource
+    static void databases(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> PRIMARY.getJdbcUrl("postgres", "postgres"));
+        registry.add("spring.datasource.username", () -> "postgres");
+        registry.add("spring.datasource.password", () -> "postgres");
+        registry.add("app.replicas.urls", () ->
+                REPLICA_1.getJdbcUrl("postgres", "postgres") + "," + REPLICA_2.getJdbcUrl("postgres", "postgres"));
+        registry.add("app.replicas.health-check-interval", () -> "1h");
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @AfterAll
+    static void stopDatabases() throws IOException {
+        PRIMARY.close();
+        REPLICA_1.close();
+        REPLICA_2.close();
+    }
+
+    @Test
+    void conditionalGet_ShouldReadVersionAndBodyFromSameReplica() throws Exception {
+        Map<String, String> nameByETag = Map.of("\"1\"", "Pasta", "\"2\"", "Soup");
+        Set<String> servedETags = new HashSet<>();
+        for (int i = 0; i < 4; i++) {
+            MvcResult result = mockMvc.perform(get("/meals/" + MEAL_ID))
+                    .andExpect(status().isOk())
+                    .andReturn();
+            String eTag = result.getResponse().getHeader(HttpHeaders.ETAG);
+            servedETags.add(eTag);
+            assertEquals(nameByETag.get(eTag), JsonPath.read(result.getResponse().getContentAsString(), "$.name"));
+        }
+        // Запросы распределяются по обеим репликам
+        assertEquals(nameByETag.keySet(), servedETags);
+    }
+
+    @Test
+    void streamedList_ShouldReadBodyFromReplicaOfVersion() throws Exception {
+        Set<String> servedETags = new HashSet<>();
+        for (int i = 0; i < 4; i++) {
+            MvcResult result = mockMvc.perform(get("/meals/user/" + USER_ID))
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
+            String eTag = result.getResponse().getHeader(HttpHeaders.ETAG);
+            servedETags.add(eTag);
+            // Тело пишется в асинхронном потоке: привязка к реплике должна перейти туда вместе с задачей
+            mockMvc.perform(asyncDispatch(result))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$", hasSize("W/\"1\"".equals(eTag) ? 1 : 2)));
+        }
+        assertEquals(Set.of("W/\"1\"", "W/\"2\""), servedETags);
+    }
+}
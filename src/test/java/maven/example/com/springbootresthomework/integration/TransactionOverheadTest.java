@@ -0,0 +1,403 @@
+package maven.example.com.springbootresthomework.integration;
+
+import io.zonky.test.db.AutoConfigureEmbeddedDatabase;
+import jakarta.persistence.EntityManagerFactory;
+import maven.example.com.springbootresthomework.constants.CacheNames;
+import maven.example.com.springbootresthomework.dto.UserDTO;
+import maven.example.com.springbootresthomework.entity.User;
+import maven.example.com.springbootresthomework.service.NameSuggestionService;
+import maven.example.com.springbootresthomework.util.CalorieCalculator;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.util.List;
+
+import static io.zonky.test.db.AutoConfigureEmbeddedDatabase.DatabaseProvider.ZONKY;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Считает flush'и, транзакции и SQL-операторы Hibernate на каждый эндпоинт (встроенный PostgreSQL).
+ * Чтение: одна read-only транзакция, ни одного flush, один оператор.
+ * Изменение: одна транзакция на запрос.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureMockMvc
+@AutoConfigureEmbeddedDatabase(provider = ZONKY)
+class TransactionOverheadTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private NameSuggestionService nameSuggestionService;
+
+    private Statistics statistics;
+
+    // Тестовые данные (вставляются напрямую через JDBC, мимо Hibernate)
+    private Long userId;
+    private Long mealId;
+    private Long workoutId;
+
+    @BeforeEach
+    void setUp() {
+        userId = jdbcTemplate.queryForObject(
+                "INSERT INTO users (name, age, weight, height) VALUES ('Alice', 25, 65, 170) RETURNING id", Long.class);
+        mealId = jdbcTemplate.queryForObject(
+                "INSERT INTO meals (name, calories, user_id) VALUES ('Pasta', 500, ?) RETURNING id", Long.class, userId);
+        workoutId = jdbcTemplate.queryForObject(
+                "INSERT INTO workouts (name, duration, calories_burned, user_id) VALUES ('Running', 30, 300, ?) RETURNING id",
+                Long.class, userId);
+        jdbcTemplate.update("INSERT INTO user_balances (user_id, calories_consumed, calories_burned) VALUES (?, 500, 300)", userId);
+
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+        entityManagerFactory.getCache().evictAll();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM users");
+    }
+
+    @Test
+    void readEndpoints_ShouldRunOneStatementWithoutFlush() throws Exception {
+        assertReadOverhead("/users", 1);
+        assertReadOverhead("/users/" + userId + "/balance", 1);
+        // Версия для ETag берётся из той же строки, что и тело
+        assertReadOverhead("/users/" + userId, 1);
+        assertReadOverhead("/meals", 1);
+        assertReadOverhead("/workouts", 1);
+    }
+
+    @Test
+    void conditionalReadEndpoints_ShouldReadVersionThenData() throws Exception {
+        // Чтение версии для ETag — отдельный запрос по первичному ключу
+        assertReadOverhead("/meals/" + mealId, 2);
+        assertReadOverhead("/meals/user/" + userId, 2);
+        assertReadOverhead("/workouts/" + workoutId, 2);
+        assertReadOverhead("/workouts/user/" + userId, 2);
+    }
+
+    @Test
+    void userProfile_ShouldLoadCollectionsWithTwoStatements() throws Exception {
+        // Вторые приём пищи и тренировка: при JOIN обеих коллекций одним запросом строк стало бы 2 × 2
+        jdbcTemplate.update("INSERT INTO meals (name, calories, user_id) VALUES ('Salad', 200, ?)", userId);
+        jdbcTemplate.update("INSERT INTO workouts (name, duration, calories_burned, user_id) VALUES ('Yoga', 60, 170, ?)", userId);
+        statistics.clear();
+
+        mockMvc.perform(get("/users/" + userId + "/profile"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.user.name", is("Alice")))
+                .andExpect(jsonPath("$.meals[*].name", contains("Pasta", "Salad")))
+                .andExpect(jsonPath("$.workouts[*].name", contains("Running", "Yoga")));
+
+        assertEquals(1, statistics.getTransactionCount());
+        assertEquals(0, statistics.getFlushCount());
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void conditionalGet_WhenETagMatches_ShouldRunOnlyVersionQuery() throws Exception {
+        String eTag = performToEnd(get("/meals/user/" + userId)).getResponse().getHeader(HttpHeaders.ETAG);
+        statistics.clear();
+
+        mockMvc.perform(get("/meals/user/" + userId).header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified());
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void conditionalGet_WhenCollectionChanged_ShouldReturnNewETag() throws Exception {
+        String eTag = performToEnd(get("/meals/user/" + userId)).getResponse().getHeader(HttpHeaders.ETAG);
+        String userETag = mockMvc.perform(get("/users/" + userId))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(put("/meals/" + mealId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Soup\",\"calories\":300}"))
+                .andExpect(status().isOk());
+
+        MvcResult changed = performToEnd(get("/meals/user/" + userId).header(HttpHeaders.IF_NONE_MATCH, eTag));
+        assertEquals(200, changed.getResponse().getStatus());
+        assertNotEquals(eTag, changed.getResponse().getHeader(HttpHeaders.ETAG));
+        // Изменение коллекции не меняет версию самого пользователя
+        mockMvc.perform(get("/users/" + userId).header(HttpHeaders.IF_NONE_MATCH, userETag))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void collectionVersion_ShouldGrowOncePerStatementAndUser() {
+        long initial = mealsVersion();
+
+        jdbcTemplate.update("INSERT INTO meals (name, calories, user_id) VALUES ('Soup', 200, ?), ('Salad', 150, ?), " +
+                "('Tea', 10, ?)", userId, userId, userId);
+        assertEquals(initial + 1, mealsVersion());
+
+        jdbcTemplate.update("UPDATE meals SET calories = calories + 1 WHERE user_id = ?", userId);
+        assertEquals(initial + 2, mealsVersion());
+
+        // Как при каскадном удалении пользователя: все его приёмы пищи — одним оператором
+        jdbcTemplate.update("DELETE FROM meals WHERE user_id = ?", userId);
+        assertEquals(initial + 3, mealsVersion());
+    }
+
+    @Test
+    void updateMeal_ShouldRunOneStatementInOneTransaction() throws Exception {
+        mockMvc.perform(put("/meals/" + mealId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Soup\",\"calories\":300}"))
+                .andExpect(status().isOk());
+
+        assertEquals(1, statistics.getTransactionCount());
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void updateWorkout_ShouldRecalculateCaloriesFromOwnerWeightInOneStatement() throws Exception {
+        mockMvc.perform(put("/workouts/" + workoutId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"running\",\"duration\":45}"))
+                .andExpect(status().isOk());
+
+        assertEquals(1, statistics.getTransactionCount());
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+
+        // Расчёт в SQL совпадает с CalorieCalculator: MET 9.8 × 65 кг × 45 мин / 60 = 477.75 → 478
+        int expected = new CalorieCalculator().calculateCaloriesBurned("Running", 45, 65);
+        assertEquals(478, expected);
+        assertEquals(expected, jdbcTemplate.queryForObject(
+                "SELECT calories_burned FROM workouts WHERE id = ?", Integer.class, workoutId));
+        assertEquals(expected, jdbcTemplate.queryForObject(
+                "SELECT calories_burned FROM user_balances WHERE user_id = ?", Integer.class, userId));
+    }
+
+    @Test
+    void updateWorkout_WhenCaloriesAreJustBelowHalf_ShouldRoundLikeCalorieCalculator() throws Exception {
+        // MET 7.0 × 46.8 кг × 25 мин / 60 в double — 136.49999999999997: Math.round даёт 136,
+        // а round(x::numeric) после приведения к 15 значащим цифрам дал бы 137
+        jdbcTemplate.update("UPDATE users SET weight = 46.8 WHERE id = ?", userId);
+        mockMvc.perform(put("/workouts/" + workoutId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Jogging\",\"duration\":25}"))
+                .andExpect(status().isOk());
+
+        int expected = new CalorieCalculator().calculateCaloriesBurned("Jogging", 25, 46.8);
+        assertEquals(136, expected);
+        assertEquals(expected, jdbcTemplate.queryForObject(
+                "SELECT calories_burned FROM workouts WHERE id = ?", Integer.class, workoutId));
+        assertEquals(expected, jdbcTemplate.queryForObject(
+                "SELECT calories_burned FROM user_balances WHERE user_id = ?", Integer.class, userId));
+
+        // Ровно половина округляется вверх, как в Math.round: MET 3.0 × 70 кг × 1 мин / 60 = 3.5 → 4
+        jdbcTemplate.update("UPDATE users SET weight = 70 WHERE id = ?", userId);
+        mockMvc.perform(put("/workouts/" + workoutId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Pilates\",\"duration\":1}"))
+                .andExpect(status().isOk());
+
+        assertEquals(new CalorieCalculator().calculateCaloriesBurned("Pilates", 1, 70), jdbcTemplate.queryForObject(
+                "SELECT calories_burned FROM workouts WHERE id = ?", Integer.class, workoutId));
+    }
+
+    @Test
+    void updateUser_WhenUserIsInSecondLevelCache_ShouldReadRowAndRefreshCache() throws Exception {
+        mockMvc.perform(get("/users/" + userId)).andExpect(status().isOk());
+        statistics.clear();
+
+        mockMvc.perform(put("/users/" + userId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Alicia\",\"age\":26,\"weight\":64,\"height\":170}"))
+                .andExpect(status().isOk());
+
+        // Версия для If-Match и UPDATE берётся из строки: SELECT мимо кэша и UPDATE
+        assertEquals(0, statistics.getSecondLevelCacheHitCount());
+        assertEquals(2, statistics.getPrepareStatementCount());
+
+        // Кэш второго уровня обновлён вместе со строкой: ни тело, ни версия для ETag не требуют запроса
+        statistics.clear();
+        mockMvc.perform(get("/users/" + userId))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1\""))
+                .andExpect(jsonPath("$.name", is("Alicia")));
+        assertEquals(1, statistics.getSecondLevelCacheHitCount());
+        assertEquals(0, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void updateUser_WhenSecondLevelCacheHoldsStaleVersion_ShouldAcceptIfMatchOfCurrentRow() throws Exception {
+        mockMvc.perform(get("/users/" + userId)).andExpect(status().isOk());
+        // Строку изменили мимо этого экземпляра приложения: в кэше второго уровня осталась версия 0
+        jdbcTemplate.update("UPDATE users SET version = version + 1 WHERE id = ?", userId);
+
+        mockMvc.perform(put("/users/" + userId)
+                        .header(HttpHeaders.IF_MATCH, "\"1\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Alicia\",\"age\":26,\"weight\":64,\"height\":170}"))
+                .andExpect(status().isOk());
+
+        assertEquals(2L, jdbcTemplate.queryForObject("SELECT version FROM users WHERE id = ?", Long.class, userId));
+    }
+
+    @Test
+    void getUser_WhenUsersCacheHoldsPreUpdateBody_ShouldServeBodyOfETagVersion() throws Exception {
+        mockMvc.perform(put("/users/" + userId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Alicia\",\"age\":26,\"weight\":64,\"height\":170}"))
+                .andExpect(status().isOk());
+        // Промах кэша, начатый до обновления, кладёт старое тело уже после очистки записи
+        cacheManager.getCache(CacheNames.USERS).put(userId, new UserDTO("Alice", 25, 65, 170));
+
+        mockMvc.perform(get("/users/" + userId))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1\""))
+                .andExpect(jsonPath("$.name", is("Alicia")));
+    }
+
+    @Test
+    void userList_ShouldNotPopulateSecondLevelCache() throws Exception {
+        mockMvc.perform(get("/users")).andExpect(status().isOk());
+        mockMvc.perform(get("/users/" + userId + "/profile")).andExpect(status().isOk());
+
+        assertEquals(0, statistics.getSecondLevelCachePutCount());
+        assertFalse(entityManagerFactory.getCache().contains(User.class, userId));
+    }
+
+    @Test
+    void mealWrites_ShouldNotEvictUserFromSecondLevelCache() throws Exception {
+        mockMvc.perform(get("/users/" + userId)).andExpect(status().isOk());
+
+        // Нативные изменения баланса и CTE с приёмами пищи объявляют свои таблицы и не очищают регион user
+        mockMvc.perform(post("/meals/user/" + userId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Salad\",\"calories\":200}"))
+                .andExpect(status().isCreated());
+        mockMvc.perform(put("/meals/" + mealId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Oatmeal\",\"calories\":350}"))
+                .andExpect(status().isOk());
+        assertTrue(entityManagerFactory.getCache().contains(User.class, userId));
+
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+        statistics.clear();
+        mockMvc.perform(get("/users/" + userId)).andExpect(status().isOk());
+        assertEquals(1, statistics.getSecondLevelCacheHitCount());
+        assertEquals(0, statistics.getSecondLevelCacheMissCount());
+    }
+
+    @Test
+    void deleteUser_ShouldRunFixedStatementsInOneTransactionAndUpdateSuggestions() throws Exception {
+        // Данные вставлены мимо сервисов: индекс подсказок строится по ним заново
+        nameSuggestionService.rebuild();
+        assertFalse(nameSuggestionService.suggestMealNames("pas", 10).isEmpty());
+        statistics.clear();
+
+        mockMvc.perform(delete("/users/" + userId))
+                .andExpect(status().isOk());
+
+        // Блокировка пользователя, названия приёмов пищи и тренировок, DELETE с каскадом
+        assertEquals(1, statistics.getTransactionCount());
+        assertEquals(4, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+        assertEquals(0, statistics.getCollectionLoadCount());
+        assertTrue(nameSuggestionService.suggestMealNames("pas", 10).isEmpty());
+        assertTrue(nameSuggestionService.suggestWorkoutNames("run", 10).isEmpty());
+    }
+
+    @Test
+    void createMeal_ShouldRunInOneTransaction() throws Exception {
+        mockMvc.perform(post("/meals/user/" + userId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Salad\",\"calories\":200}"))
+                .andExpect(status().isCreated());
+
+        assertEquals(1, statistics.getTransactionCount());
+        assertEquals(1, statistics.getSuccessfulTransactionCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void createUserWithHistory_ShouldBatchInsertsInOneTransaction() throws Exception {
+        mockMvc.perform(post("/users")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Bob\",\"age\":30,\"weight\":70,\"height\":180," +
+                                "\"meals\":[{\"name\":\"Pasta\",\"calories\":500},{\"name\":\"Salad\",\"calories\":200}," +
+                                "{\"name\":\"Soup\",\"calories\":300}]," +
+                                "\"workouts\":[{\"name\":\"Running\",\"duration\":30},{\"name\":\"Cycling\",\"duration\":60}]}"))
+                .andExpect(status().isCreated());
+
+        assertEquals(1, statistics.getTransactionCount());
+        assertEquals(6, statistics.getEntityInsertCount());
+        // По одному пакетному INSERT на таблицу, INSERT баланса и не более трёх обращений к последовательностям —
+        // число операторов не зависит от размера истории
+        assertTrue(statistics.getPrepareStatementCount() <= 7, "statements: " + statistics.getPrepareStatementCount());
+
+        Long newUserId = jdbcTemplate.queryForObject("SELECT id FROM users WHERE name = 'Bob'", Long.class);
+        assertEquals(3, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM meals WHERE user_id = ?", Integer.class, newUserId));
+        // 9.8 MET × 70 кг × 0.5 ч + 7.5 MET × 70 кг × 1 ч
+        assertEquals(List.of(1000L, 868L), jdbcTemplate.queryForObject(
+                "SELECT calories_consumed, calories_burned FROM user_balances WHERE user_id = ?",
+                (rs, rowNum) -> List.of(rs.getLong(1), rs.getLong(2)), newUserId));
+    }
+
+    private long mealsVersion() {
+        return jdbcTemplate.queryForObject("SELECT meals_version FROM users WHERE id = ?", Long.class, userId);
+    }
+
+    private void assertReadOverhead(String uri, int expectedStatements) throws Exception {
+        statistics.clear();
+
+        assertEquals(200, performToEnd(get(uri)).getResponse().getStatus(), "status for " + uri);
+
+        assertEquals(0, statistics.getFlushCount(), "flushes for " + uri);
+        assertEquals(expectedStatements, statistics.getTransactionCount(), "transactions for " + uri);
+        assertEquals(expectedStatements, statistics.getPrepareStatementCount(), "statements for " + uri);
+    }
+
+    /**
+     * Выполняет запрос и, если тело пишется потоком (StreamingResponseBody), дожидается конца записи —
+     * иначе запросы к БД из потока ответа попадали бы в статистику следующего шага.
+     */
+    private MvcResult performToEnd(MockHttpServletRequestBuilder request) throws Exception {
+        MvcResult result = mockMvc.perform(request).andReturn();
+        if (result.getRequest().isAsyncStarted()) {
+            return mockMvc.perform(asyncDispatch(result)).andReturn();
+        }
+        return result;
+    }
+}
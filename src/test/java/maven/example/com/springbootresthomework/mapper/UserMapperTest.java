@@ -1,7 +1,62 @@
 package maven.example.com.springbootresthomework.mapper;
 
+import maven.example.com.springbootresthomework.dto.MealDTO;
+import maven.example.com.springbootresthomework.dto.UserCreateDTO;
+import maven.example.com.springbootresthomework.dto.UserDTO;
+import maven.example.com.springbootresthomework.dto.UserProfileDTO;
+import maven.example.com.springbootresthomework.dto.WorkoutDTO;
+import maven.example.com.springbootresthomework.entity.Meal;
+import maven.example.com.springbootresthomework.entity.User;
+import maven.example.com.springbootresthomework.entity.Workout;
+import maven.example.com.springbootresthomework.util.CalorieCalculator;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 class UserMapperTest {
 
-}
\ No newline at end of file
+    private final UserMapper userMapper =
+            new UserMapper(new MealMapper(), new WorkoutMapper(new CalorieCalculator()));
+
+    @Test
+    void toEntity_WithHistory_ShouldLinkMealsAndWorkoutsToNewUser() {
+        UserCreateDTO userDTO = new UserCreateDTO("Alice", 25, 70, 170,
+                List.of(new MealDTO("Pasta", 500, 42L)), List.of(new WorkoutDTO("Running", 30)));
+
+        User user = userMapper.toEntity(userDTO);
+
+        assertNull(user.getId());
+        assertEquals(1, user.getMeals().size());
+        assertSame(user, user.getMeals().get(0).getUser());
+        assertEquals(500, user.getMeals().get(0).getCalories());
+        assertEquals(1, user.getWorkouts().size());
+        assertSame(user, user.getWorkouts().get(0).getUser());
+        // 9.8 MET × 70 кг × 0.5 ч: калории считаются по весу из того же запроса
+        assertEquals(343, user.getWorkouts().get(0).getCaloriesBurned());
+    }
+
+    @Test
+    void toEntity_WithoutHistory_ShouldReturnEmptyCollections() {
+        User user = userMapper.toEntity(new UserCreateDTO("Alice", 25, 70, 170, null, null));
+
+        assertEquals("Alice", user.getName());
+        assertTrue(user.getMeals().isEmpty());
+        assertTrue(user.getWorkouts().isEmpty());
+    }
+
+    @Test
+    void toProfileDTO_ShouldMapUserAndCollections() {
+        User user = new User(1L, "Alice", 25, 70, 170, new ArrayList<>(), new ArrayList<>(), 0L);
+        user.getMeals().add(new Meal(10L, "Pasta", 500, user));
+        user.getWorkouts().add(new Workout(20L, "Running", 30, 343, user));
+
+        UserProfileDTO profile = userMapper.toProfileDTO(user);
+
+        assertEquals(new UserDTO("Alice", 25, 70, 170), profile.getUser());
+        assertEquals(List.of(new MealDTO("Pasta", 500, 1L)), profile.getMeals());
+        assertEquals(List.of(new WorkoutDTO("Running", 30)), profile.getWorkouts());
+    }
+}
@@ -0,0 +1,106 @@
+package maven.example.com.springbootresthomework.metrics;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityNotFoundException;
+import maven.example.com.springbootresthomework.mapper.MealMapper;
+import maven.example.com.springbootresthomework.repository.MealRepository;
+import maven.example.com.springbootresthomework.repository.UserRepository;
+import maven.example.com.springbootresthomework.repository.projection.MealView;
+import maven.example.com.springbootresthomework.service.BalanceService;
+import maven.example.com.springbootresthomework.service.MealService;
+import maven.example.com.springbootresthomework.service.NameSuggestionService;
+import maven.example.com.springbootresthomework.service.UserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CallTimingAspectTest {
+
+    @Mock
+    private MealRepository mealRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private MealMapper mealMapper;
+
+    @Mock
+    private BalanceService balanceService;
+
+    @Mock
+    private UserService userService;
+
+    @Mock
+    private NameSuggestionService nameSuggestionService;
+
+    private SimpleMeterRegistry meterRegistry;
+    private MealService mealService;
+
+    // Тестовые данные
+    private static final Long VALID_MEAL_ID = 10L;
+    private static final Long INVALID_ID = 999L;
+    private static final String OPERATION = "MealService.getMealById";
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+
+        AspectJProxyFactory proxyFactory = new AspectJProxyFactory(
+                new MealService(mealRepository, userRepository, mealMapper, balanceService, userService,
+                        nameSuggestionService));
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAspect(new CallTimingAspect(meterRegistry));
+        mealService = proxyFactory.getProxy();
+    }
+
+    @Test
+    void timeService_WhenCallSucceeds_ShouldRecordOk() {
+        when(mealRepository.findViewById(VALID_MEAL_ID))
+                .thenReturn(Optional.of(new MealView(VALID_MEAL_ID, "Pasta", 500, 1L)));
+
+        mealService.getMealById(VALID_MEAL_ID);
+
+        assertEquals(1, timer(CallTimingAspect.OUTCOME_OK).count());
+    }
+
+    @Test
+    void timeService_WhenEntityNotFound_ShouldRecordNotFound() {
+        when(mealRepository.findViewById(INVALID_ID)).thenReturn(Optional.empty());
+
+        assertThrows(EntityNotFoundException.class, () -> mealService.getMealById(INVALID_ID));
+
+        assertEquals(1, timer(CallTimingAspect.OUTCOME_NOT_FOUND).count());
+        assertNull(meterRegistry.find(CallTimingAspect.SERVICE_TIMER).tag("outcome", CallTimingAspect.OUTCOME_OK).timer());
+    }
+
+    @Test
+    void timeService_WhenCallFails_ShouldRecordErrorAndRethrow() {
+        when(mealRepository.findViewById(VALID_MEAL_ID)).thenThrow(new IllegalStateException("connection lost"));
+
+        IllegalStateException exception = assertThrows(IllegalStateException.class, () ->
+                mealService.getMealById(VALID_MEAL_ID));
+
+        assertEquals("connection lost", exception.getMessage());
+        assertEquals(1, timer(CallTimingAspect.OUTCOME_ERROR).count());
+    }
+
+    private Timer timer(String outcome) {
+        Timer timer = meterRegistry.find(CallTimingAspect.SERVICE_TIMER)
+                .tag("operation", OPERATION)
+                .tag("outcome", outcome)
+                .timer();
+        assertNotNull(timer, "timer for outcome " + outcome);
+        return timer;
+    }
+}
@@ -0,0 +1,130 @@
+package maven.example.com.springbootresthomework.reactive;
+
+import maven.example.com.springbootresthomework.dto.MealDTO;
+import maven.example.com.springbootresthomework.dto.WorkoutDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReactiveReadRoutesTest {
+
+    @Mock
+    private ReactiveMealRepository mealRepository;
+
+    @Mock
+    private ReactiveWorkoutRepository workoutRepository;
+
+    @Mock
+    private ReactiveUserRepository userRepository;
+
+    private WebTestClient client;
+
+    // Тестовые данные
+    private static final Long VALID_USER_ID = 1L;
+    private static final Long VALID_MEAL_ID = 10L;
+    private static final Long INVALID_ID = 999L;
+
+    private static final MealRow TEST_MEAL_ROW = new MealRow(VALID_MEAL_ID, "Pasta", 500, VALID_USER_ID);
+    private static final WorkoutRow TEST_WORKOUT_ROW = new WorkoutRow(20L, "Running", 30, VALID_USER_ID);
+
+    @BeforeEach
+    void setUp() {
+        ReactiveMealHandler mealHandler = new ReactiveMealHandler(mealRepository, userRepository);
+        ReactiveWorkoutHandler workoutHandler = new ReactiveWorkoutHandler(workoutRepository, userRepository);
+
+        client = WebTestClient
+                .bindToRouterFunction(new ReactiveReadServerConfig().reactiveReadRoutes(mealHandler, workoutHandler))
+                .build();
+    }
+
+    @Test
+    void getAllMeals_ShouldReturnPageWithNextCursor() {
+        MealRow secondRow = new MealRow(11L, "Soup", 200, VALID_USER_ID);
+        when(mealRepository.findByIdGreaterThanOrderByIdAsc(eq(0L), any(Pageable.class)))
+                .thenReturn(Flux.just(TEST_MEAL_ROW, secondRow));
+
+        client.get().uri("/meals?limit=1")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.items.length()").isEqualTo(1)
+                .jsonPath("$.items[0].name").isEqualTo("Pasta")
+                .jsonPath("$.nextCursor").isEqualTo(VALID_MEAL_ID.intValue());
+    }
+
+    @Test
+    void getAllMeals_WhenLimitIsOutOfRange_ShouldReturnBadRequest() {
+        client.get().uri("/meals?limit=0")
+                .exchange()
+                .expectStatus().isBadRequest();
+
+        verifyNoInteractions(mealRepository);
+    }
+
+    @Test
+    void getMealById_WhenMealExist_ShouldReturnMeal() {
+        when(mealRepository.findById(VALID_MEAL_ID)).thenReturn(Mono.just(TEST_MEAL_ROW));
+
+        client.get().uri("/meals/{id}", VALID_MEAL_ID)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(MealDTO.class).isEqualTo(TEST_MEAL_ROW.toDTO());
+    }
+
+    @Test
+    void getMealById_WhenMealDoesNotExist_ShouldReturnNotFound() {
+        when(mealRepository.findById(INVALID_ID)).thenReturn(Mono.empty());
+
+        client.get().uri("/meals/{id}", INVALID_ID)
+                .exchange()
+                .expectStatus().isNotFound()
+                .expectBody(String.class).isEqualTo("Meal not found");
+    }
+
+    @Test
+    void getMealsByUserId_WhenNdjsonAccepted_ShouldStreamMeals() {
+        when(userRepository.existsById(VALID_USER_ID)).thenReturn(Mono.just(true));
+        when(mealRepository.findByUserIdOrderByIdAsc(VALID_USER_ID)).thenReturn(Flux.just(TEST_MEAL_ROW));
+
+        client.get().uri("/meals/user/{userId}", VALID_USER_ID)
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .expectBodyList(MealDTO.class).hasSize(1).contains(TEST_MEAL_ROW.toDTO());
+    }
+
+    @Test
+    void getMealsByUserId_WhenUserDoesNotExist_ShouldReturnNotFound() {
+        when(userRepository.existsById(INVALID_ID)).thenReturn(Mono.just(false));
+
+        client.get().uri("/meals/user/{userId}", INVALID_ID)
+                .exchange()
+                .expectStatus().isNotFound()
+                .expectBody(String.class).isEqualTo("User not found");
+
+        verify(mealRepository, never()).findByUserIdOrderByIdAsc(any());
+    }
+
+    @Test
+    void getWorkoutsByUserId_WhenUserExist_ShouldReturnJsonArray() {
+        when(userRepository.existsById(VALID_USER_ID)).thenReturn(Mono.just(true));
+        when(workoutRepository.findByUserIdOrderByIdAsc(VALID_USER_ID)).thenReturn(Flux.just(TEST_WORKOUT_ROW));
+
+        client.get().uri("/workouts/user/{userId}", VALID_USER_ID)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_JSON)
+                .expectBodyList(WorkoutDTO.class).hasSize(1).contains(TEST_WORKOUT_ROW.toDTO());
+    }
+}
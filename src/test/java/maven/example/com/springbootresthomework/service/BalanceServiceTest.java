@@ -0,0 +1,147 @@
+package maven.example.com.springbootresthomework.service;
+
+import jakarta.persistence.EntityNotFoundException;
+import maven.example.com.springbootresthomework.dto.BalanceDTO;
+import maven.example.com.springbootresthomework.entity.UserBalance;
+import maven.example.com.springbootresthomework.repository.UserBalanceRepository;
+import maven.example.com.springbootresthomework.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BalanceServiceTest {
+
+    @Mock
+    private UserBalanceRepository userBalanceRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private BalanceService balanceService;
+
+    // Тестовые данные
+    private static final Long VALID_USER_ID = 1L;
+    private static final Long INVALID_ID = 999L;
+    private static final int CHUNK_SIZE = 2;
+
+    @BeforeEach
+    void setUp() {
+        balanceService = new BalanceService(userBalanceRepository, userRepository, transactionManager, CHUNK_SIZE);
+    }
+
+    @Test
+    void getBalance_WhenBalanceExists_ShouldReturnTotalsAndNet() {
+        when(userBalanceRepository.findById(VALID_USER_ID))
+                .thenReturn(Optional.of(new UserBalance(VALID_USER_ID, 1200, 450)));
+
+        BalanceDTO balance = balanceService.getBalance(VALID_USER_ID);
+
+        assertEquals(new BalanceDTO(1200, 450, 750), balance);
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void getBalance_WhenBalanceRowIsMissing_ShouldReturnZeros() {
+        when(userBalanceRepository.findById(VALID_USER_ID)).thenReturn(Optional.empty());
+        when(userRepository.existsById(VALID_USER_ID)).thenReturn(true);
+
+        BalanceDTO balance = balanceService.getBalance(VALID_USER_ID);
+
+        assertEquals(new BalanceDTO(0, 0, 0), balance);
+    }
+
+    @Test
+    void getBalance_WhenUserDoesNotExist_ShouldThrowException() {
+        when(userBalanceRepository.findById(INVALID_ID)).thenReturn(Optional.empty());
+        when(userRepository.existsById(INVALID_ID)).thenReturn(false);
+
+        EntityNotFoundException exception = assertThrows(EntityNotFoundException.class, () ->
+                balanceService.getBalance(INVALID_ID));
+
+        assertEquals("User not found", exception.getMessage());
+    }
+
+    @Test
+    void addCaloriesConsumed_WhenDeltaIsZero_ShouldSkipUpdate() {
+        balanceService.addCaloriesConsumed(VALID_USER_ID, 0);
+
+        verifyNoInteractions(userBalanceRepository);
+    }
+
+    @Test
+    void addCaloriesBurned_ShouldApplyDelta() {
+        balanceService.addCaloriesBurned(VALID_USER_ID, -300);
+
+        verify(userBalanceRepository, times(1)).addCaloriesBurned(VALID_USER_ID, -300);
+    }
+
+    @Test
+    void reconcile_WhenBalancesMatch_ShouldNotRebuild() {
+        when(userBalanceRepository.findDriftedUserIds()).thenReturn(List.of());
+
+        List<Long> drifted = balanceService.reconcile();
+
+        assertTrue(drifted.isEmpty());
+        verify(userBalanceRepository, never()).lockByUserIds(anyList());
+        verify(userBalanceRepository, never()).rebuild(anyList());
+        verifyNoInteractions(transactionManager);
+    }
+
+    @Test
+    void reconcile_WhenDriftFound_ShouldLockThenRebuildAndReportUsers() {
+        when(userBalanceRepository.findDriftedUserIds()).thenReturn(List.of(VALID_USER_ID));
+        when(userBalanceRepository.rebuild(List.of(VALID_USER_ID))).thenReturn(List.of(VALID_USER_ID));
+
+        List<Long> drifted = balanceService.reconcile();
+
+        assertEquals(List.of(VALID_USER_ID), drifted);
+        InOrder inOrder = inOrder(userBalanceRepository);
+        inOrder.verify(userBalanceRepository).createMissing(List.of(VALID_USER_ID));
+        inOrder.verify(userBalanceRepository).lockByUserIds(List.of(VALID_USER_ID));
+        inOrder.verify(userBalanceRepository).rebuild(List.of(VALID_USER_ID));
+    }
+
+    @Test
+    void reconcile_WhenDriftResolvedBeforeLock_ShouldReportNothing() {
+        when(userBalanceRepository.findDriftedUserIds()).thenReturn(List.of(VALID_USER_ID));
+        when(userBalanceRepository.rebuild(List.of(VALID_USER_ID))).thenReturn(List.of());
+
+        List<Long> drifted = balanceService.reconcile();
+
+        assertTrue(drifted.isEmpty());
+    }
+
+    @Test
+    void reconcile_WhenDriftExceedsChunk_ShouldRebuildEachChunkInOwnTransaction() {
+        when(userBalanceRepository.findDriftedUserIds()).thenReturn(List.of(1L, 2L, 3L));
+        when(userBalanceRepository.rebuild(List.of(1L, 2L))).thenReturn(List.of(2L));
+        when(userBalanceRepository.rebuild(List.of(3L))).thenReturn(List.of(3L));
+
+        List<Long> drifted = balanceService.reconcile();
+
+        assertEquals(List.of(2L, 3L), drifted);
+        InOrder inOrder = inOrder(transactionManager, userBalanceRepository);
+        inOrder.verify(transactionManager).getTransaction(any());
+        inOrder.verify(userBalanceRepository).lockByUserIds(List.of(1L, 2L));
+        inOrder.verify(userBalanceRepository).rebuild(List.of(1L, 2L));
+        inOrder.verify(transactionManager).commit(any());
+        inOrder.verify(transactionManager).getTransaction(any());
+        inOrder.verify(userBalanceRepository).lockByUserIds(List.of(3L));
+        inOrder.verify(userBalanceRepository).rebuild(List.of(3L));
+        inOrder.verify(transactionManager).commit(any());
+    }
+}
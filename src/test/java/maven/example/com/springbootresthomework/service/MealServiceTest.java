@@ -2,20 +2,27 @@ package maven.example.com.springbootresthomework.service;
 
 import jakarta.persistence.EntityNotFoundException;
 import maven.example.com.springbootresthomework.dto.MealDTO;
+import maven.example.com.springbootresthomework.dto.PageDTO;
 import maven.example.com.springbootresthomework.entity.Meal;
 import maven.example.com.springbootresthomework.entity.User;
+import maven.example.com.springbootresthomework.exception.VersionMismatchException;
 import maven.example.com.springbootresthomework.mapper.MealMapper;
 import maven.example.com.springbootresthomework.repository.MealRepository;
 import maven.example.com.springbootresthomework.repository.UserRepository;
+import maven.example.com.springbootresthomework.repository.projection.MealView;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -32,6 +39,15 @@ class MealServiceTest {
     @Mock
     private MealMapper mealMapper;
 
+    @Mock
+    private BalanceService balanceService;
+
+    @Mock
+    private UserService userService;
+
+    @Mock
+    private NameSuggestionService nameSuggestionService;
+
     @InjectMocks
     private MealService mealService;
 
@@ -39,139 +55,235 @@ class MealServiceTest {
     private static final Long VALID_USER_ID = 1L;
     private static final Long VALID_MEAL_ID = 10L;
     private static final Long INVALID_ID = 999L;
+    private static final int PAGE_LIMIT = 20;
 
-    private static final User TEST_USER = new User(VALID_USER_ID, "Alice", 25, 65, 170, null, null);
+    private static final User TEST_USER = new User(VALID_USER_ID, "Alice", 25, 65, 170, null, null, null);
     private static final Meal TEST_MEAL = new Meal(VALID_MEAL_ID, "Pasta", 500, TEST_USER);
     private static final MealDTO TEST_MEAL_DTO = new MealDTO("Pasta", 500, VALID_USER_ID);
+    private static final MealView TEST_MEAL_VIEW = new MealView(VALID_MEAL_ID, "Pasta", 500, VALID_USER_ID);
 
     @BeforeEach
     void setUp() {
-        lenient().when(mealMapper.toDTO(TEST_MEAL)).thenReturn(TEST_MEAL_DTO);
         lenient().when(mealMapper.toEntity(TEST_MEAL_DTO, TEST_USER)).thenReturn(TEST_MEAL);
-        lenient().when(userRepository.existsById(VALID_USER_ID)).thenReturn(true);
+        lenient().when(userService.existsById(VALID_USER_ID)).thenReturn(true);
+    }
+
+    @Test
+    void getAllMeals_ShouldReturnPageAfterCursor() {
+        when(mealRepository.findViewsAfter(eq(VALID_MEAL_ID), any(Pageable.class))).thenReturn(List.of(TEST_MEAL_VIEW));
+
+        PageDTO<MealDTO> expectedPage = mealService.getAllMeals(VALID_MEAL_ID, PAGE_LIMIT);
+
+        assertEquals(1, expectedPage.getItems().size());
+        assertEquals(TEST_MEAL_DTO.getName(), expectedPage.getItems().get(0).getName());
+        assertEquals(TEST_MEAL_DTO.getCalories(), expectedPage.getItems().get(0).getCalories());
+        assertNull(expectedPage.getNextCursor());
+
+        verifyNoInteractions(mealMapper);
+    }
+
+    @Test
+    void getAllMeals_WhenLimitIsOutOfRange_ShouldThrowException() {
+        assertThrows(IllegalArgumentException.class, () -> mealService.getAllMeals(null, 0));
+
+        verifyNoInteractions(mealRepository);
     }
 
     @Test
-    void getAllMeals_ShouldReturnAllMeals() {
-        when(mealRepository.findAll()).thenReturn(List.of(TEST_MEAL));
+    void exportMeals_ShouldPassEveryRowToAction() {
+        when(mealRepository.streamAll()).thenReturn(Stream.of(TEST_MEAL_VIEW));
+        List<MealDTO> exported = new ArrayList<>();
+
+        mealService.exportMeals(exported::add);
 
-        List<MealDTO> expectedMeals = mealService.getAllMeals();
+        assertEquals(List.of(TEST_MEAL_DTO), exported);
+        verify(mealRepository, times(1)).streamAll();
+    }
+
+    @Test
+    void streamMealsByUserId_ShouldPassEveryRowToActionAndCloseStream() {
+        List<String> events = new ArrayList<>();
+        when(mealRepository.streamViewsByUserId(VALID_USER_ID))
+                .thenReturn(Stream.of(TEST_MEAL_VIEW).onClose(() -> events.add("closed")));
+        List<MealDTO> streamed = new ArrayList<>();
 
-        assertFalse(expectedMeals.isEmpty());
-        assertEquals(1, expectedMeals.size());
-        assertEquals(TEST_MEAL_DTO.getName(), expectedMeals.get(0).getName());
-        assertEquals(TEST_MEAL_DTO.getCalories(), expectedMeals.get(0).getCalories());
+        mealService.streamMealsByUserId(VALID_USER_ID, streamed::add);
 
-        verify(mealMapper, times(1)).toDTO(TEST_MEAL);
+        assertEquals(List.of(TEST_MEAL_DTO), streamed);
+        assertEquals(List.of("closed"), events);
+        verifyNoInteractions(userService);
     }
 
     @Test
-    void getMealsByUserId_WhenUserExist_ShouldReturnMeals() {
-        when(mealRepository.findByUserId(VALID_USER_ID)).thenReturn(List.of(TEST_MEAL));
+    void streamMealsByUserId_WhenUserHasNoMeals_ShouldNotCallAction() {
+        when(mealRepository.streamViewsByUserId(VALID_USER_ID)).thenReturn(Stream.empty());
+        List<MealDTO> streamed = new ArrayList<>();
 
-        List<MealDTO> expectedMeals = mealService.getMealsByUserId(VALID_USER_ID);
+        mealService.streamMealsByUserId(VALID_USER_ID, streamed::add);
 
-        assertFalse(expectedMeals.isEmpty());
-        assertEquals(1, expectedMeals.size());
-        assertEquals(TEST_MEAL_DTO.getName(), expectedMeals.get(0).getName());
-        assertEquals(TEST_MEAL_DTO.getCalories(), expectedMeals.get(0).getCalories());
+        assertTrue(streamed.isEmpty());
+    }
+
+    @Test
+    void getMealsVersionByUserId_WhenUserExist_ShouldReturnCounter() {
+        when(userRepository.findMealsVersionById(VALID_USER_ID)).thenReturn(Optional.of(7L));
 
-        verify(userRepository, times(1)).existsById(VALID_USER_ID);
-        verify(mealRepository, times(1)).findByUserId(VALID_USER_ID);
+        assertEquals(7L, mealService.getMealsVersionByUserId(VALID_USER_ID));
+        verifyNoInteractions(mealRepository);
     }
 
     @Test
-    void getMealsByUserId_WhenUserDoesNotExist_ShouldReturnThrowException() {
-        when(userRepository.existsById(INVALID_ID)).thenReturn(false);
+    void getMealsVersionByUserId_WhenUserDoesNotExist_ShouldThrowException() {
+        when(userRepository.findMealsVersionById(INVALID_ID)).thenReturn(Optional.empty());
 
         EntityNotFoundException exception = assertThrows(EntityNotFoundException.class, () ->
-                mealService.getMealsByUserId(INVALID_ID));
+                mealService.getMealsVersionByUserId(INVALID_ID));
 
         assertEquals("User not found", exception.getMessage());
-        verify(userRepository, times(1)).existsById(INVALID_ID);
+    }
+
+    @Test
+    void getMealVersion_WhenMealDoesNotExist_ShouldThrowException() {
+        when(mealRepository.findVersionById(INVALID_ID)).thenReturn(Optional.empty());
+
+        EntityNotFoundException exception = assertThrows(EntityNotFoundException.class, () ->
+                mealService.getMealVersion(INVALID_ID));
+
+        assertEquals("Meal not found", exception.getMessage());
     }
 
     @Test
     void getMealById_WhenMealExist_ShouldReturnMealDTO() {
-        when(mealRepository.findById(VALID_MEAL_ID)).thenReturn(Optional.of(TEST_MEAL));
+        when(mealRepository.findViewById(VALID_MEAL_ID)).thenReturn(Optional.of(TEST_MEAL_VIEW));
 
         MealDTO expectedMeal = mealService.getMealById(VALID_MEAL_ID);
 
         assertNotNull(expectedMeal);
         assertEquals(TEST_MEAL_DTO.getName(), expectedMeal.getName());
-        verify(mealRepository, times(1)).findById(VALID_MEAL_ID);
+        assertEquals(VALID_USER_ID, expectedMeal.getUserId());
+        verify(mealRepository, times(1)).findViewById(VALID_MEAL_ID);
+        verify(mealRepository, never()).findById(any());
     }
 
     @Test
     void getMealById_WhenMealDoesNotExist_ShouldReturnThrowException() {
-        when(mealRepository.findById(INVALID_ID)).thenReturn(Optional.empty());
+        when(mealRepository.findViewById(INVALID_ID)).thenReturn(Optional.empty());
 
         EntityNotFoundException exception = assertThrows(EntityNotFoundException.class, () ->
                 mealService.getMealById(INVALID_ID));
 
         assertEquals("Meal not found", exception.getMessage());
-        verify(mealRepository, times(1)).findById(INVALID_ID);
+        verify(mealRepository, times(1)).findViewById(INVALID_ID);
     }
 
     @Test
     void createMeal_ShouldSaveMeal() {
-        when(userRepository.findById(VALID_USER_ID)).thenReturn(Optional.of(TEST_USER));
+        when(userRepository.getReferenceById(VALID_USER_ID)).thenReturn(TEST_USER);
 
         mealService.createMeal(VALID_USER_ID, TEST_MEAL_DTO);
 
         verify(mealRepository, times(1)).save(TEST_MEAL);
         verify(mealMapper, times(1)).toEntity(TEST_MEAL_DTO, TEST_USER);
+        verify(balanceService, times(1)).addCaloriesConsumed(VALID_USER_ID, 500);
+        verify(nameSuggestionService, times(1)).mealsCreated(List.of("Pasta"));
     }
 
     @Test
     void createMeal_WhenUserDoesNotExist_ShouldThrowException() {
-        when(userRepository.findById(INVALID_ID)).thenReturn(Optional.empty());
+        when(userService.existsById(INVALID_ID)).thenReturn(false);
 
         EntityNotFoundException exception = assertThrows(EntityNotFoundException.class, () ->
                 mealService.createMeal(INVALID_ID, TEST_MEAL_DTO));
 
         assertEquals("User not found", exception.getMessage());
-        verify(userRepository, times(1)).findById(INVALID_ID);
+        verify(userService, times(1)).existsById(INVALID_ID);
+        verify(userRepository, never()).getReferenceById(any());
+        verifyNoInteractions(balanceService);
     }
 
     @Test
-    void updateMeal_ShouldUpdateMeal() {
-        when(mealRepository.findById(VALID_MEAL_ID)).thenReturn(Optional.of(TEST_MEAL));
+    void createMeals_ShouldSaveAllMealsInOneCall() {
+        when(userRepository.getReferenceById(VALID_USER_ID)).thenReturn(TEST_USER);
 
-        mealService.updateMeal(VALID_MEAL_ID, TEST_MEAL_DTO);
+        mealService.createMeals(VALID_USER_ID, List.of(TEST_MEAL_DTO, TEST_MEAL_DTO));
 
-        verify(mealMapper, times(1)).updateEntity(TEST_MEAL, TEST_MEAL_DTO);
-        verify(mealRepository, times(1)).save(TEST_MEAL);
+        verify(mealMapper, times(2)).toEntity(TEST_MEAL_DTO, TEST_USER);
+        verify(mealRepository, times(1)).saveAll(List.of(TEST_MEAL, TEST_MEAL));
+        verify(mealRepository, never()).save(any());
+        verify(balanceService, times(1)).addCaloriesConsumed(VALID_USER_ID, 1000);
+        verify(nameSuggestionService, times(1)).mealsCreated(List.of("Pasta", "Pasta"));
+    }
+
+    @Test
+    void createMeals_WhenUserDoesNotExist_ShouldThrowException() {
+        when(userService.existsById(INVALID_ID)).thenReturn(false);
+
+        EntityNotFoundException exception = assertThrows(EntityNotFoundException.class, () ->
+                mealService.createMeals(INVALID_ID, List.of(TEST_MEAL_DTO)));
+
+        assertEquals("User not found", exception.getMessage());
+        verify(mealRepository, never()).saveAll(any());
+    }
+
+    @Test
+    void updateMeal_ShouldUpdateWithoutLoadingMeal() {
+        when(mealRepository.updateByIdAdjustingBalance(VALID_MEAL_ID, "Pasta", 500, null)).thenReturn(Optional.of("Pasta"));
+
+        mealService.updateMeal(VALID_MEAL_ID, TEST_MEAL_DTO, null);
+
+        verify(mealRepository, times(1)).updateByIdAdjustingBalance(VALID_MEAL_ID, "Pasta", 500, null);
+        verify(mealRepository, never()).findById(any());
+        verify(nameSuggestionService, times(1)).mealRenamed("Pasta", "Pasta");
     }
 
     @Test
     void updateMeal_WhenMealDoesNotExist_ShouldThrowException() {
-        when(mealRepository.findById(INVALID_ID)).thenReturn(Optional.empty());
+        when(mealRepository.updateByIdAdjustingBalance(INVALID_ID, "Pasta", 500, null)).thenReturn(Optional.empty());
+        when(mealRepository.findVersionById(INVALID_ID)).thenReturn(Optional.empty());
 
         EntityNotFoundException exception = assertThrows(EntityNotFoundException.class, () ->
-                mealService.updateMeal(INVALID_ID, TEST_MEAL_DTO));
+                mealService.updateMeal(INVALID_ID, TEST_MEAL_DTO, null));
 
         assertEquals("Meal not found", exception.getMessage());
-        verify(mealRepository, times(1)).findById(INVALID_ID);
     }
 
     @Test
-    void deleteMeal_ShouldDeleteMeal() {
-        when(mealRepository.findById(VALID_MEAL_ID)).thenReturn(Optional.of(TEST_MEAL));
+    void updateMeal_WhenMealChangedConcurrently_ShouldThrowRetryableException() {
+        when(mealRepository.updateByIdAdjustingBalance(VALID_MEAL_ID, "Pasta", 500, null)).thenReturn(Optional.empty());
+        when(mealRepository.findVersionById(VALID_MEAL_ID)).thenReturn(Optional.of(2L));
+
+        assertThrows(ObjectOptimisticLockingFailureException.class, () ->
+                mealService.updateMeal(VALID_MEAL_ID, TEST_MEAL_DTO, null));
+    }
+
+    @Test
+    void updateMeal_WhenExpectedVersionIsStale_ShouldThrowVersionMismatch() {
+        when(mealRepository.updateByIdAdjustingBalance(VALID_MEAL_ID, "Pasta", 500, 1L)).thenReturn(Optional.empty());
+        when(mealRepository.findVersionById(VALID_MEAL_ID)).thenReturn(Optional.of(2L));
+
+        assertThrows(VersionMismatchException.class, () ->
+                mealService.updateMeal(VALID_MEAL_ID, TEST_MEAL_DTO, 1L));
+    }
+
+    @Test
+    void deleteMeal_ShouldDeleteWithoutLoadingMeal() {
+        when(mealRepository.deleteByIdAdjustingBalance(VALID_MEAL_ID)).thenReturn(Optional.of("Pasta"));
 
         mealService.deleteMeal(VALID_MEAL_ID);
 
-        verify(mealRepository, times(1)).delete(TEST_MEAL);
+        verify(mealRepository, times(1)).deleteByIdAdjustingBalance(VALID_MEAL_ID);
+        verify(mealRepository, never()).findById(any());
+        verify(nameSuggestionService, times(1)).mealDeleted("Pasta");
     }
 
     @Test
     void deleteMeal_WhenMealDoesNotExist_ShouldThrowException() {
-        when(mealRepository.findById(INVALID_ID)).thenReturn(Optional.empty());
+        when(mealRepository.deleteByIdAdjustingBalance(INVALID_ID)).thenReturn(Optional.empty());
 
         EntityNotFoundException exception = assertThrows(EntityNotFoundException.class, () ->
                 mealService.deleteMeal(INVALID_ID));
 
         assertEquals("Meal not found", exception.getMessage());
-        verify(mealRepository, times(1)).findById(INVALID_ID);
+        verifyNoInteractions(nameSuggestionService);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,122 @@
+package maven.example.com.springbootresthomework.service;
+
+import maven.example.com.springbootresthomework.constants.CacheNames;
+import maven.example.com.springbootresthomework.dto.UserDTO;
+import maven.example.com.springbootresthomework.entity.User;
+import maven.example.com.springbootresthomework.mapper.UserMapper;
+import maven.example.com.springbootresthomework.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Проверяет кэширующие аннотации UserService через настоящий Spring-прокси.
+ */
+@SpringJUnitConfig(UserServiceCacheTest.CacheTestConfig.class)
+class UserServiceCacheTest {
+
+    @Configuration
+    @EnableCaching
+    @Import(UserService.class)
+    static class CacheTestConfig {
+
+        @Bean
+        CacheManager cacheManager() {
+            return new CaffeineCacheManager(CacheNames.USERS, CacheNames.USER_EXISTS);
+        }
+    }
+
+    @MockitoBean
+    private UserRepository userRepository;
+
+    @MockitoBean
+    private UserMapper userMapper;
+
+    @MockitoBean
+    private BalanceService balanceService;
+
+    @MockitoBean
+    private NameSuggestionService nameSuggestionService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    // Тестовые данные
+    private static final Long VALID_USER_ID = 1L;
+    private static final Long INVALID_USER_ID = 999L;
+
+    private static final User TEST_USER = new User(VALID_USER_ID, "Mikola", 27, 80, 183, null, null, null);
+    private static final UserDTO TEST_USER_DTO = new UserDTO("Mikola", 27, 80, 183);
+
+    @BeforeEach
+    void setUp() {
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+        when(userRepository.findById(VALID_USER_ID)).thenReturn(Optional.of(TEST_USER));
+        when(userRepository.findCurrentById(VALID_USER_ID)).thenReturn(Optional.of(TEST_USER));
+        when(userMapper.toDTO(TEST_USER)).thenReturn(TEST_USER_DTO);
+    }
+
+    @Test
+    void getUserById_ShouldHitDatabaseOnlyOnce() {
+        userService.getUserById(VALID_USER_ID);
+        UserDTO cached = userService.getUserById(VALID_USER_ID);
+
+        assertEquals(TEST_USER_DTO, cached);
+        verify(userRepository, times(1)).findById(VALID_USER_ID);
+    }
+
+    @Test
+    void existsById_ShouldCacheOnlyPositiveAnswers() {
+        when(userRepository.existsById(VALID_USER_ID)).thenReturn(true);
+        when(userRepository.existsById(INVALID_USER_ID)).thenReturn(false);
+
+        userService.existsById(VALID_USER_ID);
+        userService.existsById(VALID_USER_ID);
+        userService.existsById(INVALID_USER_ID);
+        userService.existsById(INVALID_USER_ID);
+
+        verify(userRepository, times(1)).existsById(VALID_USER_ID);
+        verify(userRepository, times(2)).existsById(INVALID_USER_ID);
+    }
+
+    @Test
+    void updateUser_ShouldEvictCachedUser() {
+        userService.getUserById(VALID_USER_ID);
+
+        userService.updateUser(VALID_USER_ID, TEST_USER_DTO, null);
+        userService.getUserById(VALID_USER_ID);
+
+        // 1 — первое чтение, 1 — чтение после вытеснения из кэша; updateUser читает строку мимо кэшей
+        verify(userRepository, times(2)).findById(VALID_USER_ID);
+        verify(userRepository, times(1)).findCurrentById(VALID_USER_ID);
+    }
+
+    @Test
+    void deleteUser_ShouldEvictUserAndExistence() {
+        when(userRepository.existsById(VALID_USER_ID)).thenReturn(true);
+        when(userRepository.lockById(VALID_USER_ID)).thenReturn(Optional.of(VALID_USER_ID));
+        userService.getUserById(VALID_USER_ID);
+        userService.existsById(VALID_USER_ID);
+
+        userService.deleteUser(VALID_USER_ID);
+
+        assertNull(cacheManager.getCache(CacheNames.USERS).get(VALID_USER_ID));
+        assertNull(cacheManager.getCache(CacheNames.USER_EXISTS).get(VALID_USER_ID));
+    }
+}
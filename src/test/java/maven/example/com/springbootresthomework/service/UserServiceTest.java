@@ -1,17 +1,27 @@
 package maven.example.com.springbootresthomework.service;
 
 import jakarta.persistence.EntityNotFoundException;
+import maven.example.com.springbootresthomework.dto.PageDTO;
+import maven.example.com.springbootresthomework.dto.UserCreateDTO;
 import maven.example.com.springbootresthomework.dto.UserDTO;
+import maven.example.com.springbootresthomework.dto.UserProfileDTO;
+import maven.example.com.springbootresthomework.dto.VersionedDTO;
+import maven.example.com.springbootresthomework.entity.Meal;
 import maven.example.com.springbootresthomework.entity.User;
+import maven.example.com.springbootresthomework.entity.Workout;
+import maven.example.com.springbootresthomework.exception.VersionMismatchException;
 import maven.example.com.springbootresthomework.mapper.UserMapper;
 import maven.example.com.springbootresthomework.repository.UserRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
@@ -27,15 +37,23 @@ class UserServiceTest {
     @Mock
     private UserMapper userMapper;
 
+    @Mock
+    private BalanceService balanceService;
+
+    @Mock
+    private NameSuggestionService nameSuggestionService;
+
     @InjectMocks
     private UserService userService;
 
     // Тестовые данные
     private static final Long VALID_USER_ID = 1L;
     private static final Long INVALID_USER_ID = 999L;
+    private static final int PAGE_LIMIT = 20;
 
-    private static final User TEST_USER = new User(VALID_USER_ID, "Mikola", 27, 80, 183, null, null);
+    private static final User TEST_USER = new User(VALID_USER_ID, "Mikola", 27, 80, 183, null, null, null);
     private static final UserDTO TEST_USER_DTO = new UserDTO("Mikola", 27, 80, 183);
+    private static final UserCreateDTO TEST_USER_CREATE_DTO = new UserCreateDTO("Mikola", 27, 80, 183, null, null);
 
     @BeforeEach
     void setUp() {
@@ -44,19 +62,39 @@ class UserServiceTest {
     }
 
     @Test
-    void getAllUsers_ShouldReturnAllUsers() {
-        when(userRepository.findAll()).thenReturn(List.of(TEST_USER));
+    void getAllUsers_WhenLastPage_ShouldReturnUsersWithoutCursor() {
+        when(userRepository.findByIdGreaterThanOrderByIdAsc(eq(0L), any(Pageable.class))).thenReturn(List.of(TEST_USER));
 
-        List<UserDTO> expectedUsers = userService.getAllUsers();
+        PageDTO<UserDTO> expectedPage = userService.getAllUsers(null, PAGE_LIMIT);
 
-        assertFalse(expectedUsers.isEmpty());
-        assertEquals(1, expectedUsers.size());
-        assertEquals(expectedUsers.get(0).getName(), TEST_USER_DTO.getName());
-        assertEquals(expectedUsers.get(0).getAge(), TEST_USER_DTO.getAge());
+        assertEquals(1, expectedPage.getItems().size());
+        assertEquals(expectedPage.getItems().get(0).getName(), TEST_USER_DTO.getName());
+        assertEquals(expectedPage.getItems().get(0).getAge(), TEST_USER_DTO.getAge());
+        assertNull(expectedPage.getNextCursor());
 
         verify(userMapper, times(1)).toDTO(TEST_USER);
     }
 
+    @Test
+    void getAllUsers_WhenMoreRowsExist_ShouldReturnCursorOfLastItem() {
+        User nextUser = new User(VALID_USER_ID + 1, "Olga", 30, 60, 170, null, null, null);
+        when(userRepository.findByIdGreaterThanOrderByIdAsc(eq(0L), any(Pageable.class))).thenReturn(List.of(TEST_USER, nextUser));
+
+        PageDTO<UserDTO> expectedPage = userService.getAllUsers(0L, 1);
+
+        assertEquals(1, expectedPage.getItems().size());
+        assertEquals(VALID_USER_ID, expectedPage.getNextCursor());
+        verify(userMapper, never()).toDTO(nextUser);
+    }
+
+    @Test
+    void getAllUsers_WhenLimitIsOutOfRange_ShouldThrowException() {
+        assertThrows(IllegalArgumentException.class, () -> userService.getAllUsers(null, 0));
+        assertThrows(IllegalArgumentException.class, () -> userService.getAllUsers(null, 101));
+
+        verifyNoInteractions(userRepository);
+    }
+
     @Test
     void getUserById_WhenUserExists_ShouldReturnUser() {
         when(userRepository.findById(VALID_USER_ID)).thenReturn(Optional.of(TEST_USER));
@@ -82,53 +120,158 @@ class UserServiceTest {
         verify(userRepository, times(1)).findById(INVALID_USER_ID);
     }
 
+    @Test
+    void getUserProfile_ShouldLoadMealsAndWorkoutsWithSeparateQueries() {
+        UserProfileDTO profile = new UserProfileDTO(TEST_USER_DTO, List.of(), List.of());
+        when(userRepository.findWithMealsById(VALID_USER_ID)).thenReturn(Optional.of(TEST_USER));
+        when(userRepository.findWithWorkoutsById(VALID_USER_ID)).thenReturn(Optional.of(TEST_USER));
+        when(userMapper.toProfileDTO(TEST_USER)).thenReturn(profile);
+
+        assertEquals(profile, userService.getUserProfile(VALID_USER_ID));
+
+        verify(userRepository, times(1)).findWithMealsById(VALID_USER_ID);
+        verify(userRepository, times(1)).findWithWorkoutsById(VALID_USER_ID);
+        verify(userRepository, never()).findById(any());
+    }
+
+    @Test
+    void getUserProfile_WhenUserDoesNotExist_ShouldThrowException() {
+        when(userRepository.findWithMealsById(INVALID_USER_ID)).thenReturn(Optional.empty());
+
+        EntityNotFoundException exception = assertThrows(EntityNotFoundException.class, () ->
+                userService.getUserProfile(INVALID_USER_ID));
+
+        assertEquals("User not found", exception.getMessage());
+        verify(userRepository, never()).findWithWorkoutsById(any());
+    }
+
+    @Test
+    void getVersionedUser_WhenUserExists_ShouldReturnBodyAndVersionOfSameEntity() {
+        User versionedUser = new User(VALID_USER_ID, "Mikola", 27, 80, 183, null, null, 3L);
+        when(userRepository.findById(VALID_USER_ID)).thenReturn(Optional.of(versionedUser));
+        when(userMapper.toDTO(versionedUser)).thenReturn(TEST_USER_DTO);
+
+        VersionedDTO<UserDTO> versionedDTO = userService.getVersionedUser(VALID_USER_ID);
+
+        assertEquals(new VersionedDTO<>(3L, TEST_USER_DTO), versionedDTO);
+        verify(userRepository, times(1)).findById(VALID_USER_ID);
+        verify(userRepository, never()).findVersionById(any());
+    }
+
+    @Test
+    void getVersionedUser_WhenUserDoesNotExist_ShouldThrowException() {
+        when(userRepository.findById(INVALID_USER_ID)).thenReturn(Optional.empty());
+
+        EntityNotFoundException exception = assertThrows(EntityNotFoundException.class, () ->
+                userService.getVersionedUser(INVALID_USER_ID));
+
+        assertEquals("User not found", exception.getMessage());
+    }
+
+    @Test
+    void existsById_ShouldDelegateToRepository() {
+        when(userRepository.existsById(VALID_USER_ID)).thenReturn(true);
+
+        assertTrue(userService.existsById(VALID_USER_ID));
+        verify(userRepository, times(1)).existsById(VALID_USER_ID);
+    }
+
     @Test
     void createUser_ShouldCreateUser() {
-        userService.createUser(TEST_USER_DTO);
+        User newUser = new User(VALID_USER_ID, "Mikola", 27, 80, 183, List.of(), List.of(), null);
+        when(userMapper.toEntity(TEST_USER_CREATE_DTO)).thenReturn(newUser);
 
-        verify(userRepository, times(1)).save(TEST_USER);
-        verify(userMapper, times(1)).toEntity(TEST_USER_DTO);
+        userService.createUser(TEST_USER_CREATE_DTO);
+
+        verify(userRepository, times(1)).save(newUser);
+        verify(balanceService, times(1)).createBalance(VALID_USER_ID, 0, 0);
+        verifyNoInteractions(nameSuggestionService);
+    }
+
+    @Test
+    void createUser_WithHistory_ShouldSaveOnceAndStartBalanceFromHistory() {
+        User newUser = new User(VALID_USER_ID, "Mikola", 27, 80, 183, new ArrayList<>(), new ArrayList<>(), null);
+        newUser.getMeals().add(new Meal(null, "Pasta", 500, newUser));
+        newUser.getMeals().add(new Meal(null, "Salad", 200, newUser));
+        newUser.getWorkouts().add(new Workout(null, "Running", 30, 392, newUser));
+        when(userMapper.toEntity(TEST_USER_CREATE_DTO)).thenReturn(newUser);
+
+        userService.createUser(TEST_USER_CREATE_DTO);
+
+        // Вложенные сущности сохраняются каскадом, отдельных вызовов репозиториев нет
+        verify(userRepository, times(1)).save(newUser);
+        verify(balanceService, times(1)).createBalance(VALID_USER_ID, 700, 392);
+        verify(nameSuggestionService, times(1)).mealsCreated(List.of("Pasta", "Salad"));
+        verify(nameSuggestionService, times(1)).workoutsCreated(List.of("Running"));
     }
 
     @Test
     void updateUser_WhenUserExists_ShouldUpdateUser() {
-        when(userRepository.findById(VALID_USER_ID)).thenReturn(Optional.of(TEST_USER));
+        when(userRepository.findCurrentById(VALID_USER_ID)).thenReturn(Optional.of(TEST_USER));
 
-        userService.updateUser(VALID_USER_ID, TEST_USER_DTO);
+        userService.updateUser(VALID_USER_ID, TEST_USER_DTO, null);
 
         verify(userMapper, times(1)).updateEntity(TEST_USER, TEST_USER_DTO);
         verify(userRepository, times(1)).save(TEST_USER);
+        verify(userRepository, never()).findById(any());
     }
 
     @Test
     void updateUser_WhenUserDoesNotExist_ShouldThrowException() {
-        when(userRepository.findById(INVALID_USER_ID)).thenReturn(Optional.empty());
+        when(userRepository.findCurrentById(INVALID_USER_ID)).thenReturn(Optional.empty());
 
         EntityNotFoundException exception = assertThrows(EntityNotFoundException.class, () ->
-                userService.updateUser(INVALID_USER_ID, TEST_USER_DTO));
+                userService.updateUser(INVALID_USER_ID, TEST_USER_DTO, null));
 
         assertEquals("User not found", exception.getMessage());
-        verify(userRepository, times(1)).findById(INVALID_USER_ID);
+        verify(userRepository, times(1)).findCurrentById(INVALID_USER_ID);
     }
 
     @Test
-    void deleteUser_ShouldDeleteUser() {
-        when(userRepository.findById(VALID_USER_ID)).thenReturn(Optional.of(TEST_USER));
+    void updateUser_WhenExpectedVersionMatches_ShouldUpdateUser() {
+        User versionedUser = new User(VALID_USER_ID, "Mikola", 27, 80, 183, null, null, 4L);
+        when(userRepository.findCurrentById(VALID_USER_ID)).thenReturn(Optional.of(versionedUser));
+
+        userService.updateUser(VALID_USER_ID, TEST_USER_DTO, 4L);
+
+        verify(userRepository, times(1)).save(versionedUser);
+    }
+
+    @Test
+    void updateUser_WhenExpectedVersionIsStale_ShouldThrowExceptionWithoutSaving() {
+        User versionedUser = new User(VALID_USER_ID, "Mikola", 27, 80, 183, null, null, 4L);
+        when(userRepository.findCurrentById(VALID_USER_ID)).thenReturn(Optional.of(versionedUser));
+
+        assertThrows(VersionMismatchException.class, () ->
+                userService.updateUser(VALID_USER_ID, TEST_USER_DTO, 3L));
+
+        verify(userMapper, never()).updateEntity(any(), any());
+        verify(userRepository, never()).save(any());
+    }
+
+    @Test
+    void deleteUser_ShouldLockCollectNamesAndDeleteWithoutLoadingUser() {
+        when(userRepository.lockById(VALID_USER_ID)).thenReturn(Optional.of(VALID_USER_ID));
 
         userService.deleteUser(VALID_USER_ID);
 
-        verify(userRepository, times(1)).findById(VALID_USER_ID);
-        verify(userRepository, times(1)).delete(TEST_USER);
+        InOrder inOrder = inOrder(userRepository, nameSuggestionService);
+        inOrder.verify(userRepository).lockById(VALID_USER_ID);
+        inOrder.verify(nameSuggestionService).userDeleting(VALID_USER_ID);
+        inOrder.verify(userRepository).deleteUserById(VALID_USER_ID);
+        verify(userRepository, never()).findById(any());
+        verify(userRepository, never()).delete(any());
     }
 
     @Test
     void deleteUser_WhenUserDoesNotExist_ShouldThrowException() {
-        when(userRepository.findById(INVALID_USER_ID)).thenReturn(Optional.empty());
+        when(userRepository.lockById(INVALID_USER_ID)).thenReturn(Optional.empty());
 
         EntityNotFoundException exception = assertThrows(EntityNotFoundException.class, () ->
                 userService.deleteUser(INVALID_USER_ID));
 
         assertEquals("User not found", exception.getMessage());
-        verify(userRepository, times(1)).findById(INVALID_USER_ID);
+        verify(userRepository, never()).deleteUserById(any());
+        verifyNoInteractions(nameSuggestionService);
     }
-}
\ No newline at end of file
+}
@@ -1,21 +1,29 @@
 package maven.example.com.springbootresthomework.service;
 
 import jakarta.persistence.EntityNotFoundException;
+import maven.example.com.springbootresthomework.dto.PageDTO;
+import maven.example.com.springbootresthomework.dto.UserDTO;
 import maven.example.com.springbootresthomework.dto.WorkoutDTO;
 import maven.example.com.springbootresthomework.entity.User;
 import maven.example.com.springbootresthomework.entity.Workout;
+import maven.example.com.springbootresthomework.exception.VersionMismatchException;
 import maven.example.com.springbootresthomework.mapper.WorkoutMapper;
 import maven.example.com.springbootresthomework.repository.UserRepository;
 import maven.example.com.springbootresthomework.repository.WorkoutRepository;
+import maven.example.com.springbootresthomework.repository.projection.WorkoutView;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -32,6 +40,15 @@ class WorkoutServiceTest {
     @Mock
     private WorkoutMapper workoutMapper;
 
+    @Mock
+    private BalanceService balanceService;
+
+    @Mock
+    private UserService userService;
+
+    @Mock
+    private NameSuggestionService nameSuggestionService;
+
     @InjectMocks
     private WorkoutService workoutService;
 
@@ -39,35 +56,56 @@ class WorkoutServiceTest {
     private static final Long VALID_USER_ID = 1L;
     private static final Long VALID_WORKOUT_ID = 1L;
     private static final Long INVALID_ID = 999L;
+    private static final int PAGE_LIMIT = 20;
 
-    private static final User TEST_USER = new User(VALID_USER_ID, "Mikola", 27, 80, 183, null, null);
+    private static final User TEST_USER = new User(VALID_USER_ID, "Mikola", 27, 80, 183, null, null, null);
     private static final Workout TEST_WORKOUT = new Workout(VALID_WORKOUT_ID, "Running", 45, 450, TEST_USER);
     private static final WorkoutDTO TEST_WORKOUT_DTO = new WorkoutDTO("Running", 45);
+    private static final WorkoutView TEST_WORKOUT_VIEW = new WorkoutView(VALID_WORKOUT_ID, "Running", 45);
+    private static final UserDTO TEST_USER_DTO = new UserDTO("Mikola", 27, 80, 183);
+    private static final double RUNNING_MET = 9.8;
 
     @BeforeEach
     void setUp() {
-        lenient().when(workoutMapper.toDTO(TEST_WORKOUT)).thenReturn(TEST_WORKOUT_DTO);
-        lenient().when(workoutMapper.toEntity(TEST_WORKOUT_DTO, TEST_USER)).thenReturn(TEST_WORKOUT);
-        lenient().when(userRepository.existsById(VALID_USER_ID)).thenReturn(true);
+        lenient().when(workoutMapper.toEntity(TEST_WORKOUT_DTO, TEST_USER, 80)).thenReturn(TEST_WORKOUT);
+        lenient().when(userService.getUserById(VALID_USER_ID)).thenReturn(TEST_USER_DTO);
+    }
+
+    @Test
+    void getAllWorkouts_ShouldReturnFirstPage() {
+        when(workoutRepository.findViewsAfter(eq(0L), any(Pageable.class))).thenReturn(List.of(TEST_WORKOUT_VIEW));
+
+        PageDTO<WorkoutDTO> expectedPage = workoutService.getAllWorkouts(null, PAGE_LIMIT);
+
+        assertEquals(1, expectedPage.getItems().size());
+        assertEquals(TEST_WORKOUT_DTO.getName(), expectedPage.getItems().get(0).getName());
+        assertEquals(TEST_WORKOUT_DTO.getDuration(), expectedPage.getItems().get(0).getDuration());
+        assertNull(expectedPage.getNextCursor());
+
+        verifyNoInteractions(workoutMapper);
     }
 
     @Test
-    void getAllWorkouts_ShouldReturnAllWorkouts() {
-        when(workoutRepository.findAll()).thenReturn(List.of(TEST_WORKOUT));
+    void getAllWorkouts_WhenLimitIsOutOfRange_ShouldThrowException() {
+        assertThrows(IllegalArgumentException.class, () -> workoutService.getAllWorkouts(null, 101));
+
+        verifyNoInteractions(workoutRepository);
+    }
 
-        List<WorkoutDTO> expectedWorkouts = workoutService.getAllWorkouts();
+    @Test
+    void exportWorkouts_ShouldPassEveryRowToAction() {
+        when(workoutRepository.streamAll()).thenReturn(Stream.of(TEST_WORKOUT_VIEW));
+        List<WorkoutDTO> exported = new ArrayList<>();
 
-        assertFalse(expectedWorkouts.isEmpty());
-        assertEquals(1, expectedWorkouts.size());
-        assertEquals(TEST_WORKOUT_DTO.getName(), expectedWorkouts.get(0).getName());
-        assertEquals(TEST_WORKOUT_DTO.getDuration(), expectedWorkouts.get(0).getDuration());
+        workoutService.exportWorkouts(exported::add);
 
-        verify(workoutMapper, times(1)).toDTO(TEST_WORKOUT);
+        assertEquals(List.of(TEST_WORKOUT_DTO), exported);
+        verify(workoutRepository, times(1)).streamAll();
     }
 
     @Test
     void getWorkoutById_WhenWorkoutExists_ShouldReturnWorkoutDTO() {
-        when(workoutRepository.findById(VALID_WORKOUT_ID)).thenReturn(Optional.of(TEST_WORKOUT));
+        when(workoutRepository.findViewById(VALID_WORKOUT_ID)).thenReturn(Optional.of(TEST_WORKOUT_VIEW));
 
         WorkoutDTO expectedWorkout = workoutService.getWorkoutById(VALID_WORKOUT_ID);
 
@@ -75,106 +113,164 @@ class WorkoutServiceTest {
         assertEquals(TEST_WORKOUT_DTO.getName(), expectedWorkout.getName());
         assertEquals(TEST_WORKOUT_DTO.getDuration(), expectedWorkout.getDuration());
 
-        verify(workoutRepository, times(1)).findById(VALID_WORKOUT_ID);
-        verify(workoutMapper, times(1)).toDTO(TEST_WORKOUT);
+        verify(workoutRepository, times(1)).findViewById(VALID_WORKOUT_ID);
+        verify(workoutRepository, never()).findById(any());
     }
 
     @Test
     void getWorkoutById_WhenWorkoutDoesNotExist_ShouldThrowException() {
-        when(workoutRepository.findById(INVALID_ID)).thenReturn(Optional.empty());
+        when(workoutRepository.findViewById(INVALID_ID)).thenReturn(Optional.empty());
 
         EntityNotFoundException exception = assertThrows(EntityNotFoundException.class, () ->
                 workoutService.getWorkoutById(INVALID_ID));
 
         assertEquals("Workout not found", exception.getMessage());
-        verify(workoutRepository, times(1)).findById(INVALID_ID);
+        verify(workoutRepository, times(1)).findViewById(INVALID_ID);
     }
 
     @Test
-    void getWorkoutsByUserId_WhenUserExists_ShouldReturnWorkouts() {
-        when(workoutRepository.findByUserId(VALID_USER_ID)).thenReturn(List.of(TEST_WORKOUT));
+    void getWorkoutsVersionByUserId_WhenUserExists_ShouldReturnCounter() {
+        when(userRepository.findWorkoutsVersionById(VALID_USER_ID)).thenReturn(Optional.of(7L));
 
-        List<WorkoutDTO> expectedWorkouts = workoutService.getWorkoutsByUserId(VALID_USER_ID);
+        assertEquals(7L, workoutService.getWorkoutsVersionByUserId(VALID_USER_ID));
+        verifyNoInteractions(workoutRepository);
+    }
 
-        assertFalse(expectedWorkouts.isEmpty());
-        assertEquals(1, expectedWorkouts.size());
-        assertEquals(TEST_WORKOUT_DTO.getName(), expectedWorkouts.get(0).getName());
-        assertEquals(TEST_WORKOUT_DTO.getDuration(), expectedWorkouts.get(0).getDuration());
+    @Test
+    void getWorkoutVersion_WhenWorkoutDoesNotExist_ShouldThrowException() {
+        when(workoutRepository.findVersionById(INVALID_ID)).thenReturn(Optional.empty());
 
-        verify(userRepository, times(1)).existsById(VALID_USER_ID);
-        verify(workoutMapper, times(1)).toDTO(TEST_WORKOUT);
+        EntityNotFoundException exception = assertThrows(EntityNotFoundException.class, () ->
+                workoutService.getWorkoutVersion(INVALID_ID));
+
+        assertEquals("Workout not found", exception.getMessage());
     }
 
     @Test
-    void getWorkoutsByUserId_WhenUserDoesNotExist_ShouldThrowException() {
-        when(userRepository.existsById(INVALID_ID)).thenReturn(false);
+    void streamWorkoutsByUserId_ShouldPassEveryRowToAction() {
+        when(workoutRepository.streamViewsByUserId(VALID_USER_ID)).thenReturn(Stream.of(TEST_WORKOUT_VIEW));
+        List<WorkoutDTO> streamed = new ArrayList<>();
 
-        EntityNotFoundException exception = assertThrows(EntityNotFoundException.class, () ->
-                workoutService.getWorkoutsByUserId(INVALID_ID));
+        workoutService.streamWorkoutsByUserId(VALID_USER_ID, streamed::add);
 
-        assertEquals("User not found", exception.getMessage());
-        verify(userRepository, times(1)).existsById(INVALID_ID);
+        assertEquals(List.of(TEST_WORKOUT_DTO), streamed);
+        verify(workoutRepository, times(1)).streamViewsByUserId(VALID_USER_ID);
+        verifyNoInteractions(userService);
     }
 
     @Test
     void createWorkout_ShouldCreateWorkout() {
-        when(userRepository.findById(VALID_WORKOUT_ID)).thenReturn(Optional.of(TEST_USER));
+        when(userRepository.getReferenceById(VALID_USER_ID)).thenReturn(TEST_USER);
 
         workoutService.createWorkout(VALID_USER_ID, TEST_WORKOUT_DTO);
 
         verify(workoutRepository, times(1)).save(TEST_WORKOUT);
-        verify(workoutMapper, times(1)).toEntity(TEST_WORKOUT_DTO, TEST_USER);
+        verify(workoutMapper, times(1)).toEntity(TEST_WORKOUT_DTO, TEST_USER, 80);
+        verify(balanceService, times(1)).addCaloriesBurned(VALID_USER_ID, 450);
     }
 
     @Test
     void createWorkout_WhenUserDoesNotExist_ShouldThrowException() {
-        when(userRepository.findById(INVALID_ID)).thenReturn(Optional.empty());
+        when(userService.getUserById(INVALID_ID)).thenThrow(new EntityNotFoundException("User not found"));
 
         EntityNotFoundException exception = assertThrows(EntityNotFoundException.class, () ->
                 workoutService.createWorkout(INVALID_ID, TEST_WORKOUT_DTO));
 
         assertEquals("User not found", exception.getMessage());
-        verify(userRepository, times(1)).findById(INVALID_ID);
+        verify(userService, times(1)).getUserById(INVALID_ID);
+        verify(userRepository, never()).getReferenceById(any());
+        verifyNoInteractions(balanceService);
     }
 
     @Test
-    void updateWorkout_ShouldUpdateWorkout() {
-        when(workoutRepository.findById(VALID_WORKOUT_ID)).thenReturn(Optional.of(TEST_WORKOUT));
+    void createWorkouts_ShouldSaveAllWorkoutsInOneCall() {
+        when(userRepository.getReferenceById(VALID_USER_ID)).thenReturn(TEST_USER);
 
-        workoutService.updateWorkout(VALID_WORKOUT_ID, TEST_WORKOUT_DTO);
+        workoutService.createWorkouts(VALID_USER_ID, List.of(TEST_WORKOUT_DTO, TEST_WORKOUT_DTO));
 
-        verify(workoutMapper, times(1)).updateEntity(TEST_WORKOUT, TEST_WORKOUT_DTO);
-        verify(workoutRepository, times(1)).save(TEST_WORKOUT);
+        verify(workoutMapper, times(2)).toEntity(TEST_WORKOUT_DTO, TEST_USER, 80);
+        verify(userService, times(1)).getUserById(VALID_USER_ID);
+        verify(workoutRepository, times(1)).saveAll(List.of(TEST_WORKOUT, TEST_WORKOUT));
+        verify(workoutRepository, never()).save(any());
+        verify(balanceService, times(1)).addCaloriesBurned(VALID_USER_ID, 900);
+        verify(nameSuggestionService, times(1)).workoutsCreated(List.of("Running", "Running"));
+    }
+
+    @Test
+    void createWorkouts_WhenUserDoesNotExist_ShouldThrowException() {
+        when(userService.getUserById(INVALID_ID)).thenThrow(new EntityNotFoundException("User not found"));
+
+        EntityNotFoundException exception = assertThrows(EntityNotFoundException.class, () ->
+                workoutService.createWorkouts(INVALID_ID, List.of(TEST_WORKOUT_DTO)));
+
+        assertEquals("User not found", exception.getMessage());
+        verify(workoutRepository, never()).saveAll(any());
+    }
+
+    @Test
+    void updateWorkout_ShouldUpdateWithWorkoutMet() {
+        when(workoutMapper.getMet(TEST_WORKOUT_DTO)).thenReturn(RUNNING_MET);
+        when(workoutRepository.updateByIdAdjustingBalance(VALID_WORKOUT_ID, "Running", 45, RUNNING_MET, null)).thenReturn(Optional.of("Running"));
+
+        workoutService.updateWorkout(VALID_WORKOUT_ID, TEST_WORKOUT_DTO, null);
+
+        verify(workoutRepository, times(1)).updateByIdAdjustingBalance(VALID_WORKOUT_ID, "Running", 45, RUNNING_MET, null);
+        verify(workoutRepository, never()).findById(any());
+        verify(nameSuggestionService, times(1)).workoutRenamed("Running", "Running");
+        verifyNoInteractions(userService);
     }
 
     @Test
     void updateWorkout_WhenWorkoutDoesNotExist_ShouldThrowException() {
-        when(workoutRepository.findById(INVALID_ID)).thenReturn(Optional.empty());
+        when(workoutMapper.getMet(TEST_WORKOUT_DTO)).thenReturn(RUNNING_MET);
+        when(workoutRepository.updateByIdAdjustingBalance(INVALID_ID, "Running", 45, RUNNING_MET, null)).thenReturn(Optional.empty());
+        when(workoutRepository.findVersionById(INVALID_ID)).thenReturn(Optional.empty());
 
         EntityNotFoundException exception = assertThrows(EntityNotFoundException.class, () ->
-                workoutService.updateWorkout(INVALID_ID, TEST_WORKOUT_DTO));
+                workoutService.updateWorkout(INVALID_ID, TEST_WORKOUT_DTO, null));
 
         assertEquals("Workout not found", exception.getMessage());
-        verify(workoutRepository, times(1)).findById(INVALID_ID);
     }
 
     @Test
-    void deleteWorkout_ShouldDeleteWorkout() {
-        when(workoutRepository.findById(VALID_WORKOUT_ID)).thenReturn(Optional.of(TEST_WORKOUT));
+    void updateWorkout_WhenWorkoutChangedConcurrently_ShouldThrowRetryableException() {
+        when(workoutMapper.getMet(TEST_WORKOUT_DTO)).thenReturn(RUNNING_MET);
+        when(workoutRepository.updateByIdAdjustingBalance(VALID_WORKOUT_ID, "Running", 45, RUNNING_MET, null)).thenReturn(Optional.empty());
+        when(workoutRepository.findVersionById(VALID_WORKOUT_ID)).thenReturn(Optional.of(5L));
+
+        assertThrows(ObjectOptimisticLockingFailureException.class, () ->
+                workoutService.updateWorkout(VALID_WORKOUT_ID, TEST_WORKOUT_DTO, null));
+    }
+
+    @Test
+    void updateWorkout_WhenExpectedVersionIsStale_ShouldThrowVersionMismatch() {
+        when(workoutMapper.getMet(TEST_WORKOUT_DTO)).thenReturn(RUNNING_MET);
+        when(workoutRepository.updateByIdAdjustingBalance(VALID_WORKOUT_ID, "Running", 45, RUNNING_MET, 4L)).thenReturn(Optional.empty());
+        when(workoutRepository.findVersionById(VALID_WORKOUT_ID)).thenReturn(Optional.of(5L));
+
+        assertThrows(VersionMismatchException.class, () ->
+                workoutService.updateWorkout(VALID_WORKOUT_ID, TEST_WORKOUT_DTO, 4L));
+    }
+
+    @Test
+    void deleteWorkout_ShouldDeleteWithoutLoadingWorkout() {
+        when(workoutRepository.deleteByIdAdjustingBalance(VALID_WORKOUT_ID)).thenReturn(Optional.of("Running"));
 
         workoutService.deleteWorkout(VALID_WORKOUT_ID);
 
-        verify(workoutRepository, times(1)).delete(TEST_WORKOUT);
+        verify(workoutRepository, times(1)).deleteByIdAdjustingBalance(VALID_WORKOUT_ID);
+        verify(workoutRepository, never()).findById(any());
+        verify(nameSuggestionService, times(1)).workoutDeleted("Running");
     }
 
     @Test
     void deleteWorkout_WhenWorkoutDoesNotExist_ShouldThrowException() {
-        when(workoutRepository.findById(INVALID_ID)).thenReturn(Optional.empty());
+        when(workoutRepository.deleteByIdAdjustingBalance(INVALID_ID)).thenReturn(Optional.empty());
 
         EntityNotFoundException exception = assertThrows(EntityNotFoundException.class, () ->
                 workoutService.deleteWorkout(INVALID_ID));
 
         assertEquals("Workout not found", exception.getMessage());
-        verify(workoutRepository, times(1)).findById(INVALID_ID);
+        verifyNoInteractions(nameSuggestionService);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,53 @@
+package maven.example.com.springbootresthomework.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CalorieCalculatorTest {
+
+    private final CalorieCalculator calorieCalculator = new CalorieCalculator();
+
+    // Тестовые данные
+    private static final double WEIGHT = 70;
+
+    @Test
+    void calculateCaloriesBurned_ShouldUseMetWeightAndDuration() {
+        // 9.8 MET × 70 кг × 0.5 ч = 343
+        assertEquals(343, calorieCalculator.calculateCaloriesBurned("Running", 30, WEIGHT));
+    }
+
+    @Test
+    void calculateCaloriesBurned_ShouldDependOnWeight() {
+        int light = calorieCalculator.calculateCaloriesBurned("Cycling", 60, 50);
+        int heavy = calorieCalculator.calculateCaloriesBurned("Cycling", 60, 100);
+
+        assertEquals(375, light);
+        assertEquals(750, heavy);
+    }
+
+    @Test
+    void calculateCaloriesBurned_WhenDurationIsZero_ShouldReturnZero() {
+        assertEquals(0, calorieCalculator.calculateCaloriesBurned("Running", 0, WEIGHT));
+    }
+
+    @Test
+    void getMet_ShouldIgnoreCaseAndWhitespace() {
+        double expected = calorieCalculator.getMet("Jump Rope");
+
+        assertEquals(12.3, expected);
+        assertEquals(expected, calorieCalculator.getMet("jump rope"));
+        assertEquals(expected, calorieCalculator.getMet("  JUMP   ROPE "));
+        assertEquals(expected, calorieCalculator.getMet("JumpRope"));
+        assertEquals(expected, calorieCalculator.getMet(new StringBuilder("jump\trope")));
+    }
+
+    @Test
+    void getMet_WhenWorkoutIsUnknown_ShouldReturnDefault() {
+        assertEquals(CalorieCalculator.DEFAULT_MET, calorieCalculator.getMet("Underwater Chess"));
+        assertEquals(CalorieCalculator.DEFAULT_MET, calorieCalculator.getMet("Run"));
+        assertEquals(CalorieCalculator.DEFAULT_MET, calorieCalculator.getMet("Running Fast"));
+        assertEquals(CalorieCalculator.DEFAULT_MET, calorieCalculator.getMet(""));
+        assertEquals(CalorieCalculator.DEFAULT_MET, calorieCalculator.getMet(null));
+    }
+}
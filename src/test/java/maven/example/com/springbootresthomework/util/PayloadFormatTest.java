@@ -0,0 +1,48 @@
+package maven.example.com.springbootresthomework.util;
+
+import maven.example.com.springbootresthomework.constants.MessageConstants;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PayloadFormatTest {
+
+    @Test
+    void negotiate_WithoutAcceptOrWildcard_ShouldChooseJson() {
+        assertEquals(PayloadFormat.JSON, PayloadFormat.negotiate(null));
+        assertEquals(PayloadFormat.JSON, PayloadFormat.negotiate("*/*"));
+        assertEquals(PayloadFormat.JSON, PayloadFormat.negotiate("application/*"));
+    }
+
+    @Test
+    void negotiate_ShouldChooseBinaryFormatByMediaType() {
+        assertEquals(PayloadFormat.CBOR, PayloadFormat.negotiate("application/cbor"));
+        assertEquals(PayloadFormat.SMILE, PayloadFormat.negotiate("application/x-jackson-smile, */*;q=0.1"));
+    }
+
+    @Test
+    void negotiate_ShouldRespectQuality() {
+        assertEquals(PayloadFormat.CBOR, PayloadFormat.negotiate("application/json;q=0.5, application/cbor"));
+        assertEquals(PayloadFormat.JSON, PayloadFormat.negotiate("application/cbor;q=0, */*"));
+    }
+
+    @Test
+    void negotiate_WhenAcceptIsInvalid_ShouldFallBackToJson() {
+        assertEquals(PayloadFormat.JSON, PayloadFormat.negotiate("not a media type"));
+        assertEquals(PayloadFormat.JSON, PayloadFormat.negotiate("text/html"));
+    }
+
+    @Test
+    void expectedVersion_ShouldIgnoreFormatSuffix() {
+        assertEquals(3L, ConditionalUpdate.expectedVersion("\"3\""));
+        assertEquals(3L, ConditionalUpdate.expectedVersion("\"3-cbor\""));
+        assertEquals(3L, ConditionalUpdate.expectedVersion("\"3-smile\""));
+    }
+
+    @Test
+    void expectedVersion_WhenSuffixIsUnknown_ShouldThrow() {
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
+                () -> ConditionalUpdate.expectedVersion("\"3-xml\""));
+        assertEquals(MessageConstants.INVALID_IF_MATCH, ex.getMessage());
+    }
+}
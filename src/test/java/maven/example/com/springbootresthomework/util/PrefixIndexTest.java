@@ -0,0 +1,112 @@
+package maven.example.com.springbootresthomework.util;
+
+import maven.example.com.springbootresthomework.dto.NameSuggestionDTO;
+import maven.example.com.springbootresthomework.repository.projection.NameCount;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PrefixIndexTest {
+
+    private final PrefixIndex prefixIndex = new PrefixIndex();
+
+    // Тестовые данные
+    private static final List<NameCount> COUNTS = List.of(
+            new NameCount("Pasta", 5),
+            new NameCount("pasta", 2),
+            new NameCount("Pastry", 3),
+            new NameCount("Pancakes", 3),
+            new NameCount("Salad", 9));
+
+    @BeforeEach
+    void setUp() {
+        prefixIndex.replaceAll(COUNTS);
+    }
+
+    @Test
+    void replaceAll_ShouldMergeNamesDifferingOnlyInCase() {
+        assertEquals(4, prefixIndex.size());
+        assertEquals(List.of(new NameSuggestionDTO("Pasta", 7)), prefixIndex.suggest("PASTA", 10));
+    }
+
+    @Test
+    void suggest_ShouldReturnMostFrequentNamesFirst() {
+        List<NameSuggestionDTO> suggestions = prefixIndex.suggest("pa", 10);
+
+        assertEquals(List.of(
+                new NameSuggestionDTO("Pasta", 7),
+                new NameSuggestionDTO("Pancakes", 3),
+                new NameSuggestionDTO("Pastry", 3)), suggestions);
+    }
+
+    @Test
+    void suggest_ShouldRespectLimit() {
+        assertEquals(List.of(new NameSuggestionDTO("Pasta", 7), new NameSuggestionDTO("Pancakes", 3)),
+                prefixIndex.suggest(" Pa", 2));
+    }
+
+    @Test
+    void suggest_WhenNothingMatches_ShouldReturnEmptyList() {
+        assertTrue(prefixIndex.suggest("Soup", 10).isEmpty());
+    }
+
+    @Test
+    void remove_WhenCountDropsToZero_ShouldDropName() {
+        prefixIndex.add("Soup");
+        prefixIndex.remove("soup");
+
+        assertTrue(prefixIndex.suggest("so", 10).isEmpty());
+        assertEquals(4, prefixIndex.size());
+    }
+
+    @Test
+    void removeAll_ShouldSubtractCountsAndDropExhaustedNames() {
+        prefixIndex.removeAll(List.of(new NameCount("pasta", 2), new NameCount("Pastry", 3)));
+
+        assertEquals(List.of(new NameSuggestionDTO("Pasta", 5)), prefixIndex.suggest("past", 10));
+    }
+
+    @Test
+    void rename_ShouldMoveOneUseToNewName() {
+        prefixIndex.rename("Pastry", "Pasta");
+
+        assertEquals(List.of(new NameSuggestionDTO("Pasta", 8), new NameSuggestionDTO("Pastry", 2)),
+                prefixIndex.suggest("past", 10));
+    }
+
+    @Test
+    void rename_WhenOnlyCaseChanges_ShouldKeepCounts() {
+        prefixIndex.rename("Salad", "SALAD");
+
+        assertEquals(List.of(new NameSuggestionDTO("Salad", 9)), prefixIndex.suggest("sal", 10));
+    }
+
+    @Test
+    void replaceAll_AfterBeginRebuild_ShouldReplayChangesMadeSinceSnapshot() {
+        prefixIndex.beginRebuild();
+        // Изменения после снимка: в прочитанных счётчиках их нет
+        prefixIndex.add("Soup");
+        prefixIndex.rename("Pastry", "Pasta");
+        assertEquals(List.of(new NameSuggestionDTO("Soup", 1)), prefixIndex.suggest("so", 10));
+
+        prefixIndex.replaceAll(COUNTS);
+
+        assertEquals(List.of(new NameSuggestionDTO("Soup", 1)), prefixIndex.suggest("so", 10));
+        assertEquals(List.of(new NameSuggestionDTO("Pasta", 8), new NameSuggestionDTO("Pastry", 2)),
+                prefixIndex.suggest("past", 10));
+    }
+
+    @Test
+    void replaceAll_WithoutBeginRebuild_ShouldNotReplayEarlierChanges() {
+        // Изменение до снимка уже учтено в счётчиках и не должно прибавиться второй раз
+        prefixIndex.add("Soup");
+
+        prefixIndex.replaceAll(List.of(new NameCount("Soup", 1)));
+        prefixIndex.replaceAll(List.of(new NameCount("Soup", 1)));
+
+        assertEquals(List.of(new NameSuggestionDTO("Soup", 1)), prefixIndex.suggest("so", 10));
+    }
+}